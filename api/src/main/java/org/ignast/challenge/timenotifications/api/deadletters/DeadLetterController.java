@@ -0,0 +1,36 @@
+package org.ignast.challenge.timenotifications.api.deadletters;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.ignast.challenge.timenotifications.domain.DeadLetters;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/dead-letters")
+public class DeadLetterController {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final DeadLetters deadLetters;
+
+    DeadLetterController(final DeadLetters deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * @return notifications most recently given up on, most recent first
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<DeadLetterDto> recent(@RequestParam(defaultValue = "" + DEFAULT_LIMIT) final int limit) {
+        return deadLetters
+            .recent()
+            .stream()
+            .limit(Math.max(0, limit))
+            .map(DeadLetterDto::of)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,30 @@
+package org.ignast.challenge.timenotifications.api.deadletters;
+
+import java.net.URI;
+import java.time.Instant;
+import org.ignast.challenge.timenotifications.domain.DeadLetter;
+
+/**
+ * @param lastHttpStatus status the subscriber last answered with, or zero if it did not answer
+ */
+record DeadLetterDto(
+    URI subscriptionUri,
+    Instant scheduledAt,
+    int attempts,
+    String lastOutcome,
+    int lastHttpStatus,
+    String reason,
+    Instant givenUpAt
+) {
+    static DeadLetterDto of(final DeadLetter letter) {
+        return new DeadLetterDto(
+            letter.subscriptionUri(),
+            Instant.ofEpochMilli(letter.scheduledAtMillis()),
+            letter.attempts(),
+            letter.lastOutcome().name(),
+            letter.lastHttpStatus(),
+            letter.reason().name(),
+            Instant.ofEpochMilli(letter.givenUpAtMillis())
+        );
+    }
+}
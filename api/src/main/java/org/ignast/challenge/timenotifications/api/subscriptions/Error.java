@@ -4,4 +4,16 @@ record Error(String error) {
     static Error uriAlreadyExists() {
         return new Error("URI is already registered");
     }
+
+    static Error overloaded() {
+        return new Error("Too many pending changes to subscriptions, try again later");
+    }
+
+    static Error notDurable() {
+        return new Error("Change was not journaled in time, it may or may not have taken effect");
+    }
+
+    static Error invalid(final String violations) {
+        return new Error("Subscription is invalid: " + violations);
+    }
 }
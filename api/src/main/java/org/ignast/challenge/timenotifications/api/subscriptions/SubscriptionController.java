@@ -5,20 +5,32 @@ import static org.springframework.hateoas.MediaTypes.HAL_JSON_VALUE;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import lombok.val;
+import org.ignast.challenge.timenotifications.domain.InboxOverflowException;
+import org.ignast.challenge.timenotifications.domain.PeriodicNotification;
+import org.ignast.challenge.timenotifications.domain.SubscriptionOutcome;
 import org.ignast.challenge.timenotifications.domain.Subscriptions;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -36,13 +48,29 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/subscriptions")
 public class SubscriptionController {
 
-    private final ExecutorService singleThreadExecution = Executors.newSingleThreadExecutor();
+    private static final String RETRY_AFTER_SECONDS = "1";
 
-    @Autowired
     private final Subscriptions subscriptions;
 
-    SubscriptionController(final Subscriptions subscriptions) {
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int maxBatchSize;
+
+    SubscriptionController(
+        final Subscriptions subscriptions,
+        final ObjectMapper objectMapper,
+        final Validator validator,
+        @Value("${subscriptions.batch.max-size:10000}") final int maxBatchSize
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("batches need to take at least one subscription");
+        }
         this.subscriptions = subscriptions;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @ResponseBody
@@ -52,15 +80,76 @@ public class SubscriptionController {
     ) {
         val result = new DeferredResult<ResponseEntity<EntityModel<SubscriptionDto>>>();
         val selfLink = generateSelfLink(subscriptionDto.subscriptionUri());
-        singleThreadExecution.submit(() -> {
-            if (subscriptions.subscribe(subscriptionDto.toPeriodicNotification())) {
-                result.setResult(
-                    ResponseEntity.created(selfLink.toUri()).body(EntityModel.of(subscriptionDto, selfLink))
-                );
+        alter(
+            result,
+            () -> {
+                if (subscriptions.subscribe(subscriptionDto.toPeriodicNotification())) {
+                    acknowledgeOnceDurable(
+                        List.of(subscriptionDto.subscriptionUri()),
+                        result,
+                        () ->
+                            result.setResult(
+                                ResponseEntity
+                                    .created(selfLink.toUri())
+                                    .body(EntityModel.of(subscriptionDto, selfLink))
+                            )
+                    );
+                } else {
+                    result.setErrorResult(ResponseEntity.badRequest().body(Error.uriAlreadyExists()));
+                }
+            }
+        );
+        return result;
+    }
+
+    /**
+     * Accepts a JSON array or newline delimited JSON and reports a status per subscription, in the given order.
+     */
+    @ResponseBody
+    @PostMapping(
+        value = "/batch",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public DeferredResult<ResponseEntity<List<SubscriptionResultDto>>> subscribeAll(final InputStream body) {
+        val subscriptionDtos = readAll(body);
+        val results = new SubscriptionResultDto[subscriptionDtos.size()];
+        val valid = new ArrayList<Integer>(subscriptionDtos.size());
+        for (int i = 0; i < subscriptionDtos.size(); i++) {
+            val dto = subscriptionDtos.get(i);
+            val violations = dto == null ? "subscription is missing" : violationsOf(dto);
+            if (violations.isEmpty()) {
+                valid.add(i);
             } else {
-                result.setErrorResult(ResponseEntity.badRequest().body(Error.uriAlreadyExists()));
+                val uri = dto == null ? null : dto.subscriptionUri();
+                results[i] =
+                    SubscriptionResultDto.rejected(uri, HttpStatus.BAD_REQUEST, Error.invalid(violations));
+            }
+        }
+        val notifications = new ArrayList<PeriodicNotification>(valid.size());
+        valid.forEach(i -> notifications.add(subscriptionDtos.get(i).toPeriodicNotification()));
+
+        val result = new DeferredResult<ResponseEntity<List<SubscriptionResultDto>>>();
+        alter(
+            result,
+            () -> {
+                val outcomes = subscriptions.subscribeAll(notifications);
+                val subscribed = new ArrayList<URI>(outcomes.size());
+                for (int n = 0; n < outcomes.size(); n++) {
+                    val i = valid.get(n);
+                    val uri = subscriptionDtos.get(i).subscriptionUri();
+                    results[i] = toResult(uri, outcomes.get(n));
+                    if (outcomes.get(n) == SubscriptionOutcome.SUBSCRIBED) {
+                        subscribed.add(uri);
+                    }
+                }
+                acknowledgeOnceDurable(
+                    subscribed,
+                    result,
+                    () -> result.setResult(ResponseEntity.ok(List.of(results)))
+                );
             }
-        });
+        );
         return result;
     }
 
@@ -70,14 +159,22 @@ public class SubscriptionController {
     ) {
         val result = new DeferredResult<ResponseEntity<Void>>();
         val decodedUri = base64decode(base64SubscriptionUri);
-        singleThreadExecution.submit(() -> {
-            decodedUri
-                .filter(uri -> subscriptions.unsubscribe(uri))
-                .ifPresentOrElse(
-                    uri -> result.setResult(ResponseEntity.ok().build()),
-                    () -> result.setErrorResult(ResponseEntity.notFound().build())
-                );
-        });
+        alter(
+            result,
+            () -> {
+                decodedUri
+                    .filter(uri -> subscriptions.unsubscribe(uri))
+                    .ifPresentOrElse(
+                        uri ->
+                            acknowledgeOnceDurable(
+                                List.of(uri),
+                                result,
+                                () -> result.setResult(ResponseEntity.ok().build())
+                            ),
+                        () -> result.setErrorResult(ResponseEntity.notFound().build())
+                    );
+            }
+        );
         return result;
     }
 
@@ -89,19 +186,112 @@ public class SubscriptionController {
     ) {
         val result = new DeferredResult<ResponseEntity<EntityModel<SubscriptionDto>>>();
         val subscriptionDto = base64decode(base64SubscriptionUri)
-            .map(uri -> new SubscriptionDto(uri, frequencyDto.frequency()));
+            .map(uri -> new SubscriptionDto(uri, frequencyDto.frequency(), frequencyDto.startNow()));
         val selfLink = subscriptionDto.map(dto -> generateSelfLink(dto.subscriptionUri()));
-        singleThreadExecution.submit(() -> {
-            subscriptionDto
-                .filter(dto -> subscriptions.reschedule(dto.toPeriodicNotification()))
-                .ifPresentOrElse(
-                    dto -> result.setResult(ResponseEntity.ok().body(EntityModel.of(dto, selfLink.get()))),
-                    () -> result.setErrorResult(ResponseEntity.notFound().build())
-                );
-        });
+        alter(
+            result,
+            () -> {
+                subscriptionDto
+                    .filter(dto -> subscriptions.reschedule(dto.toPeriodicNotification()))
+                    .ifPresentOrElse(
+                        dto ->
+                            acknowledgeOnceDurable(
+                                List.of(dto.subscriptionUri()),
+                                result,
+                                () ->
+                                    result.setResult(
+                                        ResponseEntity.ok().body(EntityModel.of(dto, selfLink.get()))
+                                    )
+                            ),
+                        () -> result.setErrorResult(ResponseEntity.notFound().build())
+                    );
+            }
+        );
         return result;
     }
 
+    /**
+     * Successful changes are only acknowledged once journaled durably, which the notifier does on its next tick.
+     */
+    private void alter(final DeferredResult<?> result, final Runnable alteration) {
+        try {
+            alteration.run();
+        } catch (InboxOverflowException e) {
+            result.setErrorResult(
+                ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(Error.overloaded())
+            );
+        }
+    }
+
+    private void acknowledgeOnceDurable(
+        final Collection<URI> uris,
+        final DeferredResult<?> result,
+        final Runnable acknowledgement
+    ) {
+        subscriptions
+            .whenDurable(uris)
+            .whenComplete((durable, failure) -> {
+                if (failure == null) {
+                    acknowledgement.run();
+                } else {
+                    result.setErrorResult(
+                        ResponseEntity
+                            .status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                            .body(Error.notDurable())
+                    );
+                }
+            });
+    }
+
+    private List<SubscriptionDto> readAll(final InputStream body) {
+        try (val values = objectMapper.readerFor(SubscriptionDto.class).<SubscriptionDto>readValues(body)) {
+            val subscriptionDtos = new ArrayList<SubscriptionDto>();
+            while (values.hasNextValue()) {
+                if (subscriptionDtos.size() == maxBatchSize) {
+                    throw new ResponseStatusException(
+                        HttpStatus.PAYLOAD_TOO_LARGE,
+                        "At most " + maxBatchSize + " subscriptions can be created at once"
+                    );
+                }
+                subscriptionDtos.add(values.nextValue());
+            }
+            return subscriptionDtos;
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Subscriptions are not valid JSON", e);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to read subscriptions", e);
+        }
+    }
+
+    private String violationsOf(final SubscriptionDto dto) {
+        val violations = validator.validate(dto);
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private SubscriptionResultDto toResult(final URI uri, final SubscriptionOutcome outcome) {
+        return switch (outcome) {
+            case SUBSCRIBED -> SubscriptionResultDto.created(uri);
+            case ALREADY_REGISTERED -> SubscriptionResultDto.rejected(
+                uri,
+                HttpStatus.BAD_REQUEST,
+                Error.uriAlreadyExists()
+            );
+            case OVERLOADED -> SubscriptionResultDto.rejected(
+                uri,
+                HttpStatus.SERVICE_UNAVAILABLE,
+                Error.overloaded()
+            );
+        };
+    }
+
     private Link generateSelfLink(URI uri) {
         return linkTo(methodOn(SubscriptionController.class).reschedule(base64encode(uri), null))
             .withSelfRel();
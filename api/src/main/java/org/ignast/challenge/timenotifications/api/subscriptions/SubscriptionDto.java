@@ -1,12 +1,29 @@
 package org.ignast.challenge.timenotifications.api.subscriptions;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.net.URI;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.ignast.challenge.timenotifications.domain.PeriodicNotification;
 
-public record SubscriptionDto(@NotNull URI subscriptionUri, @Valid @NotNull TimePeriodDto frequency) {
+/**
+ * @param startNow whether to be first notified as soon as the subscription is applied, even if the service
+ * spreads new subscriptions over their period
+ */
+public record SubscriptionDto(
+    @NotNull URI subscriptionUri,
+    @Valid @NotNull TimePeriodDto frequency,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Boolean startNow
+) {
+    public SubscriptionDto(final URI subscriptionUri, final TimePeriodDto frequency) {
+        this(subscriptionUri, frequency, null);
+    }
+
     public PeriodicNotification toPeriodicNotification() {
-        return new PeriodicNotification(subscriptionUri, frequency.amount());
+        return new PeriodicNotification(
+            subscriptionUri,
+            frequency.toDuration(),
+            Boolean.TRUE.equals(startNow)
+        );
     }
 }
@@ -0,0 +1,16 @@
+package org.ignast.challenge.timenotifications.api.subscriptions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.net.URI;
+import org.springframework.http.HttpStatus;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record SubscriptionResultDto(URI subscriptionUri, int status, String error) {
+    static SubscriptionResultDto created(final URI uri) {
+        return new SubscriptionResultDto(uri, HttpStatus.CREATED.value(), null);
+    }
+
+    static SubscriptionResultDto rejected(final URI uri, final HttpStatus status, final Error error) {
+        return new SubscriptionResultDto(uri, status.value(), error.error());
+    }
+}
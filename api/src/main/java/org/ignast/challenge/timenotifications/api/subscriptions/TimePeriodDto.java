@@ -1,11 +1,43 @@
 package org.ignast.challenge.timenotifications.api.subscriptions;
 
-import javax.validation.constraints.Max;
-import javax.validation.constraints.Min;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
 public record TimePeriodDto(
-    @NotNull @Min(4) @Max(4 * 60 * 60) Integer amount,
-    @NotNull @Pattern(regexp = "second") String timeUnit
-) {}
+    @NotNull Integer amount,
+    @NotNull @Pattern(regexp = TimePeriodDto.TIME_UNITS) String timeUnit
+) {
+    static final String TIME_UNITS = "millisecond|second|minute|hour|day";
+    private static final Duration SHORTEST_IN_SECONDS = Duration.ofSeconds(4);
+    private static final Duration SHORTEST_IN_MILLISECONDS = Duration.ofMillis(100);
+
+    @JsonIgnore
+    @AssertTrue
+    public boolean isWithinSupportedRange() {
+        if (amount == null || timeUnit == null || !timeUnit.matches(TIME_UNITS)) {
+            return true;
+        }
+        final Duration shortest = "millisecond".equals(timeUnit)
+            ? SHORTEST_IN_MILLISECONDS
+            : SHORTEST_IN_SECONDS;
+        return toDuration().compareTo(shortest) >= 0;
+    }
+
+    public Duration toDuration() {
+        return Duration.of(amount, unitOf(timeUnit));
+    }
+
+    private static ChronoUnit unitOf(final String timeUnit) {
+        return switch (timeUnit) {
+            case "millisecond" -> ChronoUnit.MILLIS;
+            case "minute" -> ChronoUnit.MINUTES;
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            default -> ChronoUnit.SECONDS;
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package org.ignast.challenge.timenotifications.api.deadletters;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.util.List;
+import org.ignast.challenge.timenotifications.domain.DeadLetter;
+import org.ignast.challenge.timenotifications.domain.DeadLetters;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(DeadLetterController.class)
+class DeadLetterControllerTest {
+
+    private static final DeadLetter EXHAUSTED = new DeadLetter(
+        URI.create("http://localhost:8081"),
+        1893456001000L,
+        4,
+        DeliveryOutcome.FAILED,
+        503,
+        DeadLetter.Reason.EXHAUSTED,
+        1893456016000L
+    );
+
+    private static final DeadLetter SUPERSEDED = new DeadLetter(
+        URI.create("http://localhost:8082"),
+        1893456000000L,
+        1,
+        DeliveryOutcome.TIMED_OUT,
+        0,
+        DeadLetter.Reason.SUPERSEDED,
+        1893456005000L
+    );
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DeadLetters deadLetters;
+
+    @Test
+    public void shouldListNoDeadLettersWhenNothingWasGivenUpOn() throws Exception {
+        when(deadLetters.recent()).thenReturn(List.of());
+
+        mockMvc
+            .perform(get("/dead-letters"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().json("[]", true));
+    }
+
+    @Test
+    public void shouldListMostRecentDeadLetters() throws Exception {
+        when(deadLetters.recent()).thenReturn(List.of(EXHAUSTED, SUPERSEDED));
+
+        mockMvc
+            .perform(get("/dead-letters"))
+            .andExpect(status().isOk())
+            .andExpect(
+                content()
+                    .json(
+                        """
+                        [{"subscriptionUri":"http://localhost:8081","scheduledAt":"2030-01-01T00:00:01Z",
+                        "attempts":4,"lastOutcome":"FAILED","lastHttpStatus":503,"reason":"EXHAUSTED",
+                        "givenUpAt":"2030-01-01T00:00:16Z"},
+                        {"subscriptionUri":"http://localhost:8082","scheduledAt":"2030-01-01T00:00:00Z",
+                        "attempts":1,"lastOutcome":"TIMED_OUT","lastHttpStatus":0,"reason":"SUPERSEDED",
+                        "givenUpAt":"2030-01-01T00:00:05Z"}]
+                        """,
+                        true
+                    )
+            );
+    }
+
+    @Test
+    public void shouldListNoMoreDeadLettersThanAskedFor() throws Exception {
+        when(deadLetters.recent()).thenReturn(List.of(EXHAUSTED, SUPERSEDED));
+
+        mockMvc
+            .perform(get("/dead-letters").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[{\"subscriptionUri\":\"http://localhost:8081\"}]"));
+    }
+
+    @Test
+    public void shouldRejectLimitThatIsNotNumber() throws Exception {
+        mockMvc.perform(get("/dead-letters").param("limit", "many")).andExpect(status().isBadRequest());
+    }
+}
@@ -1,9 +1,11 @@
 package org.ignast.challenge.timenotifications.api.subscriptions;
 
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.ignast.challenge.timenotifications.api.subscriptions.SubscriptionRepresentations.every5SecsAt;
 import static org.ignast.challenge.timenotifications.api.subscriptions.SubscriptionRepresentations.every6SecsAt;
 import static org.ignast.challenge.timenotifications.testutil.api.HateoasJsonMatchers.hasRel;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON_VALUE;
@@ -17,20 +19,28 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import lombok.val;
+import org.ignast.challenge.timenotifications.domain.InboxOverflowException;
 import org.ignast.challenge.timenotifications.domain.PeriodicNotification;
+import org.ignast.challenge.timenotifications.domain.SubscriptionOutcome;
 import org.ignast.challenge.timenotifications.domain.Subscriptions;
 import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 
-@WebMvcTest
+@WebMvcTest(SubscriptionController.class)
 class SubscriptionCreationControllerTest {
 
     private static final String URL = "http://localhost:8081";
@@ -41,6 +51,11 @@ class SubscriptionCreationControllerTest {
     @MockBean
     private Subscriptions subscriptions;
 
+    @BeforeEach
+    public void acknowledgeChangesAsDurable() {
+        when(subscriptions.whenDurable(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     @Test
     public void shouldRejectSubscriptionCreationIfBodyIsEmpty() throws Exception {
         mockMvc.perform(post("/subscriptions").contentType(HAL_JSON)).andExpect(status().isBadRequest());
@@ -69,6 +84,37 @@ class SubscriptionCreationControllerTest {
             .andExpect(content().string(hasRel("self").withHref()));
     }
 
+    @Test
+    public void shouldNotAcknowledgeSubscriptionBeforeItIsDurable() throws Exception {
+        val durable = new CompletableFuture<Void>();
+        when(subscriptions.subscribe(any())).thenReturn(true);
+        when(subscriptions.whenDurable(List.of(URI.create(URL)))).thenReturn(durable);
+
+        val result = mockMvc
+            .perform(post("/subscriptions").contentType(HAL_JSON_VALUE).content(every5SecsAt(URL)))
+            .andReturn();
+
+        assertThatIllegalStateException().isThrownBy(() -> result.getAsyncResult(100));
+        durable.complete(null);
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+    }
+
+    @Test
+    public void shouldAnswerUnavailableIfSubscriptionIsNotDurableInTime() throws Exception {
+        when(subscriptions.subscribe(any())).thenReturn(true);
+        when(subscriptions.whenDurable(List.of(URI.create(URL))))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        val result = mockMvc
+            .perform(post("/subscriptions").contentType(HAL_JSON_VALUE).content(every5SecsAt(URL)))
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     public void shouldNotCreationDuplicateSubscriptions() throws Exception {
         val result = mockMvc
@@ -92,6 +138,26 @@ class SubscriptionCreationControllerTest {
         mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
     }
 
+    @Test
+    public void shouldForwardSubscriptionAskingToStartNowToDomain() throws Exception {
+        when(subscriptions.subscribe(new PeriodicNotification(URI.create(URL), Duration.ofSeconds(5), true)))
+            .thenReturn(true);
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON_VALUE)
+                    .content(
+                        "{\"subscriptionUri\":\"" +
+                        URL +
+                        "\",\"frequency\":{\"amount\":5,\"timeUnit\":\"second\"},\"startNow\":true}"
+                    )
+            )
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+    }
+
     @Test
     public void shouldRejectCreationIfSubscriptionHasNoUri() throws Exception {
         mockMvc
@@ -139,13 +205,107 @@ class SubscriptionCreationControllerTest {
     }
 
     @Test
-    public void shouldRejectCreationIfSubscriptionHasFrequencyTimeUnitOtherThanSecond() throws Exception {
+    public void shouldRejectCreationIfSubscriptionHasUnsupportedFrequencyTimeUnit() throws Exception {
+        mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":5,\"timeUnit\":\"week\"}}"
+                    )
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldAskToRetryLaterWhenNotifierIsOverloaded() throws Exception {
+        when(subscriptions.subscribe(any())).thenThrow(InboxOverflowException.class);
+
+        val result = mockMvc
+            .perform(post("/subscriptions").contentType(HAL_JSON_VALUE).content(every5SecsAt(URL)))
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    public void shouldForwardMillisecondSubscriptionToDomain() throws Exception {
+        when(subscriptions.subscribe(new PeriodicNotification(URI.create(URL), Duration.ofMillis(250))))
+            .thenReturn(true);
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON_VALUE)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":250,\"timeUnit\":\"millisecond\"}}"
+                    )
+            )
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+    }
+
+    @Test
+    public void shouldRejectCreationIfMillisecondFrequencyIsTooShort() throws Exception {
         mockMvc
             .perform(
                 post("/subscriptions")
                     .contentType(HAL_JSON)
                     .content(
-                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":5,\"timeUnit\":\"minute\"}}"
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":99,\"timeUnit\":\"millisecond\"}}"
+                    )
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldForwardDailySubscriptionToDomain() throws Exception {
+        when(subscriptions.subscribe(new PeriodicNotification(URI.create(URL), Duration.ofDays(7))))
+            .thenReturn(true);
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON_VALUE)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":7,\"timeUnit\":\"day\"}}"
+                    )
+            )
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+    }
+
+    @Test
+    public void shouldForwardSubscriptionInMinutesToDomain() throws Exception {
+        when(subscriptions.subscribe(new PeriodicNotification(URI.create(URL), Duration.ofMinutes(90))))
+            .thenReturn(true);
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON_VALUE)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":90,\"timeUnit\":\"minute\"}}"
+                    )
+            )
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+    }
+
+    @Test
+    public void shouldRejectCreationIfFrequencyIsZero() throws Exception {
+        mockMvc
+            .perform(
+                post("/subscriptions")
+                    .contentType(HAL_JSON)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":0,\"timeUnit\":\"day\"}}"
                     )
             )
             .andExpect(status().isBadRequest());
@@ -163,7 +323,157 @@ class SubscriptionCreationControllerTest {
     }
 }
 
-@WebMvcTest
+@WebMvcTest(SubscriptionController.class)
+class SubscriptionBatchControllerTest {
+
+    private static final String URL_A = "http://localhost:8081";
+
+    private static final String URL_B = "http://localhost:8082";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private Subscriptions subscriptions;
+
+    @BeforeEach
+    public void acknowledgeChangesAsDurable() {
+        when(subscriptions.whenDurable(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void shouldRejectBatchIfBodyIsNotJson() throws Exception {
+        mockMvc
+            .perform(post("/subscriptions/batch").contentType(MediaType.APPLICATION_JSON).content("not-json"))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(subscriptions);
+    }
+
+    @Test
+    public void shouldCreateSubscriptionsGivenAsJsonArray() throws Exception {
+        when(
+            subscriptions.subscribeAll(
+                List.of(
+                    new PeriodicNotification(URI.create(URL_A), 5),
+                    new PeriodicNotification(URI.create(URL_B), 6)
+                )
+            )
+        )
+            .thenReturn(List.of(SubscriptionOutcome.SUBSCRIBED, SubscriptionOutcome.SUBSCRIBED));
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[" + every5SecsAt(URL_A) + "," + every6SecsAt(URL_B) + "]")
+            )
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(
+                content()
+                    .json(
+                        "[{\"subscriptionUri\":\"http://localhost:8081\",\"status\":201}," +
+                        "{\"subscriptionUri\":\"http://localhost:8082\",\"status\":201}]",
+                        true
+                    )
+            );
+    }
+
+    @Test
+    public void shouldCreateSubscriptionsGivenAsNewlineDelimitedJson() throws Exception {
+        when(subscriptions.subscribeAll(any()))
+            .thenReturn(List.of(SubscriptionOutcome.SUBSCRIBED, SubscriptionOutcome.SUBSCRIBED));
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(every5SecsAt(URL_A) + "\n" + every6SecsAt(URL_B) + "\n")
+            )
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[{\"status\":201},{\"status\":201}]"));
+    }
+
+    @Test
+    public void shouldReportOutcomeOfEachSubscriptionInOrderTheyWereGiven() throws Exception {
+        when(subscriptions.subscribeAll(List.of(new PeriodicNotification(URI.create(URL_B), 6))))
+            .thenReturn(List.of(SubscriptionOutcome.OVERLOADED));
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(
+                        "{\"subscriptionUri\":\"http://localhost:8081\",\"frequency\":{\"amount\":3,\"timeUnit\":\"second\"}}\n" +
+                        every6SecsAt(URL_B)
+                    )
+            )
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(
+                content()
+                    .json(
+                        "[{\"subscriptionUri\":\"http://localhost:8081\",\"status\":400}," +
+                        "{\"subscriptionUri\":\"http://localhost:8082\",\"status\":503," +
+                        "\"error\":\"Too many pending changes to subscriptions, try again later\"}]"
+                    )
+            );
+    }
+
+    @Test
+    public void shouldReportAlreadyRegisteredSubscriptions() throws Exception {
+        when(subscriptions.subscribeAll(any())).thenReturn(List.of(SubscriptionOutcome.ALREADY_REGISTERED));
+
+        val result = mockMvc
+            .perform(
+                post("/subscriptions/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[" + every5SecsAt(URL_A) + "]")
+            )
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[{\"status\":400,\"error\":\"URI is already registered\"}]"));
+    }
+}
+
+@WebMvcTest(value = SubscriptionController.class, properties = "subscriptions.batch.max-size=1")
+class SubscriptionBatchLimitControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private Subscriptions subscriptions;
+
+    @Test
+    public void shouldRejectBatchLargerThanAllowedWithoutCreatingAnything() throws Exception {
+        mockMvc
+            .perform(
+                post("/subscriptions/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(
+                        every5SecsAt("http://localhost:8081") + "\n" + every6SecsAt("http://localhost:8082")
+                    )
+            )
+            .andExpect(status().isPayloadTooLarge());
+        verifyNoInteractions(subscriptions);
+    }
+}
+
+@WebMvcTest(SubscriptionController.class)
 class SubscriptionRemovalControllerTest {
 
     private static final String URL = "http://localhost:8081";
@@ -176,6 +486,11 @@ class SubscriptionRemovalControllerTest {
     @MockBean
     private Subscriptions subscriptions;
 
+    @BeforeEach
+    public void acknowledgeChangesAsDurable() {
+        when(subscriptions.whenDurable(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     @Test
     public void shouldRemoveSubscription() throws Exception {
         when(subscriptions.unsubscribe(any())).thenReturn(true);
@@ -209,7 +524,7 @@ class SubscriptionRemovalControllerTest {
     }
 }
 
-@WebMvcTest
+@WebMvcTest(SubscriptionController.class)
 class SubscriptionRescheduleControllerTest {
 
     private static final String URL = "http://localhost:8081";
@@ -222,6 +537,11 @@ class SubscriptionRescheduleControllerTest {
     @MockBean
     private Subscriptions subscriptions;
 
+    @BeforeEach
+    public void acknowledgeChangesAsDurable() {
+        when(subscriptions.whenDurable(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     @Test
     public void shouldRejectReschedulingIfBodyIsNotJson() throws Exception {
         mockMvc
@@ -0,0 +1,135 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.val;
+
+/**
+ * Compares two {@code -rf csv} runs and fails if a benchmark got worse by more than the tolerance (10% unless
+ * given as the third argument) and the error margins of both runs together.
+ */
+public final class BenchmarkComparison {
+
+    private static final double DEFAULT_TOLERANCE_PERCENT = 10;
+
+    private BenchmarkComparison() {}
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.csv> <current.csv> [tolerance %]");
+            System.exit(2);
+        }
+        val baseline = read(Path.of(args[0]));
+        val current = read(Path.of(args[1]));
+        val tolerance = (args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT) / 100;
+        var regressions = 0;
+        for (val entry : current.entrySet()) {
+            val before = baseline.get(entry.getKey());
+            val after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-100s %14s %14.3f %s%n", entry.getKey(), "new", after.score, after.unit);
+                continue;
+            }
+            val change = after.changeFrom(before);
+            val regressed = change > tolerance && after.isWorseBeyondErrorThan(before);
+            regressions += regressed ? 1 : 0;
+            System.out.printf(
+                "%-100s %14.3f %14.3f %s %+7.1f%%%s%n",
+                entry.getKey(),
+                before.score,
+                after.score,
+                after.unit,
+                change * 100,
+                regressed ? " REGRESSED" : ""
+            );
+        }
+        System.out.printf("%d of %d benchmarks regressed%n", regressions, current.size());
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(final Path csv) throws IOException {
+        val lines = Files.readAllLines(csv);
+        val header = fieldsOf(lines.get(0));
+        val results = new LinkedHashMap<String, Result>();
+        for (val line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            val fields = fieldsOf(line);
+            val key = new StringBuilder(fields.get(0)).append(" t=").append(fields.get(2));
+            for (int column = 7; column < header.size(); column++) {
+                key.append(' ').append(header.get(column).replace("Param: ", "")).append('=');
+                key.append(fields.get(column));
+            }
+            results.put(
+                key.toString(),
+                new Result(
+                    fields.get(1),
+                    Double.parseDouble(fields.get(4)),
+                    errorOf(fields.get(5)),
+                    fields.get(6)
+                )
+            );
+        }
+        return results;
+    }
+
+    private static double errorOf(final String field) {
+        val error = Double.parseDouble(field);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static List<String> fieldsOf(final String line) {
+        val fields = new ArrayList<String>();
+        val field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            val c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Result {
+
+        private final boolean higherIsBetter;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Result(final String mode, final double score, final double error, final String unit) {
+            this.higherIsBetter = "thrpt".equals(mode);
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        /**
+         * @return relative change from the baseline, positive when it got worse
+         */
+        double changeFrom(final Result baseline) {
+            val change = (score - baseline.score) / baseline.score;
+            return higherIsBetter ? -change : change;
+        }
+
+        boolean isWorseBeyondErrorThan(final Result baseline) {
+            val worseBy = higherIsBetter ? baseline.score - score : score - baseline.score;
+            return worseBy > error + baseline.error;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.ignast.challenge.timenotifications.domain;
+
+/**
+ * Periods of benchmark subscriptions, taken in turn, with those sharing a period spread evenly over it.
+ */
+public enum FrequencyDistribution {
+    SHORT(4),
+    LONG(4 * 60 * 60),
+    MIXED(5, 60, 10 * 60, 60 * 60, 4 * 60 * 60),
+    MOSTLY_SHORT(10, 10, 10, 10, 10, 10, 10, 10, 10, 4 * 60 * 60),
+    DAILY_AND_WEEKLY(24 * 60 * 60, 7 * 24 * 60 * 60);
+
+    private final int[] periodsInSeconds;
+
+    FrequencyDistribution(final int... periodsInSeconds) {
+        this.periodsInSeconds = periodsInSeconds;
+    }
+
+    int periodInSeconds(final int subscription) {
+        return periodsInSeconds[subscription % periodsInSeconds.length];
+    }
+
+    int phaseInSeconds(final int subscription) {
+        return (subscription / periodsInSeconds.length) % periodInSeconds(subscription);
+    }
+}
@@ -0,0 +1,103 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time taken on startup to replay the journal of a shard holding every subscription back into a fresh
+ * scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms4g", "-Xmx4g" })
+public class JournalRecoveryBenchmark {
+
+    @Param({ "1000000" })
+    private int subscriptions;
+
+    private Path directory;
+
+    private Path file;
+
+    @Setup
+    public void journal() throws IOException {
+        directory = Files.createTempDirectory("journal-recovery");
+        file = directory.resolve("shard-0.wal");
+        val appliedAt = Timestamp.current();
+        val journal = MappedJournal.open(file, MappedJournal.DEFAULT_SEGMENT_BYTES, noEntries());
+        for (int i = 0; i < subscriptions; i++) {
+            journal.append(
+                new AddSubscription(
+                    new PeriodicNotification(URI.create("http://host" + i + ".com"), 4 + i % 3600)
+                ),
+                appliedAt.plusMillis(i % 4000)
+            );
+        }
+        journal.close();
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.delete(file);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public ScheduleBackedNotifier recover() {
+        val notifier = new ScheduleBackedNotifier(
+            new TimestampTransformingNotificationSender((uri, time) -> {})
+        );
+        val now = Timestamp.current();
+        MappedJournal
+            .open(
+                file,
+                MappedJournal.DEFAULT_SEGMENT_BYTES,
+                new MappedJournal.Entries() {
+                    @Override
+                    public void added(
+                        final PeriodicNotification notification,
+                        final long firstOccurrenceInMillis
+                    ) {
+                        notifier.restore(notification, firstOccurrenceInMillis, now);
+                    }
+
+                    @Override
+                    public void removed(final URI uri) {
+                        notifier.unsubscribe(uri);
+                    }
+                }
+            )
+            .close();
+        return notifier;
+    }
+
+    private static MappedJournal.Entries noEntries() {
+        return new MappedJournal.Entries() {
+            @Override
+            public void added(final PeriodicNotification notification, final long firstOccurrenceInMillis) {}
+
+            @Override
+            public void removed(final URI uri) {}
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of handing a notification over to the sender, with its body rendered once per tick as opposed to
+ * rendered for every notification. Run with {@code -prof gc} to see bytes allocated per send in
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationPayloadBenchmark {
+
+    private static final int SENDS_PER_TICK = 1000;
+
+    private final URI uri = URI.create("http://localhost:8080/notifications");
+
+    private TimestampTransformingNotificationSender sender;
+
+    private long tick;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        sender =
+            new TimestampTransformingNotificationSender(
+                new NotificationSender() {
+                    @Override
+                    public void send(final URI location, final ZonedDateTime time) {
+                        blackhole.consume(time);
+                    }
+
+                    @Override
+                    public void send(final URI location, final NotificationPayload payload) {
+                        blackhole.consume(payload.body());
+                    }
+                }
+            );
+        tick = Timestamp.current().startOfNextSecond().getValueInMillis();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SENDS_PER_TICK)
+    public void renderedOncePerTick() {
+        tick += 1000;
+        for (int i = 0; i < SENDS_PER_TICK; i++) {
+            sender.send(uri, tick);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SENDS_PER_TICK)
+    public void renderedForEverySend(final Blackhole blackhole) {
+        tick += 1000;
+        for (int i = 0; i < SENDS_PER_TICK; i++) {
+            val time = Instant.ofEpochMilli(tick).atZone(ZoneId.of("UTC"));
+            blackhole.consume(String.format("{\"time\":\"%s\"}", time).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
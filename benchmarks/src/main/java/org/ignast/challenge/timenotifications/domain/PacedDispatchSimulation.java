@@ -0,0 +1,88 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+/**
+ * Counts notifications sent per 10 ms with and without pacing. Arguments are notifications per tick, pacing
+ * window in milliseconds and dispatcher workers.
+ */
+public final class PacedDispatchSimulation {
+
+    private static final int BUCKET_MILLIS = 10;
+
+    private static final int TICKS = 5;
+
+    private PacedDispatchSimulation() {}
+
+    public static void main(final String[] args) throws InterruptedException {
+        val perTick = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        val windowMillis = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        val workers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        val uris = new URI[perTick];
+        for (int i = 0; i < perTick; i++) {
+            uris[i] = URI.create("http://host" + i + ".com");
+        }
+
+        System.out.printf("%10s %14s %14s %12s%n", "window", "peak per 10ms", "mean per 10ms", "last sent");
+        for (val window : new int[] { 0, windowMillis }) {
+            val sentPerBucket = new AtomicLongArray(1000 / BUCKET_MILLIS);
+            val lastSentAfter = new long[1];
+            val sent = new CountDownLatch(perTick * TICKS);
+            val dispatcher = new Dispatcher(
+                new TimestampTransformingNotificationSender((uri, time) -> {
+                    val now = System.currentTimeMillis();
+                    val sinceTick = now - time.toInstant().toEpochMilli();
+                    sentPerBucket.incrementAndGet(
+                        (int) Math.min(999, Math.max(0, sinceTick)) / BUCKET_MILLIS
+                    );
+                    synchronized (lastSentAfter) {
+                        lastSentAfter[0] = Math.max(lastSentAfter[0], sinceTick);
+                    }
+                    sent.countDown();
+                }),
+                workers,
+                Dispatcher.DEFAULT_QUEUE_CAPACITY,
+                new SimpleMeterRegistry(),
+                window == 0 ? Pacer.NONE : new Pacer(Duration.ofMillis(window), Clock.systemUTC()),
+                Dispatcher.DEFAULT_MAX_OUTSTANDING,
+                Duration.ZERO
+            )
+                .start();
+            var tick = Timestamp.current().startOfNextSecond().getValueInMillis();
+            for (int t = 0; t < TICKS; t++, tick += 1000) {
+                Thread.sleep(Math.max(0, tick - System.currentTimeMillis()));
+                var due = dispatcher.batchFor(tick);
+                for (val uri : uris) {
+                    if (due.add(uri)) {
+                        dispatcher.dispatch(due);
+                        due = dispatcher.batchFor(tick);
+                    }
+                }
+                if (due.size() > 0) {
+                    dispatcher.dispatch(due);
+                }
+            }
+            sent.await();
+            dispatcher.close();
+            long peak = 0;
+            for (int i = 0; i < sentPerBucket.length(); i++) {
+                peak = Math.max(peak, sentPerBucket.get(i));
+            }
+            val spannedBuckets = Math.max(1, Math.max(window, lastSentAfter[0]) / BUCKET_MILLIS);
+            System.out.printf(
+                "%8dms %14.0f %14.0f %10dms%n",
+                window,
+                (double) peak / TICKS,
+                (double) perTick / spannedBuckets,
+                lastSentAfter[0]
+            );
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.Arrays;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+/**
+ * Reports peak and mean notifications per second of a bulk import for each {@link PhasePlacement}. Arguments
+ * are subscriptions, comma separated periods in seconds and how many of the longest periods to count.
+ */
+public final class PhasePlacementSimulation {
+
+    private PhasePlacementSimulation() {}
+
+    public static void main(final String[] args) {
+        val subscriptions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        val periods = Arrays
+            .stream((args.length > 1 ? args[1] : "4").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        val countedPeriods = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        val longestPeriod = Arrays.stream(periods).max().orElseThrow();
+
+        System.out.printf("%10s %10s %10s %12s%n", "placement", "peak", "mean", "peak/mean");
+        for (val placement : PhasePlacement.values()) {
+            val sendsThisSecond = new long[1];
+            val notifier = new ScheduleBackedNotifier(
+                NotificationDispatch.inline(
+                    new TimestampTransformingNotificationSender((uri, payload) -> sendsThisSecond[0]++)
+                ),
+                new TimingWheel(),
+                PhaseOccupancy.of(placement),
+                Retries.NONE
+            );
+            val importedAt = Timestamp.current().startOfNextSecond();
+            for (int i = 0; i < subscriptions; i++) {
+                notifier.subscribe(
+                    new PeriodicNotification(
+                        URI.create("http://host" + i + ".com"),
+                        periods[i % periods.length]
+                    ),
+                    importedAt
+                );
+            }
+            val countFrom = importedAt.getValueInMillis() + longestPeriod * 1000L;
+            val countTo = countFrom + countedPeriods * longestPeriod * 1000L;
+            long peak = 0;
+            long total = 0;
+            for (var second = importedAt.getValueInMillis(); second < countTo; second += 1000) {
+                sendsThisSecond[0] = 0;
+                notifier.notify(second);
+                if (second >= countFrom) {
+                    peak = Math.max(peak, sendsThisSecond[0]);
+                    total += sendsThisSecond[0];
+                }
+            }
+            val mean = (double) total / ((countTo - countFrom) / 1000);
+            System.out.printf("%10s %10d %10.1f %12.2f%n", placement, peak, mean, peak / mean);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the scheduler operations with a sender that does nothing: notifying and rolling every subscription
+ * due in a tick, and replacing a subscription while the schedule holds the given number of subscriptions.
+ * Ten million subscriptions need a heap of several gigabytes, e.g. {@code -jvmArgsAppend -Xmx8g}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleBackedNotifierBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    private int subscriptions;
+
+    @Param
+    private FrequencyDistribution frequencies;
+
+    private ScheduleBackedNotifier notifier;
+
+    private URI[] uris;
+
+    private Timestamp startedAt;
+
+    private long tick;
+
+    private int resubscribed;
+
+    @Setup
+    public void populate() {
+        startedAt = Timestamp.current().startOfNextSecond();
+        tick = startedAt.getValueInMillis();
+        notifier = new ScheduleBackedNotifier(new TimestampTransformingNotificationSender((uri, time) -> {}));
+        uris = new URI[subscriptions];
+        for (int i = 0; i < subscriptions; i++) {
+            uris[i] = URI.create("http://host" + i + ".com");
+            notifier.subscribe(notificationOf(i), startedAt.plusSeconds(frequencies.phaseInSeconds(i)));
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        notifier.notify(tick);
+        tick = notifier.nextTickAfter(tick);
+        return tick;
+    }
+
+    /**
+     * Subscribing a uri that is already subscribed unsubscribes it first, so the schedule keeps its size.
+     */
+    @Benchmark
+    public void resubscribe() {
+        notifier.subscribe(notificationOf(resubscribed), startedAt);
+        resubscribed = (resubscribed + 1) % subscriptions;
+    }
+
+    private PeriodicNotification notificationOf(final int subscription) {
+        return new PeriodicNotification(uris[subscription], frequencies.periodInSeconds(subscription));
+    }
+}
@@ -0,0 +1,53 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.net.URI;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+/**
+ * Retained heap per subscription of the scheduler, uris included. Subscriptions are restored spread over their
+ * period, so that with a period of at least {@link ScheduleBackedNotifier#COLD_FREQUENCY_IN_MILLIS} nearly
+ * all of them are cooled down off the heap, while a shorter one shows the footprint of keeping every uri on
+ * the heap. Run with a fixed heap and a stop the world collector (e.g. -Xms4g -Xmx4g -XX:+UseSerialGC) so
+ * that collections between measurements are complete.
+ */
+public final class ScheduleBackedNotifierFootprint {
+
+    private static final int DEFAULT_PERIOD_IN_SECONDS = 4 * 60 * 60;
+
+    private ScheduleBackedNotifierFootprint() {}
+
+    public static void main(final String[] args) {
+        val subscriptions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        val periodInSeconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PERIOD_IN_SECONDS;
+        val emptyHeap = usedHeap();
+        val notifier = new ScheduleBackedNotifier(
+            new TimestampTransformingNotificationSender((uri, time) -> {})
+        );
+        val now = Timestamp.current();
+        for (int i = 0; i < subscriptions; i++) {
+            notifier.restore(
+                new PeriodicNotification(URI.create("http://host" + i + ".com"), periodInSeconds),
+                now.plusSeconds(i % periodInSeconds + 1).getValueInMillis(),
+                now
+            );
+        }
+        val populatedHeap = usedHeap();
+        System.out.printf(
+            "%.1f bytes per subscription, %d of %d subscriptions cold%n",
+            (double) (populatedHeap - emptyHeap) / subscriptions,
+            notifier.coldSubscriptionCount(),
+            subscriptions
+        );
+        Reference.reachabilityFence(notifier);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,78 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Slot operations of the timing wheel: draining and rolling every id due in a tick, and moving a single id to
+ * another slot as rescheduling a subscription does, while the wheel holds the given number of ids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerIndexBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    private int subscriptions;
+
+    @Param
+    private FrequencyDistribution frequencies;
+
+    private SchedulerIndex schedulerIndex;
+
+    private long[] periodsInMillis;
+
+    private final SchedulerIndex.Occurrences roll = this::roll;
+
+    private long startedAt;
+
+    private long tick;
+
+    private int moved;
+
+    @Setup
+    public void populate() {
+        val now = Timestamp.current().startOfNextSecond();
+        startedAt = now.getValueInMillis();
+        tick = startedAt;
+        schedulerIndex = new TimingWheel(now);
+        periodsInMillis = new long[subscriptions];
+        for (int id = 0; id < subscriptions; id++) {
+            periodsInMillis[id] = SECONDS.toMillis(frequencies.periodInSeconds(id));
+            schedulerIndex.add(id, tick + SECONDS.toMillis(frequencies.phaseInSeconds(id)));
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        tick = schedulerIndex.nextTickAfter(tick);
+        schedulerIndex.drainUpTo(tick, roll);
+    }
+
+    @Benchmark
+    public void move() {
+        schedulerIndex.remove(moved);
+        schedulerIndex.add(moved, startedAt + periodsInMillis[moved]);
+        moved = (moved + 1) % subscriptions;
+    }
+
+    private void roll(final int id, final long occurrence) {
+        schedulerIndex.add(id, occurrence + periodsInMillis[id]);
+    }
+}
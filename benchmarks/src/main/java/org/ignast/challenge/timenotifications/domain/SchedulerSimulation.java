@@ -0,0 +1,78 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.Arrays;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+/**
+ * Replays hours of a notifier shard on virtual time, failing if any delivery was mistimed, repeated or
+ * missed. Arguments are subscriptions, hours to replay and comma separated periods in seconds.
+ */
+public final class SchedulerSimulation {
+
+    private SchedulerSimulation() {}
+
+    public static void main(final String[] args) {
+        val subscriptions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        val hours = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        val periods = Arrays
+            .stream((args.length > 2 ? args[2] : "60,600,3600,14400").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        val startedAt = Timestamp.current().startOfNextSecond();
+        val clock = new VirtualClock(startedAt.getValueInMillis() - 1);
+        val recorder = new DeliveryRecorder();
+        val notifier = new ScheduleBackedNotifier(
+            NotificationDispatch.inline(new TimestampTransformingNotificationSender(recorder)),
+            new TimingWheel(startedAt),
+            PhaseOccupancy.IMMEDIATE,
+            Retries.NONE
+        );
+        for (int i = 0; i < subscriptions; i++) {
+            val period = periods[i % periods.length];
+            val uri = URI.create("http://host" + i + ".com");
+            val firstOccurrence = startedAt.plusSeconds((i / periods.length) % period);
+            notifier.subscribe(new PeriodicNotification(uri, period), firstOccurrence);
+            recorder.expect(uri, firstOccurrence.getValueInMillis(), period * 1000L);
+        }
+        val actor = new NotifierActor(
+            new BoundedInbox(16, OverflowPolicy.FAIL_FAST),
+            notifier,
+            new VirtualTickDriver(new SimpleMeterRegistry(), 0, clock),
+            Journal.NONE
+        );
+        val lastTick = startedAt.getValueInMillis() + HOURS.toMillis(hours);
+
+        val wallStartedAt = System.nanoTime();
+        actor.runUntil(lastTick);
+        val wallSeconds = (System.nanoTime() - wallStartedAt) / 1e9;
+
+        val missed = recorder.missedUpTo(lastTick);
+        System.out.printf(
+            "%d subscriptions over %d virtual hours in %.1f s of wall time%n",
+            subscriptions,
+            hours,
+            wallSeconds
+        );
+        System.out.printf(
+            "%d deliveries, %.0f per second, %.0fx real time%n",
+            recorder.deliveries(),
+            recorder.deliveries() / wallSeconds,
+            HOURS.toSeconds(hours) / wallSeconds
+        );
+        System.out.printf(
+            "%d mistimed, %d unexpected, %d missed%n",
+            recorder.mistimed(),
+            recorder.unexpected(),
+            missed
+        );
+        if (recorder.mistimed() + recorder.unexpected() + missed > 0) {
+            System.exit(1);
+        }
+    }
+}
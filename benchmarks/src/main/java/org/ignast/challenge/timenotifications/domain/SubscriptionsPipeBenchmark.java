@@ -0,0 +1,104 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of subscribing and unsubscribing through the pipe, which should grow with the number of
+ * request threads given by {@code -t}, while the given number of other subscriptions are registered.
+ * Inboxes are drained by a thread standing in for the actors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscriptionsPipeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Pipe {
+
+        private static final int SHARDS = 4;
+
+        @Param({ "1000", "100000", "1000000", "10000000" })
+        private int subscriptions;
+
+        private final AtomicInteger threads = new AtomicInteger();
+
+        private ShardedInboxes inboxes;
+
+        private SubscriptionsPipe subscriptionsPipe;
+
+        private Thread drainer;
+
+        @Setup(Level.Trial)
+        public void start() {
+            inboxes = new ShardedInboxes(SHARDS, ShardedInboxes.DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+            subscriptionsPipe = new SubscriptionsPipe(inboxes);
+            for (int i = 0; i < subscriptions; i++) {
+                subscriptionsPipe.recovered(URI.create("http://registered" + i + ".com"));
+            }
+            drainer =
+                new Thread(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        for (int shard = 0; shard < SHARDS; shard++) {
+                            while (inboxes.ofShard(shard).poll() != null) {}
+                        }
+                    }
+                });
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            drainer.interrupt();
+            drainer.join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Uris {
+
+        private static final int URIS_PER_THREAD = 1024;
+
+        private final URI[] uris = new URI[URIS_PER_THREAD];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void generate(final Pipe pipe) {
+            val thread = pipe.threads.getAndIncrement();
+            for (int i = 0; i < URIS_PER_THREAD; i++) {
+                uris[i] = URI.create("http://host" + thread + ".com/" + i);
+            }
+        }
+
+        URI next() {
+            next = (next + 1) % URIS_PER_THREAD;
+            return uris[next];
+        }
+    }
+
+    @Benchmark
+    public boolean subscribeAndUnsubscribe(final Pipe pipe, final Uris uris) {
+        val uri = uris.next();
+        pipe.subscriptionsPipe.subscribe(new PeriodicNotification(uri, 4));
+        return pipe.subscriptionsPipe.unsubscribe(uri);
+    }
+}
@@ -0,0 +1,68 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each operation is a rolled subscription. Run with {@code -prof gc}, {@code gc.alloc.rate.norm} should stay
+ * at zero apart from the payload rendered once per tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickAllocationBenchmark {
+
+    private static final int PERIOD_IN_SECONDS = 4;
+
+    private static final int ROLLED_PER_TICK = 25_000;
+
+    private ScheduleBackedNotifier notifier;
+
+    private NotifierActor.SchedulingNotificationsInbox inbox;
+
+    private long tick;
+
+    @Setup
+    public void subscribe() {
+        val now = Timestamp.current().startOfNextSecond();
+        notifier = new ScheduleBackedNotifier(new TimestampTransformingNotificationSender((uri, time) -> {}));
+        inbox =
+            new NotifierActor.SchedulingNotificationsInbox(
+                new BoundedInbox(16, OverflowPolicy.FAIL_FAST),
+                notifier,
+                Journal.NONE
+            );
+        for (int i = 0; i < ROLLED_PER_TICK * PERIOD_IN_SECONDS; i++) {
+            notifier.subscribe(
+                new PeriodicNotification(URI.create("http://host" + i + ".com"), PERIOD_IN_SECONDS),
+                now.plusSeconds(i % PERIOD_IN_SECONDS)
+            );
+        }
+        tick = now.getValueInMillis();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROLLED_PER_TICK)
+    public long tick() {
+        inbox.read(tick);
+        notifier.notify(tick);
+        tick = notifier.nextTickAfter(tick);
+        return tick;
+    }
+}
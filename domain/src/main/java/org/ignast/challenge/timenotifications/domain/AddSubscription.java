@@ -0,0 +1,3 @@
+package org.ignast.challenge.timenotifications.domain;
+
+record AddSubscription(PeriodicNotification notification) implements AlterSubscriptions {}
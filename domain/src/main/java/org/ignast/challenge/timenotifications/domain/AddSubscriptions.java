@@ -0,0 +1,5 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.List;
+
+record AddSubscriptions(List<PeriodicNotification> notifications) implements AlterSubscriptions {}
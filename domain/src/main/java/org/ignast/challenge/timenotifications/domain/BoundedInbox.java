@@ -0,0 +1,167 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.val;
+
+/**
+ * Preallocated ring of instructions written by many producers and read by a single actor. A slot claimed but
+ * not yet published ends a read, so instructions offered together are read together and in order.
+ */
+final class BoundedInbox {
+
+    private static final long BLOCKED_PRODUCER_PARK_NANOS = 100_000;
+
+    private final AtomicReferenceArray<AlterSubscriptions> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final OverflowPolicy overflowPolicy;
+    private final ConcurrentLinkedQueue<AlterSubscriptions> spill = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+    private final ConcurrentLinkedQueue<CommitWaiter> commitWaiters = new ConcurrentLinkedQueue<>();
+    private long spillReads;
+
+    BoundedInbox(final int capacity, final OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException(
+                "inbox needs to hold at least the pair of instructions of a reschedule"
+            );
+        }
+        this.slots = new AtomicReferenceArray<>(Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = slots.length() - 1;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @throws InboxOverflowException if the inbox is full and fails fast, or if a blocked producer is interrupted
+     */
+    void offer(final AlterSubscriptions... instructions) {
+        while (!tryOffer(instructions)) {
+            awaitRoom();
+        }
+    }
+
+    /**
+     * @return false if the inbox is full and blocks producers, which are then to {@link #awaitRoom()}
+     * @throws InboxOverflowException if the inbox is full and fails fast
+     */
+    boolean tryOffer(final AlterSubscriptions... instructions) {
+        val count = instructions.length;
+        if (count > slots.length()) {
+            throw new IllegalArgumentException("more instructions than the inbox can ever hold");
+        }
+        if (!spill.isEmpty()) {
+            spill(instructions);
+            return true;
+        }
+        while (true) {
+            val claimed = tail.get();
+            if (claimed + count - head.get() > slots.length()) {
+                if (overflowPolicy == OverflowPolicy.SPILL) {
+                    spill(instructions);
+                    return true;
+                }
+                if (overflowPolicy == OverflowPolicy.FAIL_FAST) {
+                    rejections.increment();
+                    throw new InboxOverflowException("inbox is full");
+                }
+                return false;
+            } else if (tail.compareAndSet(claimed, claimed + count)) {
+                for (int i = 0; i < count; i++) {
+                    slots.lazySet((int) (claimed + i) & mask, instructions[i]);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parks a producer blocked by a full inbox for a while, after which it is to try again.
+     *
+     * @throws InboxOverflowException if the producer is interrupted
+     */
+    void awaitRoom() {
+        if (Thread.currentThread().isInterrupted()) {
+            rejections.increment();
+            throw new InboxOverflowException("interrupted while waiting for room in the inbox");
+        }
+        LockSupport.parkNanos(BLOCKED_PRODUCER_PARK_NANOS);
+    }
+
+    /**
+     * Only the actor owning the inbox may poll it.
+     *
+     * @return the oldest instruction, or null if there is nothing ready to be read
+     */
+    AlterSubscriptions poll() {
+        val position = head.get();
+        val slot = (int) position & mask;
+        val instruction = slots.get(slot);
+        if (instruction == null) {
+            if (position != tail.get()) {
+                return null;
+            }
+            val spilled = spill.poll();
+            if (spilled != null) {
+                spillReads++;
+            }
+            return spilled;
+        }
+        slots.lazySet(slot, null);
+        head.lazySet(position + 1);
+        return instruction;
+    }
+
+    /**
+     * @return completes once every instruction offered before the call, spilled ones included, is committed
+     */
+    CompletionStage<Void> whenCommitted() {
+        val waiter = new CommitWaiter(tail.get(), spills.sum(), new CompletableFuture<>());
+        commitWaiters.add(waiter);
+        return waiter.committed();
+    }
+
+    /**
+     * Only the actor owning the inbox may tell it that everything read so far has been committed.
+     */
+    void committed() {
+        for (var waiter = commitWaiters.peek(); waiter != null; waiter = commitWaiters.peek()) {
+            if (head.get() < waiter.tail() || spillReads < waiter.spilled()) {
+                return;
+            }
+            commitWaiters.poll();
+            waiter.committed().complete(null);
+        }
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get()) + spill.size();
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    long rejections() {
+        return rejections.sum();
+    }
+
+    long spills() {
+        return spills.sum();
+    }
+
+    private void spill(final AlterSubscriptions[] instructions) {
+        spill.addAll(List.of(instructions));
+        spills.add(instructions.length);
+    }
+
+    private record CommitWaiter(long tail, long spilled, CompletableFuture<Void> committed) {}
+}
@@ -0,0 +1,35 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+
+/**
+ * Notification given up on after it failed.
+ *
+ * @param scheduledAtMillis occurrence the notification was for, which is also the time it carries
+ * @param attempts times it was sent
+ * @param lastHttpStatus status of the last attempt, or zero if it was not answered
+ */
+public record DeadLetter(
+    URI subscriptionUri,
+    long scheduledAtMillis,
+    int attempts,
+    DeliveryOutcome lastOutcome,
+    int lastHttpStatus,
+    Reason reason,
+    long givenUpAtMillis
+) {
+    public enum Reason {
+        /**
+         * Every retry the notification was allowed failed too.
+         */
+        EXHAUSTED,
+        /**
+         * The next regular occurrence of the subscription comes before it could have been retried.
+         */
+        SUPERSEDED,
+        /**
+         * As many notifications were already waiting to be retried as the notifier allows.
+         */
+        OVER_CAP,
+    }
+}
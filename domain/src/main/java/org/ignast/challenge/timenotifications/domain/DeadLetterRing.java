@@ -0,0 +1,68 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import lombok.val;
+
+/**
+ * Most recent dead letters within a byte budget, estimated from the length of their uri. Thread safe.
+ */
+final class DeadLetterRing implements DeadLetters {
+
+    static final long DEFAULT_CAPACITY_IN_BYTES = 1024 * 1024;
+
+    private static final int FIXED_BYTES_PER_LETTER = 200;
+
+    private final long capacityInBytes;
+
+    private final Deque<DeadLetter> letters = new ArrayDeque<>();
+
+    private final Counter[] counters = new Counter[DeadLetter.Reason.values().length];
+
+    private long bytes;
+
+    DeadLetterRing(final long capacityInBytes, final MeterRegistry meterRegistry) {
+        this.capacityInBytes = capacityInBytes;
+        for (val reason : DeadLetter.Reason.values()) {
+            counters[reason.ordinal()] =
+                Counter
+                    .builder("notifier.retry.dead-letters")
+                    .description("Failed notifications given up on")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    void add(final DeadLetter letter) {
+        counters[letter.reason().ordinal()].increment();
+        val letterBytes = bytesOf(letter);
+        synchronized (this) {
+            while (!letters.isEmpty() && bytes + letterBytes > capacityInBytes) {
+                bytes -= bytesOf(letters.removeFirst());
+            }
+            if (letterBytes <= capacityInBytes) {
+                letters.addLast(letter);
+                bytes += letterBytes;
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<DeadLetter> recent() {
+        val recent = new ArrayList<DeadLetter>(letters.size());
+        letters.descendingIterator().forEachRemaining(recent::add);
+        return recent;
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private static long bytesOf(final DeadLetter letter) {
+        return FIXED_BYTES_PER_LETTER + 2L * letter.subscriptionUri().toString().length();
+    }
+}
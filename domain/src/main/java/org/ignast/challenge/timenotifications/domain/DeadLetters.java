@@ -0,0 +1,10 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.List;
+
+public interface DeadLetters {
+    /**
+     * @return dead letters kept, most recent first
+     */
+    public List<DeadLetter> recent();
+}
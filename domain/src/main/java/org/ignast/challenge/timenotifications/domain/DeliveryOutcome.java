@@ -0,0 +1,68 @@
+package org.ignast.challenge.timenotifications.domain;
+
+public enum DeliveryOutcome {
+    /**
+     * Accepted by the subscriber.
+     */
+    DELIVERED(true),
+    /**
+     * Answered with a client error, which retrying would not change.
+     */
+    REJECTED(true),
+    /**
+     * Answered with a server error or asked to back off.
+     */
+    FAILED(true),
+    /**
+     * Not answered within the timeout of the sender.
+     */
+    TIMED_OUT(true),
+    /**
+     * Not answered by its deadline, so that its request was cancelled.
+     */
+    CANCELLED(true),
+    /**
+     * Never reached the subscriber, such as when its host cannot be resolved or refuses connections.
+     */
+    UNREACHABLE(true),
+    /**
+     * Not sent, as the host of the subscriber has been failing.
+     */
+    SKIPPED(false),
+    /**
+     * Not sent, as the host of the subscriber had more notifications pending than it is allowed.
+     */
+    SHED(false),
+    /**
+     * Not sent, as it was still waiting to be sent by its deadline.
+     */
+    EXPIRED(false),
+    /**
+     * Not sent, as its request could not even be made.
+     */
+    INVALID(false),
+    /**
+     * Handed over to a sender that does not tell how it went.
+     */
+    UNTRACKED(false);
+
+    private final boolean attempted;
+
+    DeliveryOutcome(final boolean attempted) {
+        this.attempted = attempted;
+    }
+
+    /**
+     * @return whether sending again later may go better
+     */
+    public boolean retryable() {
+        return this == FAILED || this == TIMED_OUT || this == UNREACHABLE;
+    }
+
+    /**
+     * @return whether a request was made, so that its latency tells something of the subscriber
+     */
+    public boolean attempted() {
+        return attempted;
+    }
+}
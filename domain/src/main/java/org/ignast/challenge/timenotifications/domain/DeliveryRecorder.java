@@ -0,0 +1,97 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.val;
+
+/**
+ * Sender that checks every delivery against the expected schedule instead of sending it. Lookups use uri
+ * equality, as uris cooled down off the heap come back as new instances.
+ */
+final class DeliveryRecorder implements NotificationSender {
+
+    private final Map<URI, Integer> indexOfUri = new HashMap<>();
+
+    private long[] firstOccurrences = new long[16];
+
+    private long[] periods = new long[16];
+
+    private long[] delivered = new long[16];
+
+    private long deliveries;
+
+    private long mistimed;
+
+    private long unexpected;
+
+    void expect(final URI uri, final long firstOccurrenceInMillis, final long periodInMillis) {
+        val index = indexOfUri.size();
+        if (index == periods.length) {
+            firstOccurrences = Arrays.copyOf(firstOccurrences, index * 2);
+            periods = Arrays.copyOf(periods, index * 2);
+            delivered = Arrays.copyOf(delivered, index * 2);
+        }
+        indexOfUri.put(uri, index);
+        firstOccurrences[index] = firstOccurrenceInMillis;
+        periods[index] = periodInMillis;
+    }
+
+    @Override
+    public void send(final URI location, final ZonedDateTime time) {
+        record(location, time.toInstant().toEpochMilli());
+    }
+
+    @Override
+    public void send(final URI location, final NotificationPayload payload) {
+        record(location, payload.epochMillis());
+    }
+
+    private void record(final URI location, final long epochMillis) {
+        deliveries++;
+        val index = indexOfUri.get(location);
+        if (index == null) {
+            unexpected++;
+            return;
+        }
+        val expected = firstOccurrences[index] + delivered[index] * periods[index];
+        if (epochMillis != expected) {
+            mistimed++;
+        }
+        delivered[index]++;
+    }
+
+    long deliveries() {
+        return deliveries;
+    }
+
+    /**
+     * @return deliveries that did not fall on the next occurrence of their subscription
+     */
+    long mistimed() {
+        return mistimed;
+    }
+
+    /**
+     * @return deliveries to uris that were never expected
+     */
+    long unexpected() {
+        return unexpected;
+    }
+
+    /**
+     * @return occurrences up to and including the given moment that were never delivered
+     */
+    long missedUpTo(final long epochMillis) {
+        long missed = 0;
+        for (int i = 0; i < indexOfUri.size(); i++) {
+            if (epochMillis >= firstOccurrences[i]) {
+                val due = (epochMillis - firstOccurrences[i]) / periods[i] + 1;
+                missed += Math.max(0, due - delivered[i]);
+            }
+        }
+        return missed;
+    }
+}
@@ -0,0 +1,18 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @param httpStatus status the subscriber answered with, or zero if it did not answer
+ * @param latencyNanos from the request being made until its outcome was known, or zero if none was made
+ */
+public record DeliveryResult(DeliveryOutcome outcome, int httpStatus, long latencyNanos) {
+    static final CompletionStage<DeliveryResult> UNTRACKED = CompletableFuture.completedStage(
+        new DeliveryResult(DeliveryOutcome.UNTRACKED, 0, 0)
+    );
+
+    public static DeliveryResult notAttempted(final DeliveryOutcome outcome) {
+        return new DeliveryResult(outcome, 0, 0);
+    }
+}
@@ -0,0 +1,207 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+/**
+ * Pool of workers sending batches handed over by the notifier threads of all shards. A full queue or too
+ * many outstanding notifications hold the notifier threads back rather than drop anything.
+ */
+class Dispatcher implements NotificationDispatch, AutoCloseable {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    static final int DEFAULT_MAX_OUTSTANDING = 65536;
+
+    private final BlockingQueue<DueNotifications> queue;
+
+    private final BlockingQueue<DueNotifications> spareBatches;
+
+    private final TimestampTransformingNotificationSender sender;
+
+    private final AtomicLong pendingNotifications = new AtomicLong();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer queueLatency;
+
+    private final Timer sendLatency;
+
+    private final Counter failures;
+
+    private final Pacer pacer;
+
+    private final Semaphore outstanding;
+
+    private final BiConsumer<DeliveryResult, Throwable> onCompletion;
+
+    private final long deadlineToleranceInMillis;
+
+    /**
+     * @param deadlineTolerance how late after their tick notifications may still be sent, or zero for however late
+     */
+    Dispatcher(
+        final TimestampTransformingNotificationSender sender,
+        final int workerCount,
+        final int queueCapacity,
+        final MeterRegistry meterRegistry,
+        final Pacer pacer,
+        final int maxOutstanding,
+        final Duration deadlineTolerance
+    ) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("at least one dispatcher worker is required");
+        }
+        if (maxOutstanding < 1) {
+            throw new IllegalArgumentException("at least one outstanding notification is required");
+        }
+        if (deadlineTolerance.isNegative()) {
+            throw new IllegalArgumentException("deadline tolerance must not be negative");
+        }
+        this.deadlineToleranceInMillis =
+            deadlineTolerance.isZero() ? NotificationSender.NO_DEADLINE : deadlineTolerance.toMillis();
+        this.sender = sender;
+        this.pacer = pacer;
+        this.outstanding = new Semaphore(maxOutstanding);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.spareBatches = new ArrayBlockingQueue<>(queueCapacity + workerCount);
+        Gauge
+            .builder("notifier.dispatch.queue.depth", pendingNotifications, AtomicLong::get)
+            .description("Notifications found due and waiting for a dispatcher")
+            .register(meterRegistry);
+        this.queueLatency =
+            Timer
+                .builder("notifier.dispatch.queue.latency")
+                .description("How long due notifications waited for a dispatcher")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.sendLatency =
+            Timer
+                .builder("notifier.dispatch.send.latency")
+                .description("How long a dispatcher took to send a batch of due notifications")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.failures =
+            Counter
+                .builder("notifier.dispatch.failures")
+                .description("Notifications the sender failed to send")
+                .register(meterRegistry);
+        Gauge
+            .builder("notifier.dispatch.outstanding", outstanding, s -> maxOutstanding - s.availablePermits())
+            .description("Notifications handed over to the sender and yet to complete")
+            .register(meterRegistry);
+        this.onCompletion =
+            (result, error) -> {
+                outstanding.release();
+                if (error != null) {
+                    failures.increment();
+                }
+            };
+        for (int worker = 0; worker < workerCount; worker++) {
+            val thread = new Thread(this::work, "notifier-dispatcher-" + worker);
+            thread.setDaemon(true);
+            workers.add(thread);
+        }
+    }
+
+    Dispatcher start() {
+        workers.forEach(Thread::start);
+        return this;
+    }
+
+    @Override
+    public DueNotifications batchFor(final long tickInMillis) {
+        val spare = spareBatches.poll();
+        return spare == null ? new DueNotifications(tickInMillis) : spare.reset(tickInMillis);
+    }
+
+    @Override
+    public void dispatch(final DueNotifications due) {
+        due.handedOver();
+        pacer.expect(due.tickInMillis(), due.size());
+        pendingNotifications.addAndGet(due.size());
+        try {
+            queue.put(due);
+        } catch (InterruptedException e) {
+            pendingNotifications.addAndGet(-due.size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                send(queue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BiConsumer<DeliveryResult, Throwable> retryingOnFailure(
+        final Retries retries,
+        final URI uri,
+        final long tickInMillis,
+        final int attempt
+    ) {
+        return (result, error) -> {
+            onCompletion.accept(result, error);
+            if (result != null && result.outcome().retryable()) {
+                retries.failed(uri, tickInMillis, attempt, result);
+            }
+        };
+    }
+
+    private void send(final DueNotifications due) {
+        val startedAt = System.nanoTime();
+        pendingNotifications.addAndGet(-due.size());
+        queueLatency.record(startedAt - due.handedOverAtNanos(), NANOSECONDS);
+        val deadlineInMillis = deadlineOf(due);
+        for (int i = 0; i < due.size(); i++) {
+            pacer.await(due.tickInMillis());
+            try {
+                outstanding.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            val completion = due.retries() == Retries.NONE
+                ? onCompletion
+                : retryingOnFailure(due.retries(), due.uri(i), due.tickInMillis(), due.attempt());
+            try {
+                sender.deliver(due.uri(i), due.tickInMillis(), deadlineInMillis).whenComplete(completion);
+            } catch (RuntimeException e) {
+                completion.accept(null, e);
+            }
+        }
+        sendLatency.record(System.nanoTime() - startedAt, NANOSECONDS);
+        spareBatches.offer(due.reset(0));
+    }
+
+    private long deadlineOf(final DueNotifications due) {
+        if (deadlineToleranceInMillis == NotificationSender.NO_DEADLINE) {
+            return NotificationSender.NO_DEADLINE;
+        }
+        return due.dueAtInMillis() + deadlineToleranceInMillis;
+    }
+}
@@ -0,0 +1,99 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * Subscriptions due at the same tick, recycled once sent. Holds uris rather than ids, as ids are reused once
+ * subscriptions are removed.
+ */
+final class DueNotifications {
+
+    static final int CAPACITY = 512;
+
+    private final URI[] uris = new URI[CAPACITY];
+
+    private long tickInMillis;
+
+    private long dueAtInMillis;
+
+    private int size;
+
+    private long handedOverAtNanos;
+
+    private Retries retries = Retries.NONE;
+
+    private int attempt = 1;
+
+    DueNotifications(final long tickInMillis) {
+        this.tickInMillis = tickInMillis;
+        this.dueAtInMillis = tickInMillis;
+    }
+
+    DueNotifications reset(final long tickInMillis) {
+        Arrays.fill(uris, 0, size, null);
+        this.tickInMillis = tickInMillis;
+        this.dueAtInMillis = tickInMillis;
+        this.size = 0;
+        this.retries = Retries.NONE;
+        this.attempt = 1;
+        return this;
+    }
+
+    DueNotifications retriedBy(final Retries retries, final int attempt) {
+        this.retries = retries;
+        this.attempt = attempt;
+        return this;
+    }
+
+    Retries retries() {
+        return retries;
+    }
+
+    int attempt() {
+        return attempt;
+    }
+
+    /**
+     * Has the batch sent at a later tick than the one its notifications carry, as retries are.
+     */
+    DueNotifications dueAt(final long dueAtInMillis) {
+        this.dueAtInMillis = dueAtInMillis;
+        return this;
+    }
+
+    /**
+     * @return tick the batch was found due at, which its deadline counts from
+     */
+    long dueAtInMillis() {
+        return dueAtInMillis;
+    }
+
+    /**
+     * @return whether the batch is full
+     */
+    boolean add(final URI uri) {
+        uris[size++] = uri;
+        return size == CAPACITY;
+    }
+
+    long tickInMillis() {
+        return tickInMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    URI uri(final int index) {
+        return uris[index];
+    }
+
+    void handedOver() {
+        handedOverAtNanos = System.nanoTime();
+    }
+
+    long handedOverAtNanos() {
+        return handedOverAtNanos;
+    }
+}
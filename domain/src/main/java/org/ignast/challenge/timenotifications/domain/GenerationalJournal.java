@@ -0,0 +1,273 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import lombok.val;
+
+/**
+ * Journal of a shard split into generations, each a snapshot followed by the changes applied since. The
+ * snapshot walk may observe changes made after the switch, which is harmless as they are replayed on top.
+ */
+final class GenerationalJournal implements Journal {
+
+    static final int SUBSCRIPTIONS_SNAPSHOTTED_PER_TICK = 16 * 1024;
+
+    private static final Pattern GENERATION_FILE = Pattern.compile("shard-(\\d+)\\.(\\d+)\\.(wal|snapshot)");
+
+    private final Path directory;
+    private final int shard;
+    private final int segmentBytes;
+    private final Duration snapshotInterval;
+    private final ExecutorService snapshotWriter;
+    private MappedJournal current;
+    private CompletableFuture<MappedJournal> next;
+    private long generation;
+    private long nextSnapshotAtMillis;
+    private SnapshotInProgress snapshot;
+
+    GenerationalJournal(
+        final Path directory,
+        final int shard,
+        final long generation,
+        final MappedJournal current,
+        final int segmentBytes,
+        final Duration snapshotInterval,
+        final ExecutorService snapshotWriter,
+        final Clock clock
+    ) {
+        this.directory = directory;
+        this.shard = shard;
+        this.generation = generation;
+        this.current = current;
+        this.segmentBytes = segmentBytes;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotWriter = snapshotWriter;
+        this.nextSnapshotAtMillis = clock.millis() + snapshotInterval.toMillis();
+        this.next = openAhead(generation + 1);
+    }
+
+    @Override
+    public void append(final AlterSubscriptions instruction, final Timestamp appliedAt) {
+        current.append(instruction, appliedAt);
+    }
+
+    @Override
+    public void commit() {
+        current.commit();
+    }
+
+    @Override
+    public void snapshot(final ScheduleBackedNotifier scheduleBackedNotifier, final long tickInMillis) {
+        if (snapshot == null) {
+            if (tickInMillis < nextSnapshotAtMillis) {
+                return;
+            }
+            startSnapshot(tickInMillis);
+        }
+        snapshot.nextId =
+            scheduleBackedNotifier.walkSchedule(
+                snapshot.nextId,
+                SUBSCRIPTIONS_SNAPSHOTTED_PER_TICK,
+                snapshot.encoder
+            );
+        if (snapshot.nextId == ScheduleTable.ABSENT) {
+            snapshot.encoder.end();
+            snapshot.write();
+            snapshot.complete();
+            snapshot = null;
+            nextSnapshotAtMillis = tickInMillis + snapshotInterval.toMillis();
+        } else {
+            snapshot.write();
+        }
+    }
+
+    @Override
+    public void close() {
+        current.close();
+        next.join().close();
+    }
+
+    private void startSnapshot(final long tickInMillis) {
+        current.close();
+        generation++;
+        current = next.join();
+        next = openAhead(generation + 1);
+        snapshot =
+            new SnapshotInProgress(
+                generation,
+                new ScheduleSnapshot.Encoder(Timestamp.ofEpochMillis(tickInMillis))
+            );
+    }
+
+    /**
+     * Opens the journal of the following generation on the snapshot writer, so that switching over to it
+     * does not hold up the tick.
+     */
+    private CompletableFuture<MappedJournal> openAhead(final long generation) {
+        val file = journalFile(directory, shard, generation);
+        return CompletableFuture.supplyAsync(
+            () -> MappedJournal.open(file, segmentBytes, NO_ENTRIES),
+            snapshotWriter
+        );
+    }
+
+    static Path journalFile(final Path directory, final int shard, final long generation) {
+        return directory.resolve(String.format("shard-%d.%d.wal", shard, generation));
+    }
+
+    static Path snapshotFile(final Path directory, final int shard, final long generation) {
+        return directory.resolve(String.format("shard-%d.%d.snapshot", shard, generation));
+    }
+
+    static LongStream journalGenerations(final Path directory, final int shard) {
+        return generationsOf(directory, shard, "wal");
+    }
+
+    static OptionalLong latestSnapshotGeneration(final Path directory, final int shard) {
+        return generationsOf(directory, shard, "snapshot").max();
+    }
+
+    static void deleteGenerationsBefore(final Path directory, final int shard, final long generation) {
+        try (val files = Files.list(directory)) {
+            for (val file : (Iterable<Path>) files::iterator) {
+                val name = file.getFileName().toString();
+                val matcher = GENERATION_FILE.matcher(name.replaceFirst("\\.tmp$", ""));
+                val isOlder =
+                    matcher.matches() &&
+                    Integer.parseInt(matcher.group(1)) == shard &&
+                    (Long.parseLong(matcher.group(2)) < generation || name.endsWith(".tmp"));
+                if (isOlder) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to clean up journals of shard " + shard, e);
+        }
+    }
+
+    /**
+     * Makes the rename of a snapshot durable before the journals it supersedes are deleted.
+     */
+    private static void forceDirectory(final Path directory) throws IOException {
+        try (val channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static LongStream generationsOf(final Path directory, final int shard, final String kind) {
+        try (val files = Files.list(directory)) {
+            val generations = files
+                .map(file -> GENERATION_FILE.matcher(file.getFileName().toString()))
+                .filter(matcher -> matcher.matches())
+                .filter(matcher ->
+                    Integer.parseInt(matcher.group(1)) == shard && matcher.group(3).equals(kind)
+                )
+                .mapToLong(matcher -> Long.parseLong(matcher.group(2)))
+                .sorted()
+                .toArray();
+            return LongStream.of(generations);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to list journals of shard " + shard, e);
+        }
+    }
+
+    private static final MappedJournal.Entries NO_ENTRIES = new MappedJournal.Entries() {
+        @Override
+        public void added(final PeriodicNotification notification, final long firstOccurrenceInMillis) {}
+
+        @Override
+        public void removed(final URI uri) {}
+    };
+
+    private final class SnapshotInProgress {
+
+        private final long generation;
+        private final ScheduleSnapshot.Encoder encoder;
+        private final Path temporaryFile;
+        private int nextId;
+        private FileChannel channel;
+        private boolean abandoned;
+
+        private SnapshotInProgress(final long generation, final ScheduleSnapshot.Encoder encoder) {
+            this.generation = generation;
+            this.encoder = encoder;
+            this.temporaryFile =
+                directory.resolve(snapshotFile(directory, shard, generation).getFileName() + ".tmp");
+        }
+
+        private void write() {
+            val chunk = ByteBuffer.wrap(encoder.takeChunk());
+            snapshotWriter.execute(() -> {
+                if (abandoned) {
+                    return;
+                }
+                try {
+                    if (channel == null) {
+                        channel =
+                            FileChannel.open(
+                                temporaryFile,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE
+                            );
+                    }
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                } catch (IOException e) {
+                    abandon();
+                }
+            });
+        }
+
+        private void complete() {
+            snapshotWriter.execute(() -> {
+                if (abandoned) {
+                    return;
+                }
+                try {
+                    channel.force(true);
+                    channel.close();
+                    Files.move(
+                        temporaryFile,
+                        snapshotFile(directory, shard, generation),
+                        StandardCopyOption.ATOMIC_MOVE
+                    );
+                    forceDirectory(directory);
+                    deleteGenerationsBefore(directory, shard, generation);
+                } catch (IOException e) {
+                    abandon();
+                }
+            });
+        }
+
+        /**
+         * Keeps every journal, so nothing is lost and the next snapshot is attempted after the usual interval.
+         */
+        private void abandon() {
+            abandoned = true;
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to clean up snapshot " + temporaryFile, e);
+            }
+        }
+    }
+}
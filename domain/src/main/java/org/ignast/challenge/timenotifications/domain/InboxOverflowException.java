@@ -0,0 +1,8 @@
+package org.ignast.challenge.timenotifications.domain;
+
+public class InboxOverflowException extends RuntimeException {
+
+    InboxOverflowException(final String message) {
+        super(message);
+    }
+}
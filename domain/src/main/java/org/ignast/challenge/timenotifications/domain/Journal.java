@@ -0,0 +1,28 @@
+package org.ignast.challenge.timenotifications.domain;
+
+/**
+ * Instructions an actor has applied, made durable together once per tick.
+ */
+interface Journal {
+    Journal NONE = new Journal() {
+        @Override
+        public void append(final AlterSubscriptions instruction, final Timestamp appliedAt) {}
+
+        @Override
+        public void commit() {}
+
+        @Override
+        public void snapshot(final ScheduleBackedNotifier scheduleBackedNotifier, final long tickInMillis) {}
+
+        @Override
+        public void close() {}
+    };
+
+    void append(final AlterSubscriptions instruction, final Timestamp appliedAt);
+
+    void commit();
+
+    void snapshot(final ScheduleBackedNotifier scheduleBackedNotifier, final long tickInMillis);
+
+    void close();
+}
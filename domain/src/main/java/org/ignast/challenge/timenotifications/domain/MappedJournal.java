@@ -0,0 +1,222 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.zip.CRC32;
+import lombok.val;
+
+/**
+ * Append-only journal of length and checksum prefixed records that never straddle two mapped segments.
+ * Replay stops at the first empty or corrupt record, which is where appending resumes.
+ */
+final class MappedJournal implements Journal {
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int END_OF_SEGMENT = -1;
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+
+    private final FileChannel channel;
+    private final int segmentBytes;
+    private final CRC32 checksum = new CRC32();
+    private ByteBuffer payload = ByteBuffer.allocate(1024);
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int uncommittedFrom;
+
+    private MappedJournal(final FileChannel channel, final int segmentBytes, final long appendAt)
+        throws IOException {
+        this.channel = channel;
+        this.segmentBytes = segmentBytes;
+        mapSegmentOf(appendAt);
+        val position = (int) (appendAt - segmentStart);
+        segment.position(position);
+        uncommittedFrom = position;
+    }
+
+    static MappedJournal open(final Path file, final int segmentBytes, final Entries entries) {
+        try {
+            val channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            );
+            val appendAt = replay(channel, segmentBytes, entries);
+            if (channel.size() > appendAt) {
+                channel.truncate(appendAt);
+            }
+            return new MappedJournal(channel, segmentBytes, appendAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to open journal " + file, e);
+        }
+    }
+
+    static void replay(final Path file, final int segmentBytes, final Entries entries) {
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, segmentBytes, entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to replay journal " + file, e);
+        }
+    }
+
+    @Override
+    public void append(final AlterSubscriptions instruction, final Timestamp appliedAt) {
+        if (instruction instanceof AddSubscription) {
+            appendAdd(((AddSubscription) instruction).notification(), appliedAt);
+        } else if (instruction instanceof AddSubscriptions) {
+            for (val notification : ((AddSubscriptions) instruction).notifications()) {
+                appendAdd(notification, appliedAt);
+            }
+        } else {
+            appendRemove(((RemoveSubscription) instruction).uri());
+        }
+    }
+
+    private void appendAdd(final PeriodicNotification notification, final Timestamp appliedAt) {
+        payload.clear();
+        val uri = notification.subscriptionUri().toString().getBytes(StandardCharsets.UTF_8);
+        ensurePayloadCapacity(1 + 2 * Long.BYTES + uri.length);
+        payload
+            .put(ADD)
+            .putLong(notification.frequency().toMillis())
+            .putLong(appliedAt.getValueInMillis())
+            .put(uri);
+        payload.flip();
+        write(payload);
+    }
+
+    private void appendRemove(final URI subscriptionUri) {
+        payload.clear();
+        val uri = subscriptionUri.toString().getBytes(StandardCharsets.UTF_8);
+        ensurePayloadCapacity(1 + uri.length);
+        payload.put(REMOVE).put(uri);
+        payload.flip();
+        write(payload);
+    }
+
+    @Override
+    public void commit() {
+        val committedTo = segment.position();
+        if (committedTo > uncommittedFrom) {
+            segment.force(uncommittedFrom, committedTo - uncommittedFrom);
+            uncommittedFrom = committedTo;
+        }
+    }
+
+    @Override
+    public void snapshot(final ScheduleBackedNotifier scheduleBackedNotifier, final long tickInMillis) {}
+
+    @Override
+    public void close() {
+        try {
+            commit();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to close journal", e);
+        }
+    }
+
+    private void write(final ByteBuffer record) {
+        val length = record.remaining();
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("record does not fit into a journal segment");
+        }
+        if (segment.remaining() < HEADER_BYTES + length) {
+            if (segment.remaining() >= Integer.BYTES) {
+                segment.putInt(END_OF_SEGMENT);
+            }
+            commit();
+            try {
+                mapSegmentOf(segmentStart + segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to extend journal", e);
+            }
+            uncommittedFrom = 0;
+        }
+        checksum.reset();
+        checksum.update(record.duplicate());
+        segment.putInt(length).putInt((int) checksum.getValue()).put(record);
+    }
+
+    private void mapSegmentOf(final long position) throws IOException {
+        segmentStart = position - position % segmentBytes;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, segmentBytes);
+    }
+
+    private void ensurePayloadCapacity(final int bytes) {
+        if (payload.capacity() < bytes) {
+            payload = ByteBuffer.allocate(Math.max(bytes, payload.capacity() * 2));
+        }
+    }
+
+    /**
+     * @return position right after the last intact record
+     */
+    private static long replay(final FileChannel channel, final int segmentBytes, final Entries entries)
+        throws IOException {
+        val checksum = new CRC32();
+        val size = channel.size();
+        for (long segmentStart = 0; segmentStart < size; segmentStart += segmentBytes) {
+            val segment = channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                segmentStart,
+                Math.min(segmentBytes, size - segmentStart)
+            );
+            while (true) {
+                if (segment.remaining() < HEADER_BYTES) {
+                    break;
+                }
+                val recordStart = segment.position();
+                val length = segment.getInt();
+                if (length == END_OF_SEGMENT) {
+                    break;
+                }
+                if (length <= 0 || length > segment.remaining() - Integer.BYTES) {
+                    return segmentStart + recordStart;
+                }
+                val expectedChecksum = segment.getInt();
+                val record = segment.slice(segment.position(), length);
+                checksum.reset();
+                checksum.update(record.duplicate());
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    return segmentStart + recordStart;
+                }
+                apply(record, entries);
+                segment.position(segment.position() + length);
+            }
+        }
+        return size;
+    }
+
+    private static void apply(final ByteBuffer record, final Entries entries) {
+        val type = record.get();
+        if (type == ADD) {
+            val frequencyInMillis = record.getLong();
+            val firstOccurrenceInMillis = record.getLong();
+            val uri = URI.create(StandardCharsets.UTF_8.decode(record).toString());
+            entries.added(
+                new PeriodicNotification(uri, Duration.ofMillis(frequencyInMillis)),
+                firstOccurrenceInMillis
+            );
+        } else {
+            entries.removed(URI.create(StandardCharsets.UTF_8.decode(record).toString()));
+        }
+    }
+
+    interface Entries {
+        void added(final PeriodicNotification notification, final long firstOccurrenceInMillis);
+
+        void removed(final URI uri);
+    }
+}
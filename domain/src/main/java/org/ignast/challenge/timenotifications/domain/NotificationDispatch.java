@@ -0,0 +1,32 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+
+interface NotificationDispatch {
+    void dispatch(final DueNotifications due);
+
+    default DueNotifications batchFor(final long tickInMillis) {
+        return new DueNotifications(tickInMillis);
+    }
+
+    /**
+     * Sends on the calling thread, reusing the same batch throughout.
+     */
+    static NotificationDispatch inline(final TimestampTransformingNotificationSender sender) {
+        return new NotificationDispatch() {
+            private final DueNotifications reused = new DueNotifications(0);
+
+            @Override
+            public DueNotifications batchFor(final long tickInMillis) {
+                return reused.reset(tickInMillis);
+            }
+
+            @Override
+            public void dispatch(final DueNotifications due) {
+                for (int i = 0; i < due.size(); i++) {
+                    sender.send(due.uri(i), due.tickInMillis());
+                }
+            }
+        };
+    }
+}
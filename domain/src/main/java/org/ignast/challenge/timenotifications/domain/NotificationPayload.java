@@ -0,0 +1,50 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+public final class NotificationPayload {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final ZonedDateTime time;
+
+    private final long epochMillis;
+
+    private final ByteBuffer body;
+
+    private NotificationPayload(final ZonedDateTime time) {
+        this.time = time;
+        this.epochMillis = time.toInstant().toEpochMilli();
+        this.body =
+            ByteBuffer
+                .wrap(String.format("{\"time\":\"%s\"}", time).getBytes(StandardCharsets.UTF_8))
+                .asReadOnlyBuffer();
+    }
+
+    public static NotificationPayload of(final ZonedDateTime time) {
+        return new NotificationPayload(time);
+    }
+
+    static NotificationPayload inUtcAt(final long epochMillis) {
+        return new NotificationPayload(Instant.ofEpochMilli(epochMillis).atZone(UTC));
+    }
+
+    public ZonedDateTime time() {
+        return time;
+    }
+
+    /**
+     * @return a read-only view of the body shared by every send, with a position of its own
+     */
+    public ByteBuffer body() {
+        return body.duplicate();
+    }
+
+    long epochMillis() {
+        return epochMillis;
+    }
+}
@@ -2,7 +2,44 @@ package org.ignast.challenge.timenotifications.domain;
 
 import java.net.URI;
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletionStage;
 
 public interface NotificationSender {
+    /**
+     * Deadline of notifications that may be sent however late.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
     public void send(final URI location, final ZonedDateTime time);
+
+    /**
+     * Sends a body shared by every notification due at the same moment.
+     */
+    public default void send(final URI location, final NotificationPayload payload) {
+        send(location, payload.time());
+    }
+
+    /**
+     * Senders not tracking their notifications complete right away as {@link DeliveryOutcome#UNTRACKED}.
+     */
+    public default CompletionStage<DeliveryResult> deliver(
+        final URI location,
+        final NotificationPayload payload
+    ) {
+        send(location, payload);
+        return DeliveryResult.UNTRACKED;
+    }
+
+    /**
+     * Senders unable to tell how late they are ignore the deadline.
+     *
+     * @param deadlineInMillis epoch millis, or {@link #NO_DEADLINE}
+     */
+    public default CompletionStage<DeliveryResult> deliver(
+        final URI location,
+        final NotificationPayload payload,
+        final long deadlineInMillis
+    ) {
+        return deliver(location, payload);
+    }
 }
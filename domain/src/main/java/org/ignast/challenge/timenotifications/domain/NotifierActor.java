@@ -1,27 +1,47 @@
 package org.ignast.challenge.timenotifications.domain;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
-import org.springframework.stereotype.Service;
 
-@Service
 class NotifierActor implements Runnable {
 
     private final PerTickJob perTickJob;
 
+    private final Journal journal;
+
+    private final TickDriver tickDriver;
+
     NotifierActor(
-        final ConcurrentLinkedQueue<AlterSubscriptions> inbox,
-        final ScheduleBackedNotifier scheduleBackedNotifier
+        final BoundedInbox inbox,
+        final ScheduleBackedNotifier scheduleBackedNotifier,
+        final TickDriver tickDriver,
+        final Journal journal
     ) {
-        this.perTickJob = new PerTickJob(inbox, scheduleBackedNotifier);
+        this.perTickJob = new PerTickJob(inbox, scheduleBackedNotifier, tickDriver, journal);
+        this.journal = journal;
+        this.tickDriver = tickDriver;
     }
 
     @Override
     public void run() {
-        for (var nextTick = Timestamp.current(); true; nextTick = nextTick.plusSeconds(1)) {
-            perTickJob.readInboxAndNotifyOnTick(nextTick);
+        runUntil(Long.MAX_VALUE);
+    }
+
+    void runUntil(final long lastTickInMillis) {
+        try {
+            for (
+                var nextTick = Timestamp
+                    .ofEpochMillis(tickDriver.currentTimeMillis())
+                    .startOfNextSecond()
+                    .getValueInMillis();
+                nextTick <= lastTickInMillis && !Thread.currentThread().isInterrupted();
+                nextTick = perTickJob.nextTickAfter(nextTick)
+            ) {
+                perTickJob.readInboxAndNotifyOnTick(nextTick);
+            }
+        } finally {
+            journal.close();
         }
     }
 
@@ -31,54 +51,96 @@ class NotifierActor implements Runnable {
 
         private final ScheduleBackedNotifier scheduleBackedNotifier;
 
+        private final TickDriver tickDriver;
+
+        private final Journal journal;
+
         PerTickJob(
-            final ConcurrentLinkedQueue<AlterSubscriptions> inbox,
-            final ScheduleBackedNotifier scheduleBackedNotifier
+            final BoundedInbox inbox,
+            final ScheduleBackedNotifier scheduleBackedNotifier,
+            final TickDriver tickDriver,
+            final Journal journal
         ) {
             this.scheduleBackedNotifier = scheduleBackedNotifier;
-            this.inbox = new SchedulingNotificationsInbox(inbox, scheduleBackedNotifier);
+            this.inbox = new SchedulingNotificationsInbox(inbox, scheduleBackedNotifier, journal);
+            this.tickDriver = tickDriver;
+            this.journal = journal;
         }
 
-        void readInboxAndNotifyOnTick(Timestamp nextTick) {
-            while (!Timestamp.current().gte(nextTick)) {
-                waitForNextTick();
+        void readInboxAndNotifyOnTick(final long tick) {
+            if (tickDriver.awaitEpochMillis(tick) < 0) {
+                return;
             }
-            val currentTimestamp = Timestamp.current();
-            inbox.read(currentTimestamp);
-            scheduleBackedNotifier.notify(currentTimestamp);
+            val startedAt = System.nanoTime();
+            inbox.read(tick);
+            scheduleBackedNotifier.notify(tick);
+            journal.snapshot(scheduleBackedNotifier, tick);
+            tickDriver.tickProcessedSince(startedAt);
         }
 
-        private void waitForNextTick() {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        long nextTickAfter(final long tick) {
+            return scheduleBackedNotifier.nextTickAfter(tick);
         }
     }
 
     @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
     static class SchedulingNotificationsInbox {
 
-        private final ConcurrentLinkedQueue<AlterSubscriptions> mail;
+        private final BoundedInbox mail;
         private final ScheduleBackedNotifier scheduleBackedNotifier;
+        private final Journal journal;
 
-        void read(Timestamp currentTimestamp) {
-            for (
-                AlterSubscriptions instruction = mail.poll();
-                instruction != null;
-                instruction = mail.poll()
-            ) {
+        /**
+         * Subscriptions placed at a later phase are journaled one at a time, with their own first occurrence.
+         */
+        void read(final long tick) {
+            AlterSubscriptions instruction = mail.poll();
+            if (instruction == null) {
+                mail.committed();
+                return;
+            }
+            val currentTimestamp = Timestamp.ofEpochMillis(tick);
+            for (; instruction != null; instruction = mail.poll()) {
                 if (instruction instanceof AddSubscription) {
                     AddSubscription addInstruction = (AddSubscription) instruction;
                     PeriodicNotification notification = addInstruction.notification();
-                    scheduleBackedNotifier.subscribe(notification, currentTimestamp);
+                    val firstOccurrence = scheduleBackedNotifier.subscribe(notification, currentTimestamp);
+                    journal.append(instruction, timestampOf(firstOccurrence, currentTimestamp));
+                } else if (instruction instanceof AddSubscriptions) {
+                    AddSubscriptions addInstructions = (AddSubscriptions) instruction;
+                    val notifications = addInstructions.notifications();
+                    val firstOccurrences = new long[notifications.size()];
+                    var allStartAtTick = true;
+                    for (int i = 0; i < notifications.size(); i++) {
+                        firstOccurrences[i] =
+                            scheduleBackedNotifier.subscribe(notifications.get(i), currentTimestamp);
+                        allStartAtTick &= firstOccurrences[i] == tick;
+                    }
+                    if (allStartAtTick) {
+                        journal.append(instruction, currentTimestamp);
+                    } else {
+                        for (int i = 0; i < notifications.size(); i++) {
+                            journal.append(
+                                new AddSubscription(notifications.get(i)),
+                                timestampOf(firstOccurrences[i], currentTimestamp)
+                            );
+                        }
+                    }
                 } else {
                     RemoveSubscription removeInstruction = (RemoveSubscription) instruction;
                     val uri = removeInstruction.uri();
                     scheduleBackedNotifier.unsubscribe(uri);
+                    journal.append(instruction, currentTimestamp);
                 }
             }
+            journal.commit();
+            mail.committed();
+        }
+
+        private static Timestamp timestampOf(final long millis, final Timestamp currentTimestamp) {
+            return millis == currentTimestamp.getValueInMillis()
+                ? currentTimestamp
+                : Timestamp.ofEpochMillis(millis);
         }
     }
 }
@@ -1,24 +1,130 @@
 package org.ignast.challenge.timenotifications.domain;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 @Configuration
 public class NotifierConfig {
 
     @Bean
-    ConcurrentLinkedQueue<AlterSubscriptions> pipe() {
-        return new ConcurrentLinkedQueue<>();
+    Clock clock() {
+        return Clock.systemUTC();
     }
 
     @Bean
-    ExecutorService notifierExecutor(final NotifierActor notifier) {
-        val singleThreadExecution = Executors.newSingleThreadExecutor();
-        singleThreadExecution.submit(notifier);
-        return singleThreadExecution;
+    ShardedInboxes inboxes(
+        @Value("${notifier.shards:1}") final int shards,
+        @Value("${notifier.inbox.capacity:" + ShardedInboxes.DEFAULT_CAPACITY + "}") final int capacity,
+        @Value("${notifier.inbox.overflow:FAIL_FAST}") final OverflowPolicy overflowPolicy
+    ) {
+        return new ShardedInboxes(shards, capacity, overflowPolicy);
+    }
+
+    @Bean(destroyMethod = "close")
+    Dispatcher dispatcher(
+        final TimestampTransformingNotificationSender notificationSender,
+        final MeterRegistry meterRegistry,
+        @Value("${notifier.dispatch.workers:0}") final int workers,
+        @Value(
+            "${notifier.dispatch.queue.capacity:" + Dispatcher.DEFAULT_QUEUE_CAPACITY + "}"
+        ) final int capacity,
+        @Value("${notifier.dispatch.pacing.window:0ms}") final Duration pacingWindow,
+        @Value(
+            "${notifier.dispatch.max-outstanding:" + Dispatcher.DEFAULT_MAX_OUTSTANDING + "}"
+        ) final int maxOutstanding,
+        @Value("${notifier.dispatch.deadline.tolerance:0ms}") final Duration deadlineTolerance,
+        final Clock clock
+    ) {
+        if (!deadlineTolerance.isZero() && deadlineTolerance.compareTo(pacingWindow) < 0) {
+            throw new IllegalArgumentException("deadline tolerance must leave room for the pacing window");
+        }
+        val workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        val pacer = pacingWindow.isZero() ? Pacer.NONE : new Pacer(pacingWindow, clock);
+        return new Dispatcher(
+            notificationSender,
+            workerCount,
+            capacity,
+            meterRegistry,
+            pacer,
+            maxOutstanding,
+            deadlineTolerance
+        )
+            .start();
+    }
+
+    @Bean
+    DeadLetterRing deadLetters(
+        final MeterRegistry meterRegistry,
+        @Value("${notifier.retry.dead-letters.capacity:1MB}") final DataSize capacity
+    ) {
+        return new DeadLetterRing(capacity.toBytes(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    ExecutorService notifierExecutor(
+        final ShardedInboxes inboxes,
+        final Dispatcher dispatcher,
+        final SubscriptionsPipe subscriptionsPipe,
+        final MeterRegistry meterRegistry,
+        final Clock clock,
+        @Value("${notifier.wal.directory:}") final String walDirectory,
+        @Value("${notifier.snapshot.interval:10m}") final Duration snapshotInterval,
+        @Value("${notifier.phase-placement:IMMEDIATE}") final PhasePlacement placement,
+        final DeadLetterRing deadLetters,
+        @Value("${notifier.retry.max-retries:3}") final int maxRetries,
+        @Value("${notifier.retry.base-delay:1s}") final Duration baseRetryDelay,
+        @Value("${notifier.retry.max-delay:30s}") final Duration maxRetryDelay,
+        @Value("${notifier.retry.max-pending:10000}") final int maxPendingRetries
+    ) {
+        val retryPolicy = new RetryPolicy(maxRetries, baseRetryDelay.toMillis(), maxRetryDelay.toMillis());
+        val pendingRetries = new Semaphore(maxPendingRetries);
+        Gauge
+            .builder("notifier.retry.pending", pendingRetries, p -> maxPendingRetries - p.availablePermits())
+            .description("Failed notifications waiting to be retried")
+            .register(meterRegistry);
+        val journals = new ShardJournals(walDirectory, inboxes.count(), snapshotInterval, clock);
+        val shardNumber = new AtomicInteger();
+        val threadPerShardExecution = Executors.newFixedThreadPool(
+            inboxes.count(),
+            actor -> new Thread(actor, "notifier-shard-" + shardNumber.getAndIncrement())
+        );
+        for (int shard = 0; shard < inboxes.count(); shard++) {
+            val retries = new PendingRetries(
+                retryPolicy,
+                pendingRetries,
+                deadLetters,
+                new TimingWheel(Timestamp.current(clock)),
+                clock
+            );
+            val notifier = new ScheduleBackedNotifier(
+                dispatcher,
+                new TimingWheel(Timestamp.current(clock)),
+                PhaseOccupancy.of(placement),
+                retries
+            );
+            val journal = journals.recover(shard, notifier, meterRegistry);
+            notifier.forEachSubscriptionUri(subscriptionsPipe::recovered);
+            threadPerShardExecution.submit(
+                new NotifierActor(
+                    inboxes.ofShard(shard),
+                    notifier,
+                    new TickDriver(meterRegistry, shard, clock),
+                    journal
+                )
+            );
+        }
+        return threadPerShardExecution;
     }
 }
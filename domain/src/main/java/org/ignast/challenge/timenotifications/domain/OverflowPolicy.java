@@ -0,0 +1,10 @@
+package org.ignast.challenge.timenotifications.domain;
+
+public enum OverflowPolicy {
+    BLOCK,
+    FAIL_FAST,
+    /**
+     * Never rejects, at the cost of the memory bound.
+     */
+    SPILL,
+}
@@ -0,0 +1,99 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import lombok.val;
+
+/**
+ * Spreads notifications due within a second evenly over a window from the start of their tick. No
+ * notification is held past the end of the window of its tick.
+ */
+class Pacer {
+
+    /**
+     * Sends every notification as soon as a dispatcher gets to it.
+     */
+    static final Pacer NONE = new Pacer() {
+        @Override
+        void expect(final long tickInMillis, final int notifications) {}
+
+        @Override
+        void await(final long tickInMillis) {}
+    };
+
+    private static final long SHORTEST_WAIT_NANOS = 100_000;
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final long windowNanos;
+
+    private final Clock clock;
+
+    private long dueSecond = Long.MIN_VALUE;
+    private long dueThisSecond;
+    private long dueLastSecond;
+    private long releasedSecond = Long.MIN_VALUE;
+    private long releasedThisSecond;
+    private long secondStartNanos;
+
+    private Pacer() {
+        this.windowNanos = 0;
+        this.clock = null;
+    }
+
+    Pacer(final Duration window, final Clock clock) {
+        if (window.isNegative() || window.isZero() || window.toMillis() > MILLIS_PER_SECOND) {
+            throw new IllegalArgumentException("pacing window must be longer than zero and at most a second");
+        }
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+    }
+
+    synchronized void expect(final long tickInMillis, final int notifications) {
+        val second = Math.floorDiv(tickInMillis, MILLIS_PER_SECOND);
+        if (second > dueSecond) {
+            dueLastSecond = second == dueSecond + 1 ? dueThisSecond : 0;
+            dueThisSecond = 0;
+            dueSecond = second;
+        }
+        if (second == dueSecond) {
+            dueThisSecond += notifications;
+        }
+    }
+
+    void await(final long tickInMillis) {
+        val nowNanos = System.nanoTime();
+        val releaseAtNanos = releaseAtNanos(tickInMillis, nowNanos, clock.millis());
+        for (
+            var waitNanos = releaseAtNanos - nowNanos;
+            waitNanos >= SHORTEST_WAIT_NANOS && !Thread.currentThread().isInterrupted();
+            waitNanos = releaseAtNanos - System.nanoTime()
+        ) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    /**
+     * Retries of a second already superseded are neither paced nor take a token of the current second.
+     *
+     * @return moment the notification is to be sent at, on the scale of {@link System#nanoTime()}
+     */
+    synchronized long releaseAtNanos(final long tickInMillis, final long nowNanos, final long nowMillis) {
+        val tickStartNanos = nowNanos - (nowMillis - tickInMillis) * NANOS_PER_MILLI;
+        val second = Math.floorDiv(tickInMillis, MILLIS_PER_SECOND);
+        if (second < releasedSecond) {
+            return nowNanos;
+        }
+        if (second > releasedSecond) {
+            releasedSecond = second;
+            releasedThisSecond = 0;
+            secondStartNanos = tickStartNanos;
+        }
+        val intervalNanos = windowNanos / Math.max(1, Math.max(dueThisSecond, dueLastSecond));
+        val releaseAt = Math.max(secondStartNanos + releasedThisSecond++ * intervalNanos, tickStartNanos);
+        return Math.min(releaseAt, tickStartNanos + windowNanos);
+    }
+}
@@ -0,0 +1,160 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.ToLongFunction;
+import lombok.val;
+
+/**
+ * Retries indexed by when they are due, in slots reused once handed over. Those given up on become dead letters.
+ */
+final class PendingRetries implements Retries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final RetryPolicy policy;
+
+    private final Semaphore pending;
+
+    private final DeadLetterRing deadLetters;
+
+    private final SchedulerIndex index;
+
+    private final Clock clock;
+
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    private final SchedulerIndex.Occurrences handOverDue = this::handOverDue;
+
+    private URI[] uris = new URI[INITIAL_CAPACITY];
+
+    private long[] scheduledAt = new long[INITIAL_CAPACITY];
+
+    private int[] attempts = new int[INITIAL_CAPACITY];
+
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+
+    private int freeIdCount;
+
+    private int issuedIdCount;
+
+    private Due due;
+
+    /**
+     * @param pending permits for retries waiting, shared by every shard
+     */
+    PendingRetries(
+        final RetryPolicy policy,
+        final Semaphore pending,
+        final DeadLetterRing deadLetters,
+        final SchedulerIndex index,
+        final Clock clock
+    ) {
+        this.policy = policy;
+        this.pending = pending;
+        this.deadLetters = deadLetters;
+        this.index = index;
+        this.clock = clock;
+    }
+
+    @Override
+    public void failed(
+        final URI uri,
+        final long scheduledAtMillis,
+        final int attempts,
+        final DeliveryResult result
+    ) {
+        if (!policy.allowsRetryAfter(attempts)) {
+            giveUp(new Failure(uri, scheduledAtMillis, attempts, result), DeadLetter.Reason.EXHAUSTED);
+        } else if (!pending.tryAcquire()) {
+            giveUp(new Failure(uri, scheduledAtMillis, attempts, result), DeadLetter.Reason.OVER_CAP);
+        } else {
+            failures.add(new Failure(uri, scheduledAtMillis, attempts, result));
+        }
+    }
+
+    @Override
+    public void schedule(final long tickInMillis, final ToLongFunction<URI> nextOccurrenceOf) {
+        for (var failure = failures.poll(); failure != null; failure = failures.poll()) {
+            val nextOccurrence = nextOccurrenceOf.applyAsLong(failure.uri());
+            val retryAt = tickInMillis + policy.delayInMillis(failure.attempts());
+            if (nextOccurrence == UNSUBSCRIBED) {
+                pending.release();
+            } else if (retryAt >= nextOccurrence) {
+                pending.release();
+                giveUp(failure, DeadLetter.Reason.SUPERSEDED);
+            } else {
+                val id = allocate();
+                uris[id] = failure.uri();
+                scheduledAt[id] = failure.scheduledAtMillis();
+                attempts[id] = failure.attempts();
+                index.add(id, retryAt);
+            }
+        }
+    }
+
+    @Override
+    public void drainUpTo(final long tickInMillis, final Due consumer) {
+        due = consumer;
+        index.drainUpTo(tickInMillis, handOverDue);
+        due = null;
+    }
+
+    @Override
+    public long nextTickAfter(final long tickInMillis) {
+        return index.nextTickAfter(tickInMillis);
+    }
+
+    @Override
+    public int waiting() {
+        return issuedIdCount - freeIdCount;
+    }
+
+    private void handOverDue(final int id, final long retryAtMillis) {
+        val uri = uris[id];
+        val scheduledAtMillis = scheduledAt[id];
+        val attempt = attempts[id] + 1;
+        uris[id] = null;
+        free(id);
+        pending.release();
+        due.accept(uri, scheduledAtMillis, attempt);
+    }
+
+    private void giveUp(final Failure failure, final DeadLetter.Reason reason) {
+        deadLetters.add(
+            new DeadLetter(
+                failure.uri(),
+                failure.scheduledAtMillis(),
+                failure.attempts(),
+                failure.result().outcome(),
+                failure.result().httpStatus(),
+                reason,
+                clock.millis()
+            )
+        );
+    }
+
+    private int allocate() {
+        if (freeIdCount > 0) {
+            return freeIds[--freeIdCount];
+        }
+        if (issuedIdCount == uris.length) {
+            val capacity = uris.length * 2;
+            uris = Arrays.copyOf(uris, capacity);
+            scheduledAt = Arrays.copyOf(scheduledAt, capacity);
+            attempts = Arrays.copyOf(attempts, capacity);
+            freeIds = Arrays.copyOf(freeIds, capacity);
+        }
+        return issuedIdCount++;
+    }
+
+    private void free(final int id) {
+        freeIds[freeIdCount++] = id;
+    }
+
+    private record Failure(URI uri, long scheduledAtMillis, int attempts, DeliveryResult result) {}
+}
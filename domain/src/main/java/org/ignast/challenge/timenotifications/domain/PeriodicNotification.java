@@ -1,5 +1,18 @@
 package org.ignast.challenge.timenotifications.domain;
 
 import java.net.URI;
+import java.time.Duration;
 
-public record PeriodicNotification(URI subscriptionUri, int frequencyInSeconds) {}
+/**
+ * @param startNow whether the subscription is to be first notified at the tick it is applied at, whatever
+ * the {@link PhasePlacement} of the notifier
+ */
+public record PeriodicNotification(URI subscriptionUri, Duration frequency, boolean startNow) {
+    public PeriodicNotification(final URI subscriptionUri, final Duration frequency) {
+        this(subscriptionUri, frequency, false);
+    }
+
+    public PeriodicNotification(final URI subscriptionUri, final int frequencyInSeconds) {
+        this(subscriptionUri, Duration.ofSeconds(frequencyInSeconds));
+    }
+}
@@ -0,0 +1,144 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.val;
+
+/**
+ * Counts subscriptions by phase within their period, so that a new one can be placed at the least occupied
+ * phase. Not thread safe.
+ */
+class PhaseOccupancy {
+
+    /**
+     * Places every subscription at the tick it is applied at.
+     */
+    static final PhaseOccupancy IMMEDIATE = new PhaseOccupancy() {
+        @Override
+        long firstOccurrence(final long frequencyInMillis, final long nowInMillis) {
+            return nowInMillis;
+        }
+
+        @Override
+        void occupy(final long frequencyInMillis, final long occurrenceInMillis) {}
+
+        @Override
+        void vacate(final long frequencyInMillis, final long occurrenceInMillis) {}
+    };
+
+    static final int MAX_BUCKETS = 4096;
+
+    /**
+     * Subscriptions of periods beyond that many distinct ones are placed at the tick they are applied at.
+     */
+    static final int MAX_PERIODS = 1024;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final Map<Long, Buckets> bucketsByPeriod = new HashMap<>();
+
+    static PhaseOccupancy of(final PhasePlacement placement) {
+        return placement == PhasePlacement.BALANCED ? new PhaseOccupancy() : IMMEDIATE;
+    }
+
+    long firstOccurrence(final long frequencyInMillis, final long nowInMillis) {
+        val buckets = bucketsOf(frequencyInMillis);
+        if (buckets == null) {
+            return nowInMillis;
+        }
+        val phase = buckets.phaseOf(buckets.leastOccupied());
+        return nowInMillis + Math.floorMod(phase - nowInMillis, frequencyInMillis);
+    }
+
+    void occupy(final long frequencyInMillis, final long occurrenceInMillis) {
+        val buckets = bucketsOf(frequencyInMillis);
+        if (buckets != null) {
+            buckets.occupy(buckets.bucketOf(occurrenceInMillis));
+        }
+    }
+
+    void vacate(final long frequencyInMillis, final long occurrenceInMillis) {
+        val buckets = bucketsByPeriod.get(frequencyInMillis);
+        if (buckets == null) {
+            return;
+        }
+        buckets.vacate(buckets.bucketOf(occurrenceInMillis));
+        if (buckets.total == 0) {
+            bucketsByPeriod.remove(frequencyInMillis);
+        }
+    }
+
+    int occupancyAt(final long frequencyInMillis, final long occurrenceInMillis) {
+        val buckets = bucketsByPeriod.get(frequencyInMillis);
+        return buckets == null ? 0 : buckets.counts[buckets.bucketOf(occurrenceInMillis)];
+    }
+
+    private Buckets bucketsOf(final long frequencyInMillis) {
+        val buckets = bucketsByPeriod.get(frequencyInMillis);
+        if (buckets != null || bucketsByPeriod.size() == MAX_PERIODS) {
+            return buckets;
+        }
+        val added = new Buckets(frequencyInMillis);
+        bucketsByPeriod.put(frequencyInMillis, added);
+        return added;
+    }
+
+    /**
+     * Sweeps forward from the previous pick, only going round again once every bucket has reached the lowest
+     * count seen, so that filling the buckets up takes constant time per subscription.
+     */
+    private static final class Buckets {
+
+        private final long frequencyInMillis;
+        private final long millisPerPhase;
+        private final long phases;
+        private final int[] counts;
+        private int lowestCount;
+        private int cursor;
+        private long total;
+
+        private Buckets(final long frequencyInMillis) {
+            this.frequencyInMillis = frequencyInMillis;
+            this.millisPerPhase = frequencyInMillis % MILLIS_PER_SECOND == 0 ? MILLIS_PER_SECOND : 1;
+            this.phases = frequencyInMillis / millisPerPhase;
+            this.counts = new int[(int) Math.min(phases, MAX_BUCKETS)];
+        }
+
+        private int leastOccupied() {
+            while (true) {
+                for (int visited = 0; visited < counts.length; visited++) {
+                    val bucket = cursor;
+                    cursor = (cursor + 1) % counts.length;
+                    if (counts[bucket] <= lowestCount) {
+                        return bucket;
+                    }
+                }
+                lowestCount++;
+            }
+        }
+
+        private void occupy(final int bucket) {
+            counts[bucket]++;
+            total++;
+        }
+
+        private void vacate(final int bucket) {
+            counts[bucket]--;
+            total--;
+            if (counts[bucket] < lowestCount) {
+                lowestCount = counts[bucket];
+                cursor = bucket;
+            }
+        }
+
+        private long phaseOf(final int bucket) {
+            val firstPhase = (bucket * phases + counts.length - 1) / counts.length;
+            return firstPhase * millisPerPhase;
+        }
+
+        private int bucketOf(final long occurrenceInMillis) {
+            val phase = Math.floorMod(occurrenceInMillis, frequencyInMillis) / millisPerPhase;
+            return (int) (phase * counts.length / phases);
+        }
+    }
+}
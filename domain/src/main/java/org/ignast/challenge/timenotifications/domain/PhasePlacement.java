@@ -0,0 +1,9 @@
+package org.ignast.challenge.timenotifications.domain;
+
+public enum PhasePlacement {
+    IMMEDIATE,
+    /**
+     * At the least occupied phase of the same period, within one period from the tick it is applied at.
+     */
+    BALANCED,
+}
@@ -0,0 +1,5 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+
+record RemoveSubscription(URI uri) implements AlterSubscriptions {}
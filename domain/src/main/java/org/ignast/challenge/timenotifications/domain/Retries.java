@@ -0,0 +1,75 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.function.ToLongFunction;
+
+/**
+ * Failed notifications of a shard waiting to be retried, no later than the next occurrence of their
+ * subscription. Failures are handed over from any thread and indexed by the notifier thread at its next tick.
+ */
+interface Retries {
+    /**
+     * Next occurrence of a subscription that is no longer there.
+     */
+    long UNSUBSCRIBED = Long.MIN_VALUE;
+
+    /**
+     * Leaves notifications that failed as they are.
+     */
+    Retries NONE = new Retries() {
+        @Override
+        public void failed(
+            final URI uri,
+            final long scheduledAtMillis,
+            final int attempts,
+            final DeliveryResult result
+        ) {}
+
+        @Override
+        public void schedule(final long tickInMillis, final ToLongFunction<URI> nextOccurrenceOf) {}
+
+        @Override
+        public void drainUpTo(final long tickInMillis, final Due consumer) {}
+
+        @Override
+        public long nextTickAfter(final long tickInMillis) {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int waiting() {
+            return 0;
+        }
+    };
+
+    /**
+     * Hands over a notification that failed, from any thread.
+     *
+     * @param attempts times the notification was sent so far
+     */
+    void failed(final URI uri, final long scheduledAtMillis, final int attempts, final DeliveryResult result);
+
+    /**
+     * Only to be called from the notifier thread.
+     *
+     * @param nextOccurrenceOf next occurrence of the subscription with the given uri, or {@link #UNSUBSCRIBED}
+     */
+    void schedule(final long tickInMillis, final ToLongFunction<URI> nextOccurrenceOf);
+
+    /**
+     * Only to be called from the notifier thread.
+     */
+    void drainUpTo(final long tickInMillis, final Due consumer);
+
+    long nextTickAfter(final long tickInMillis);
+
+    int waiting();
+
+    @FunctionalInterface
+    interface Due {
+        /**
+         * @param attempt which attempt at sending the notification this is
+         */
+        void accept(final URI uri, final long scheduledAtMillis, final int attempt);
+    }
+}
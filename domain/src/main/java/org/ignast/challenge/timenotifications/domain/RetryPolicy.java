@@ -0,0 +1,46 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.val;
+
+/**
+ * Exponential backoff with a random half taken off, so that notifications failing together are not retried
+ * in lockstep.
+ */
+final class RetryPolicy {
+
+    private final int maxRetries;
+
+    private final long baseDelayInMillis;
+
+    private final long maxDelayInMillis;
+
+    RetryPolicy(final int maxRetries, final long baseDelayInMillis, final long maxDelayInMillis) {
+        if (maxRetries < 0 || baseDelayInMillis < 1 || maxDelayInMillis < baseDelayInMillis) {
+            throw new IllegalArgumentException(
+                "retry delays must be positive with the base one within the max"
+            );
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayInMillis = baseDelayInMillis;
+        this.maxDelayInMillis = maxDelayInMillis;
+    }
+
+    /**
+     * @param attempts times the notification was sent so far
+     */
+    boolean allowsRetryAfter(final int attempts) {
+        return attempts <= maxRetries;
+    }
+
+    /**
+     * @return delay before the next attempt, at least half of the backoff for that many attempts
+     */
+    long delayInMillis(final int attempts) {
+        var backoff = baseDelayInMillis;
+        for (int attempt = 1; attempt < attempts && backoff < maxDelayInMillis; attempt++) {
+            backoff = backoff > maxDelayInMillis / 2 ? maxDelayInMillis : backoff * 2;
+        }
+        return Math.max(1, backoff - ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+    }
+}
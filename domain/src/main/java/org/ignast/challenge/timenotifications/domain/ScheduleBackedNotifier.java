@@ -1,93 +1,241 @@
 package org.ignast.challenge.timenotifications.domain;
 
 import java.net.URI;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 import lombok.val;
 import org.springframework.stereotype.Service;
 
-@Service
 public class ScheduleBackedNotifier {
 
-    private final Map<URI, SubsequentOccurrences> schedule = new HashMap<>();
-    private final UrisIndexedByTimestamp nextOccurrenceOfEachNotification = new UrisIndexedByTimestamp();
-    private final TimestampTransformingNotificationSender notificationSender;
+    static final long COLD_FREQUENCY_IN_MILLIS = 10 * 60 * 1000;
+
+    static final long WARM_UP_AHEAD_IN_MILLIS = 5 * 1000;
+
+    private final ScheduleTable schedule = new ScheduleTable();
+    private final SchedulerIndex nextOccurrenceOfEachNotification;
+    private final NotificationDispatch dispatch;
+    private final PhaseOccupancy occupancy;
+    private final Retries retries;
+    private final SchedulerIndex.Occurrences notifyAndRoll = this::notifyAndRoll;
+    private final Retries.Due retry = this::retry;
+    private final ToLongFunction<URI> nextOccurrenceOf = this::nextOccurrenceOf;
+    private DueNotifications due;
+    private DueNotifications retried;
+    private long currentTickInMillis;
 
     ScheduleBackedNotifier(final TimestampTransformingNotificationSender notificationSender) {
-        this.notificationSender = notificationSender;
+        this(
+            NotificationDispatch.inline(notificationSender),
+            new TimingWheel(),
+            PhaseOccupancy.IMMEDIATE,
+            Retries.NONE
+        );
+    }
+
+    ScheduleBackedNotifier(
+        final NotificationDispatch dispatch,
+        final SchedulerIndex nextOccurrenceOfEachNotification,
+        final PhaseOccupancy occupancy,
+        final Retries retries
+    ) {
+        this.dispatch = dispatch;
+        this.nextOccurrenceOfEachNotification = nextOccurrenceOfEachNotification;
+        this.occupancy = occupancy;
+        this.retries = retries;
     }
 
-    void subscribe(final PeriodicNotification notification, final Timestamp currentTimestamp) {
-        schedule.put(
-            notification.subscriptionUri(),
-            new SubsequentOccurrences(currentTimestamp, notification.frequencyInSeconds())
+    /**
+     * @return the moment the subscription is first notified at, which anchors the phase of its occurrences
+     */
+    long subscribe(final PeriodicNotification notification, final Timestamp currentTimestamp) {
+        unsubscribe(notification.subscriptionUri());
+        val now = currentTimestamp.getValueInMillis();
+        val frequency = notification.frequency().toMillis();
+        val occurrence = notification.startNow() ? now : occupancy.firstOccurrence(frequency, now);
+        val id = schedule.add(notification.subscriptionUri(), frequency, occurrence);
+        occupancy.occupy(frequency, occurrence);
+        scheduleNext(id, occurrence, now);
+        return occurrence;
+    }
+
+    /**
+     * Resumes a subscription in phase with its earlier occurrences instead of notifying it right away.
+     */
+    void restore(
+        final PeriodicNotification notification,
+        final long firstOccurrenceInMillis,
+        final Timestamp currentTimestamp
+    ) {
+        unsubscribe(notification.subscriptionUri());
+        val frequency = notification.frequency().toMillis();
+        val now = currentTimestamp.getValueInMillis();
+        val elapsedPeriods = Math.max(
+            0,
+            Math.floorDiv(now - firstOccurrenceInMillis + frequency - 1, frequency)
         );
-        nextOccurrenceOfEachNotification
-            .getScheduledNotificationsAt(currentTimestamp)
-            .add(notification.subscriptionUri());
+        val occurrence = firstOccurrenceInMillis + elapsedPeriods * frequency;
+        val id = schedule.add(notification.subscriptionUri(), frequency, occurrence);
+        occupancy.occupy(frequency, occurrence);
+        scheduleNext(id, occurrence, now);
+    }
+
+    void forEachSubscriptionUri(final Consumer<URI> consumer) {
+        schedule.forEachUri(consumer);
+    }
+
+    /**
+     * @return id to carry on from, or {@link ScheduleTable#ABSENT} once the walk is complete
+     */
+    int walkSchedule(final int fromId, final int maxSubscriptions, final ScheduleTable.Entries consumer) {
+        return schedule.forEachFrom(fromId, maxSubscriptions, consumer);
     }
 
     void unsubscribe(final URI uri) {
-        val scheduledAt = schedule.get(uri).nextOccurrence();
-        nextOccurrenceOfEachNotification.getScheduledNotificationsAt(scheduledAt).remove(uri);
-        schedule.remove(uri);
+        val id = schedule.idOf(uri);
+        if (id != ScheduleTable.ABSENT) {
+            occupancy.vacate(schedule.frequencyInMillis(id), schedule.nextOccurrenceInMillis(id));
+            nextOccurrenceOfEachNotification.remove(id);
+            schedule.remove(id);
+        }
     }
 
-    void notify(final Timestamp currentTimestamp) {
-        sendNotifications(currentTimestamp);
-        rollNotificationsToNextOccurrences(currentTimestamp);
+    void notify(final long tickInMillis) {
+        currentTickInMillis = tickInMillis;
+        retries.schedule(tickInMillis, nextOccurrenceOf);
+        retries.drainUpTo(tickInMillis, retry);
+        if (retried != null) {
+            dispatch.dispatch(retried);
+            retried = null;
+        }
+        nextOccurrenceOfEachNotification.drainUpTo(tickInMillis, notifyAndRoll);
+        if (due != null) {
+            dispatch.dispatch(due);
+            due = null;
+        }
     }
 
-    private void sendNotifications(final Timestamp currentTimestamp) {
-        val notificationsToSendNow = nextOccurrenceOfEachNotification.getScheduledNotificationsAt(
-            currentTimestamp
+    long nextTickAfter(final long tickInMillis) {
+        return Math.min(
+            nextOccurrenceOfEachNotification.nextTickAfter(tickInMillis),
+            retries.nextTickAfter(tickInMillis)
         );
-        notificationsToSendNow.stream().forEach(c -> sendNotification(c, currentTimestamp));
     }
 
-    private void sendNotification(final URI location, final Timestamp timestamp) {
-        notificationSender.send(location, timestamp);
+    /**
+     * Retries are drained before the regular notifications of the tick, so that a retry superseded by an
+     * occurrence at the same tick is dropped rather than sent twice.
+     */
+    private void retry(final URI uri, final long scheduledAtMillis, final int attempt) {
+        if (nextOccurrenceOf(uri) <= currentTickInMillis) {
+            return;
+        }
+        if (
+            retried != null && (retried.tickInMillis() != scheduledAtMillis || retried.attempt() != attempt)
+        ) {
+            dispatch.dispatch(retried);
+            retried = null;
+        }
+        if (retried == null) {
+            retried =
+                dispatch.batchFor(scheduledAtMillis).retriedBy(retries, attempt).dueAt(currentTickInMillis);
+        }
+        if (retried.add(uri)) {
+            dispatch.dispatch(retried);
+            retried = null;
+        }
+    }
+
+    private long nextOccurrenceOf(final URI uri) {
+        val id = schedule.idOf(uri);
+        return id == ScheduleTable.ABSENT ? Retries.UNSUBSCRIBED : schedule.nextOccurrenceInMillis(id);
     }
 
-    private void rollNotificationsToNextOccurrences(final Timestamp baseTimestamp) {
-        val notificationsToRoll = nextOccurrenceOfEachNotification.getScheduledNotificationsAt(baseTimestamp);
-        Iterator<URI> iter = notificationsToRoll.iterator();
-        while (iter.hasNext()) {
-            val uri = iter.next();
-            iter.remove();
-            val nextOccurrence = baseTimestamp.plusSeconds(schedule.get(uri).frequencyInSeconds());
-            scheduleNextOccurrence(uri, nextOccurrence);
+    /**
+     * A cooled down subscription comes due {@link #WARM_UP_AHEAD_IN_MILLIS} ahead of its occurrence.
+     */
+    private void notifyAndRoll(final int id, final long dueInMillis) {
+        val tick = currentTickInMillis;
+        var occurrence = dueInMillis;
+        if (schedule.isCold(id)) {
+            schedule.warmUp(id);
+            occurrence = schedule.nextOccurrenceInMillis(id);
+            if (occurrence > tick) {
+                nextOccurrenceOfEachNotification.add(id, occurrence);
+                return;
+            }
         }
+        if (occurrence == tick) {
+            sendNotification(schedule.uri(id), tick);
+        }
+        val frequency = schedule.frequencyInMillis(id);
+        val nextOccurrence = occurrence + ((tick - occurrence) / frequency + 1) * frequency;
+        scheduleNext(id, nextOccurrence, tick);
     }
 
-    private void scheduleNextOccurrence(final URI uri, final Timestamp nextOccurrence) {
-        nextOccurrenceOfEachNotification.getScheduledNotificationsAt(nextOccurrence).add(uri);
-        schedule.computeIfPresent(uri, (k, v) -> v.rollToNextOccurrence());
+    private void scheduleNext(final int id, final long nextOccurrenceInMillis, final long nowInMillis) {
+        schedule.setNextOccurrenceInMillis(id, nextOccurrenceInMillis);
+        val staysCold =
+            schedule.frequencyInMillis(id) >= COLD_FREQUENCY_IN_MILLIS &&
+            nextOccurrenceInMillis - nowInMillis > WARM_UP_AHEAD_IN_MILLIS;
+        if (staysCold) {
+            schedule.coolDown(id);
+            nextOccurrenceOfEachNotification.add(id, nextOccurrenceInMillis - WARM_UP_AHEAD_IN_MILLIS);
+        } else {
+            nextOccurrenceOfEachNotification.add(id, nextOccurrenceInMillis);
+        }
     }
 
-    private record SubsequentOccurrences(Timestamp nextOccurrence, int frequencyInSeconds) {
-        SubsequentOccurrences rollToNextOccurrence() {
-            return new SubsequentOccurrences(
-                nextOccurrence().plusSeconds(frequencyInSeconds),
-                frequencyInSeconds
-            );
+    int coldSubscriptionCount() {
+        return schedule.coldSize();
+    }
+
+    private void sendNotification(final URI location, final long tickInMillis) {
+        if (due == null) {
+            due = dispatch.batchFor(tickInMillis).retriedBy(retries, 1);
+        }
+        if (due.add(location)) {
+            dispatch.dispatch(due);
+            due = null;
         }
     }
 
     @Service
-    record TimestampTransformingNotificationSender(NotificationSender notificationSender) {
-        void send(final URI uri, final Timestamp timestamp) {
-            notificationSender.send(uri, toUtcTime(timestamp));
+    static final class TimestampTransformingNotificationSender {
+
+        private final NotificationSender notificationSender;
+
+        private volatile NotificationPayload lastRendered;
+
+        TimestampTransformingNotificationSender(final NotificationSender notificationSender) {
+            this.notificationSender = notificationSender;
+        }
+
+        void send(final URI uri, final long epochMillis) {
+            notificationSender.send(uri, payloadAt(epochMillis));
+        }
+
+        CompletionStage<DeliveryResult> deliver(final URI uri, final long epochMillis) {
+            return deliver(uri, epochMillis, NotificationSender.NO_DEADLINE);
+        }
+
+        CompletionStage<DeliveryResult> deliver(
+            final URI uri,
+            final long epochMillis,
+            final long deadlineInMillis
+        ) {
+            return notificationSender.deliver(uri, payloadAt(epochMillis), deadlineInMillis);
         }
 
-        private ZonedDateTime toUtcTime(final Timestamp timestamp) {
-            long millis = timestamp.getValueInSeconds() * 1000l;
-            ZonedDateTime utcTime = Instant.ofEpochMilli(millis).atZone(ZoneId.of("UTC"));
-            return utcTime;
+        private NotificationPayload payloadAt(final long millis) {
+            val last = lastRendered;
+            if (last != null && last.epochMillis() == millis) {
+                return last;
+            }
+            val rendered = NotificationPayload.inUtcAt(millis);
+            lastRendered = rendered;
+            return rendered;
         }
     }
 }
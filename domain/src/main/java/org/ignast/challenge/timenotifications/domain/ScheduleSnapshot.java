@@ -0,0 +1,119 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.val;
+
+/**
+ * Binary image of the schedule of a shard: a header with the start moment, then varint encoded uri,
+ * frequency and next occurrence relative to it per subscription. An empty uri ends the snapshot.
+ */
+final class ScheduleSnapshot {
+
+    private static final int MAGIC = 0x544e5331;
+
+    private ScheduleSnapshot() {}
+
+    static void read(final Path file, final MappedJournal.Entries entries) {
+        try (val in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException(file + " is not a schedule snapshot");
+            }
+            val startedAt = in.readLong();
+            for (var uriLength = (int) readVarLong(in); uriLength != 0; uriLength = (int) readVarLong(in)) {
+                val uri = URI.create(new String(in.readNBytes(uriLength), StandardCharsets.UTF_8));
+                val frequencyInMillis = readVarLong(in);
+                val nextOccurrenceInMillis = startedAt + decodeZigZag(readVarLong(in));
+                entries.added(
+                    new PeriodicNotification(uri, Duration.ofMillis(frequencyInMillis)),
+                    nextOccurrenceInMillis
+                );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read snapshot " + file, e);
+        }
+    }
+
+    static final class Encoder implements ScheduleTable.Entries {
+
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(64 * 1024);
+        private final long startedAtInMillis;
+
+        Encoder(final Timestamp startedAt) {
+            this.startedAtInMillis = startedAt.getValueInMillis();
+            writeInt(MAGIC);
+            writeLong(startedAtInMillis);
+        }
+
+        @Override
+        public void accept(final URI uri, final long frequencyInMillis, final long nextOccurrenceInMillis) {
+            val uriBytes = uri.toString().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(uriBytes.length);
+            chunk.writeBytes(uriBytes);
+            writeVarLong(frequencyInMillis);
+            writeVarLong(encodeZigZag(nextOccurrenceInMillis - startedAtInMillis));
+        }
+
+        void end() {
+            writeVarLong(0);
+        }
+
+        byte[] takeChunk() {
+            val bytes = chunk.toByteArray();
+            chunk.reset();
+            return bytes;
+        }
+
+        private void writeInt(final int value) {
+            for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                chunk.write(value >>> shift);
+            }
+        }
+
+        private void writeLong(final long value) {
+            for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                chunk.write((int) (value >>> shift));
+            }
+        }
+
+        private void writeVarLong(final long value) {
+            var remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                chunk.write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            chunk.write((int) remaining);
+        }
+    }
+
+    private static long readVarLong(final InputStream in) throws IOException {
+        var value = 0L;
+        for (int shift = 0;; shift += 7) {
+            val next = in.read();
+            if (next < 0) {
+                throw new IOException("snapshot ends abruptly");
+            }
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long encodeZigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long decodeZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,232 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import lombok.val;
+
+/**
+ * Schedule of each subscription in parallel arrays indexed by a recycled dense id, looked up by uri through
+ * an open addressing table.
+ */
+final class ScheduleTable {
+
+    static final int ABSENT = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMPTY = -1;
+
+    private final UriArena coldUris = new UriArena();
+
+    private URI[] uris = new URI[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] coldHandles = new long[INITIAL_CAPACITY];
+    private long[] frequenciesInMillis = new long[INITIAL_CAPACITY];
+    private long[] nextOccurrencesInMillis = new long[INITIAL_CAPACITY];
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeIdCount;
+    private int issuedIdCount;
+
+    private int[] idsByUriHash = emptyHashTable(INITIAL_CAPACITY * 2);
+    private int size;
+    private int coldSize;
+
+    int add(final URI uri, final long frequencyInMillis, final long nextOccurrenceInMillis) {
+        val id = issueId();
+        uris[id] = uri;
+        hashes[id] = hash(uri);
+        coldHandles[id] = UriArena.NONE;
+        frequenciesInMillis[id] = frequencyInMillis;
+        nextOccurrencesInMillis[id] = nextOccurrenceInMillis;
+        insertIntoHashTable(id);
+        size++;
+        return id;
+    }
+
+    int idOf(final URI uri) {
+        val hash = hash(uri);
+        val mask = idsByUriHash.length - 1;
+        byte[] encoded = null;
+        for (int i = hash & mask; idsByUriHash[i] != EMPTY; i = (i + 1) & mask) {
+            val id = idsByUriHash[i];
+            if (hashes[id] != hash) {
+                continue;
+            }
+            if (uris[id] != null) {
+                if (uris[id].equals(uri)) {
+                    return id;
+                }
+            } else {
+                if (encoded == null) {
+                    encoded = UriArena.encode(uri);
+                }
+                if (coldUris.holds(coldHandles[id], encoded, uri)) {
+                    return id;
+                }
+            }
+        }
+        return ABSENT;
+    }
+
+    void remove(final int id) {
+        removeFromHashTable(id);
+        if (isCold(id)) {
+            coldUris.free(coldHandles[id]);
+            coldHandles[id] = UriArena.NONE;
+            coldSize--;
+        }
+        uris[id] = null;
+        freeIds[freeIdCount++] = id;
+        size--;
+    }
+
+    URI uri(final int id) {
+        return isCold(id) ? coldUris.load(coldHandles[id]) : uris[id];
+    }
+
+    boolean isCold(final int id) {
+        return coldHandles[id] != UriArena.NONE;
+    }
+
+    void coolDown(final int id) {
+        if (!isCold(id)) {
+            coldHandles[id] = coldUris.store(uris[id]);
+            uris[id] = null;
+            coldSize++;
+        }
+    }
+
+    void warmUp(final int id) {
+        if (isCold(id)) {
+            uris[id] = coldUris.load(coldHandles[id]);
+            coldUris.free(coldHandles[id]);
+            coldHandles[id] = UriArena.NONE;
+            coldSize--;
+        }
+    }
+
+    long frequencyInMillis(final int id) {
+        return frequenciesInMillis[id];
+    }
+
+    long nextOccurrenceInMillis(final int id) {
+        return nextOccurrencesInMillis[id];
+    }
+
+    void setNextOccurrenceInMillis(final int id, final long nextOccurrenceInMillis) {
+        nextOccurrencesInMillis[id] = nextOccurrenceInMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int coldSize() {
+        return coldSize;
+    }
+
+    void forEachUri(final Consumer<URI> consumer) {
+        for (int id = 0; id < issuedIdCount; id++) {
+            if (isPresent(id)) {
+                consumer.accept(uri(id));
+            }
+        }
+    }
+
+    /**
+     * @return id to carry on visiting from, or {@link #ABSENT} once every subscription has been visited
+     */
+    int forEachFrom(final int fromId, final int maxSubscriptions, final Entries consumer) {
+        var visited = 0;
+        for (int id = fromId; id < issuedIdCount; id++) {
+            if (visited == maxSubscriptions) {
+                return id;
+            }
+            if (isPresent(id)) {
+                consumer.accept(uri(id), frequenciesInMillis[id], nextOccurrencesInMillis[id]);
+                visited++;
+            }
+        }
+        return ABSENT;
+    }
+
+    @FunctionalInterface
+    interface Entries {
+        void accept(final URI uri, final long frequencyInMillis, final long nextOccurrenceInMillis);
+    }
+
+    private boolean isPresent(final int id) {
+        return uris[id] != null || isCold(id);
+    }
+
+    private int issueId() {
+        if (freeIdCount > 0) {
+            return freeIds[--freeIdCount];
+        }
+        if (issuedIdCount == uris.length) {
+            val capacity = uris.length * 2;
+            uris = Arrays.copyOf(uris, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            coldHandles = Arrays.copyOf(coldHandles, capacity);
+            frequenciesInMillis = Arrays.copyOf(frequenciesInMillis, capacity);
+            nextOccurrencesInMillis = Arrays.copyOf(nextOccurrencesInMillis, capacity);
+            freeIds = Arrays.copyOf(freeIds, capacity);
+        }
+        return issuedIdCount++;
+    }
+
+    private void insertIntoHashTable(final int id) {
+        if ((size + 1) * 2 > idsByUriHash.length) {
+            rehash(idsByUriHash.length * 2);
+        }
+        val mask = idsByUriHash.length - 1;
+        var i = hashes[id] & mask;
+        while (idsByUriHash[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        idsByUriHash[i] = id;
+    }
+
+    private void removeFromHashTable(final int id) {
+        val mask = idsByUriHash.length - 1;
+        var hole = hashes[id] & mask;
+        while (idsByUriHash[hole] != id) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; idsByUriHash[i] != EMPTY; i = (i + 1) & mask) {
+            val home = hashes[idsByUriHash[i]] & mask;
+            val homeIsOutsideOfGap = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (homeIsOutsideOfGap) {
+                idsByUriHash[hole] = idsByUriHash[i];
+                hole = i;
+            }
+        }
+        idsByUriHash[hole] = EMPTY;
+    }
+
+    private void rehash(final int capacity) {
+        val previous = idsByUriHash;
+        idsByUriHash = emptyHashTable(capacity);
+        for (val id : previous) {
+            if (id != EMPTY) {
+                val mask = capacity - 1;
+                var i = hashes[id] & mask;
+                while (idsByUriHash[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                idsByUriHash[i] = id;
+            }
+        }
+    }
+
+    private static int hash(final URI uri) {
+        val hash = uri.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] emptyHashTable(final int capacity) {
+        val table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
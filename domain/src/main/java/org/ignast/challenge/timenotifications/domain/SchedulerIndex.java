@@ -0,0 +1,23 @@
+package org.ignast.challenge.timenotifications.domain;
+
+interface SchedulerIndex {
+    void add(final int id, final long occurrenceInMillis);
+
+    void remove(final int id);
+
+    /**
+     * Ids scheduled strictly before the tick were skipped past and are passed with their original occurrence.
+     * The consumer may only re-add the id it has been handed.
+     */
+    void drainUpTo(final long tickInMillis, final Occurrences consumer);
+
+    /**
+     * @return never later than the start of the following second
+     */
+    long nextTickAfter(final long tickInMillis);
+
+    @FunctionalInterface
+    interface Occurrences {
+        void accept(final int id, final long occurrenceInMillis);
+    }
+}
@@ -0,0 +1,137 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.val;
+
+/**
+ * Journals of each notifier shard. A directory can only be recovered by the number of shards that wrote it.
+ */
+final class ShardJournals {
+
+    private final Path directory;
+    private final Duration snapshotInterval;
+    private final Clock clock;
+    private final ExecutorService snapshotWriter;
+
+    ShardJournals(final String directory, final int shards, final Duration snapshotInterval) {
+        this(directory, shards, snapshotInterval, Clock.systemUTC());
+    }
+
+    ShardJournals(
+        final String directory,
+        final int shards,
+        final Duration snapshotInterval,
+        final Clock clock
+    ) {
+        this.clock = clock;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotWriter =
+            Executors.newSingleThreadExecutor(writer -> {
+                val thread = new Thread(writer, "notifier-snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        if (this.directory != null) {
+            verifyWrittenBy(shards);
+        }
+    }
+
+    Journal recover(
+        final int shard,
+        final ScheduleBackedNotifier notifier,
+        final MeterRegistry meterRegistry
+    ) {
+        if (directory == null) {
+            return Journal.NONE;
+        }
+        val recovery = Timer
+            .builder("notifier.wal.recovery")
+            .description("Time taken to restore the snapshot and replay the journals of a shard on startup")
+            .tag("shard", String.valueOf(shard))
+            .register(meterRegistry);
+        return recovery.record(() -> restore(shard, notifier));
+    }
+
+    private Journal restore(final int shard, final ScheduleBackedNotifier notifier) {
+        val now = Timestamp.current(clock);
+        val entries = new MappedJournal.Entries() {
+            @Override
+            public void added(final PeriodicNotification notification, final long firstOccurrenceInMillis) {
+                notifier.restore(notification, firstOccurrenceInMillis, now);
+            }
+
+            @Override
+            public void removed(final URI uri) {
+                notifier.unsubscribe(uri);
+            }
+        };
+        val snapshotGeneration = GenerationalJournal.latestSnapshotGeneration(directory, shard);
+        snapshotGeneration.ifPresent(generation ->
+            ScheduleSnapshot.read(GenerationalJournal.snapshotFile(directory, shard, generation), entries)
+        );
+        val firstGeneration = snapshotGeneration.orElse(0);
+        GenerationalJournal.deleteGenerationsBefore(directory, shard, firstGeneration);
+        val generations = GenerationalJournal.journalGenerations(directory, shard).toArray();
+        val latestGeneration = generations.length == 0
+            ? firstGeneration
+            : generations[generations.length - 1];
+        for (val generation : generations) {
+            if (generation != latestGeneration) {
+                MappedJournal.replay(
+                    GenerationalJournal.journalFile(directory, shard, generation),
+                    MappedJournal.DEFAULT_SEGMENT_BYTES,
+                    entries
+                );
+            }
+        }
+        val latest = MappedJournal.open(
+            GenerationalJournal.journalFile(directory, shard, latestGeneration),
+            MappedJournal.DEFAULT_SEGMENT_BYTES,
+            entries
+        );
+        return new GenerationalJournal(
+            directory,
+            shard,
+            latestGeneration,
+            latest,
+            MappedJournal.DEFAULT_SEGMENT_BYTES,
+            snapshotInterval,
+            snapshotWriter,
+            clock
+        );
+    }
+
+    private void verifyWrittenBy(final int shards) {
+        try {
+            Files.createDirectories(directory);
+            val shardCount = directory.resolve("shards");
+            if (!Files.exists(shardCount)) {
+                Files.writeString(shardCount, String.valueOf(shards));
+            }
+            val writtenBy = Integer.parseInt(Files.readString(shardCount).trim());
+            if (writtenBy != shards) {
+                throw new IllegalStateException(
+                    String.format(
+                        "%s holds journals of %d shards, but %d are configured",
+                        directory,
+                        writtenBy,
+                        shards
+                    )
+                );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to open journal directory " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.URI;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.val;
+
+/**
+ * Inbox of each notifier shard. Every uri is owned by exactly one shard, picked by its hash, so all
+ * instructions for a uri are read by the same actor in the order they were sent.
+ */
+final class ShardedInboxes implements MeterBinder {
+
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final List<BoundedInbox> inboxes;
+
+    ShardedInboxes(final int shards) {
+        this(shards, DEFAULT_CAPACITY, OverflowPolicy.FAIL_FAST);
+    }
+
+    ShardedInboxes(final int shards, final int capacity, final OverflowPolicy overflowPolicy) {
+        this(IntStream.range(0, shards).mapToObj(i -> new BoundedInbox(capacity, overflowPolicy)).toList());
+    }
+
+    ShardedInboxes(final List<BoundedInbox> inboxes) {
+        if (inboxes.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.inboxes = List.copyOf(inboxes);
+    }
+
+    int count() {
+        return inboxes.size();
+    }
+
+    BoundedInbox ofShard(final int shard) {
+        return inboxes.get(shard);
+    }
+
+    BoundedInbox ofOwner(final URI uri) {
+        return inboxes.get(shardOf(uri));
+    }
+
+    int shardOf(final URI uri) {
+        val hash = uri.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), inboxes.size());
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        for (int shard = 0; shard < inboxes.size(); shard++) {
+            val inbox = inboxes.get(shard);
+            val shardTag = String.valueOf(shard);
+            Gauge
+                .builder("notifier.inbox.depth", inbox, BoundedInbox::size)
+                .description("Instructions waiting to be read by the notifier actor")
+                .tag("shard", shardTag)
+                .register(meterRegistry);
+            FunctionCounter
+                .builder("notifier.inbox.rejections", inbox, BoundedInbox::rejections)
+                .description("Instructions turned away because the inbox was full")
+                .tag("shard", shardTag)
+                .register(meterRegistry);
+            FunctionCounter
+                .builder("notifier.inbox.spills", inbox, BoundedInbox::spills)
+                .description("Instructions queued beyond the capacity of the inbox")
+                .tag("shard", shardTag)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.ignast.challenge.timenotifications.domain;
+
+/**
+ * Outcome of a single subscription within {@link Subscriptions#subscribeAll}.
+ */
+public enum SubscriptionOutcome {
+    SUBSCRIBED,
+    ALREADY_REGISTERED,
+    /**
+     * The notifier was too far behind to accept the subscription, it can be retried later.
+     */
+    OVERLOADED,
+}
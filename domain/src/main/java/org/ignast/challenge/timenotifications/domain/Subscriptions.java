@@ -1,15 +1,30 @@
 package org.ignast.challenge.timenotifications.domain;
 
 import java.net.URI;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import lombok.val;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 
+/**
+ * Each change throws {@link InboxOverflowException} if the notifier is too far behind, leaving the
+ * subscriptions as they were.
+ */
 public interface Subscriptions {
     public boolean subscribe(final PeriodicNotification subscription);
 
     public boolean unsubscribe(final URI uri);
 
     public boolean reschedule(final PeriodicNotification subscription);
+
+    /**
+     * Reports subscriptions the notifier is too far behind for as {@link SubscriptionOutcome#OVERLOADED}
+     * instead of throwing.
+     */
+    public List<SubscriptionOutcome> subscribeAll(final List<PeriodicNotification> subscriptions);
+
+    /**
+     * @return completes once the changes handed over so far for the given uris are journaled durably, right
+     * away if nothing is journaled, or exceptionally if that takes longer than the configured timeout
+     */
+    public CompletionStage<Void> whenDurable(final Collection<URI> uris);
 }
@@ -1,51 +1,253 @@
 package org.ignast.challenge.timenotifications.domain;
 
 import java.net.URI;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Changes to the same uri are serialised by a lock striped by uri hash, so that the registry and the order
+ * of instructions in the inbox always agree.
+ */
 @Service
 class SubscriptionsPipe implements Subscriptions {
 
-    private final Set<URI> registeredUris = new HashSet<>();
-    private ConcurrentLinkedQueue<AlterSubscriptions> pendingInstructions;
+    /**
+     * The inbox capacity counts messages, so pending batches hold up to this many times as many subscriptions.
+     */
+    static final int MAX_SUBSCRIPTIONS_PER_MESSAGE = 1024;
 
-    SubscriptionsPipe(final ConcurrentLinkedQueue<AlterSubscriptions> pendingInstructions) {
+    static final int LOCK_STRIPES = 256;
+
+    private final Set<URI> registeredUris = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ShardedInboxes pendingInstructions;
+    private final boolean journaled;
+    private final long durableTimeoutInMillis;
+
+    SubscriptionsPipe(final ShardedInboxes pendingInstructions) {
+        this(pendingInstructions, "", Duration.ZERO);
+    }
+
+    @Autowired
+    SubscriptionsPipe(
+        final ShardedInboxes pendingInstructions,
+        @Value("${notifier.wal.directory:}") final String walDirectory,
+        @Value("${notifier.wal.durable-timeout:5s}") final Duration durableTimeout
+    ) {
         this.pendingInstructions = pendingInstructions;
+        this.journaled = !walDirectory.isBlank();
+        if (journaled && (durableTimeout.isNegative() || durableTimeout.isZero())) {
+            throw new IllegalArgumentException("durable timeout must be longer than zero");
+        }
+        this.durableTimeoutInMillis = durableTimeout.toMillis();
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            locks[stripe] = new ReentrantLock();
+        }
+    }
+
+    void recovered(final URI uri) {
+        registeredUris.add(uri);
     }
 
     @Override
     public boolean subscribe(final PeriodicNotification subscription) {
         val uri = subscription.subscriptionUri();
-        val subscribedSuccessfully = !registeredUris.contains(uri);
-        if (subscribedSuccessfully) {
-            registeredUris.add(uri);
-            pendingInstructions.offer(new AddSubscription(subscription));
-        }
-        return subscribedSuccessfully;
+        return underLockOf(
+            uri,
+            inbox -> {
+                if (registeredUris.contains(uri)) {
+                    return Change.REFUSED;
+                }
+                if (!inbox.tryOffer(new AddSubscription(subscription))) {
+                    return Change.NO_ROOM;
+                }
+                registeredUris.add(uri);
+                return Change.MADE;
+            }
+        );
     }
 
     @Override
     public boolean unsubscribe(final URI uri) {
-        val unsubscribedSuccessfully = registeredUris.contains(uri);
-        if (unsubscribedSuccessfully) {
-            registeredUris.remove(uri);
-            pendingInstructions.offer(new RemoveSubscription(uri));
-        }
-        return unsubscribedSuccessfully;
+        return underLockOf(
+            uri,
+            inbox -> {
+                if (!registeredUris.contains(uri)) {
+                    return Change.REFUSED;
+                }
+                if (!inbox.tryOffer(new RemoveSubscription(uri))) {
+                    return Change.NO_ROOM;
+                }
+                registeredUris.remove(uri);
+                return Change.MADE;
+            }
+        );
     }
 
     @Override
     public boolean reschedule(final PeriodicNotification subscription) {
         val uri = subscription.subscriptionUri();
-        val unsubscribed = unsubscribe(uri);
-        if (unsubscribed) {
-            return subscribe(subscription);
-        } else {
-            return false;
+        return underLockOf(
+            uri,
+            inbox -> {
+                if (!registeredUris.contains(uri)) {
+                    return Change.REFUSED;
+                }
+                if (!inbox.tryOffer(new RemoveSubscription(uri), new AddSubscription(subscription))) {
+                    return Change.NO_ROOM;
+                }
+                return Change.MADE;
+            }
+        );
+    }
+
+    @Override
+    public List<SubscriptionOutcome> subscribeAll(final List<PeriodicNotification> subscriptions) {
+        val outcomes = new SubscriptionOutcome[subscriptions.size()];
+        val pending = new ArrayList<List<Integer>>();
+        for (int shard = 0; shard < pendingInstructions.count(); shard++) {
+            pending.add(new ArrayList<>());
         }
+        for (int i = 0; i < subscriptions.size(); i++) {
+            val shard = pendingInstructions.shardOf(subscriptions.get(i).subscriptionUri());
+            val batch = pending.get(shard);
+            batch.add(i);
+            if (batch.size() == MAX_SUBSCRIPTIONS_PER_MESSAGE) {
+                handOver(shard, batch, subscriptions, outcomes);
+            }
+        }
+        for (int shard = 0; shard < pending.size(); shard++) {
+            handOver(shard, pending.get(shard), subscriptions, outcomes);
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    @Override
+    public CompletionStage<Void> whenDurable(final Collection<URI> uris) {
+        if (!journaled || uris.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        val shards = new BitSet(pendingInstructions.count());
+        uris.forEach(uri -> shards.set(pendingInstructions.shardOf(uri)));
+        return CompletableFuture
+            .allOf(
+                shards
+                    .stream()
+                    .mapToObj(shard ->
+                        pendingInstructions.ofShard(shard).whenCommitted().toCompletableFuture()
+                    )
+                    .toArray(CompletableFuture[]::new)
+            )
+            .orTimeout(durableTimeoutInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Like {@link #underLockOf}, only locking every stripe of the batch at once.
+     */
+    private void handOver(
+        final int shard,
+        final List<Integer> batch,
+        final List<PeriodicNotification> subscriptions,
+        final SubscriptionOutcome[] outcomes
+    ) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        val inbox = pendingInstructions.ofShard(shard);
+        val stripes = new BitSet(LOCK_STRIPES);
+        batch.forEach(i -> stripes.set(stripeOf(subscriptions.get(i).subscriptionUri())));
+        try {
+            while (offerUnderLocks(inbox, stripes, batch, subscriptions, outcomes) == Change.NO_ROOM) {
+                inbox.awaitRoom();
+            }
+        } catch (InboxOverflowException e) {
+            for (val i : batch) {
+                if (outcomes[i] != SubscriptionOutcome.ALREADY_REGISTERED) {
+                    outcomes[i] = SubscriptionOutcome.OVERLOADED;
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private Change offerUnderLocks(
+        final BoundedInbox inbox,
+        final BitSet stripes,
+        final List<Integer> batch,
+        final List<PeriodicNotification> subscriptions,
+        final SubscriptionOutcome[] outcomes
+    ) {
+        stripes.stream().forEach(stripe -> locks[stripe].lock());
+        try {
+            val accepted = new ArrayList<PeriodicNotification>(batch.size());
+            for (val i : batch) {
+                if (registeredUris.add(subscriptions.get(i).subscriptionUri())) {
+                    accepted.add(subscriptions.get(i));
+                    outcomes[i] = SubscriptionOutcome.SUBSCRIBED;
+                } else {
+                    outcomes[i] = SubscriptionOutcome.ALREADY_REGISTERED;
+                }
+            }
+            if (accepted.isEmpty()) {
+                return Change.REFUSED;
+            }
+            var offered = false;
+            try {
+                offered = inbox.tryOffer(new AddSubscriptions(accepted));
+            } finally {
+                if (!offered) {
+                    accepted.forEach(notification -> registeredUris.remove(notification.subscriptionUri()));
+                }
+            }
+            return offered ? Change.MADE : Change.NO_ROOM;
+        } finally {
+            stripes.stream().forEach(stripe -> locks[stripe].unlock());
+        }
+    }
+
+    /**
+     * Waits for room in a full inbox with the lock released, so that writers to other shards are not held up.
+     */
+    private boolean underLockOf(final URI uri, final Function<BoundedInbox, Change> change) {
+        val inbox = pendingInstructions.ofOwner(uri);
+        val lock = locks[stripeOf(uri)];
+        while (true) {
+            final Change outcome;
+            lock.lock();
+            try {
+                outcome = change.apply(inbox);
+            } finally {
+                lock.unlock();
+            }
+            if (outcome != Change.NO_ROOM) {
+                return outcome == Change.MADE;
+            }
+            inbox.awaitRoom();
+        }
+    }
+
+    private static int stripeOf(final URI uri) {
+        return Math.floorMod(uri.hashCode(), LOCK_STRIPES);
+    }
+
+    private enum Change {
+        MADE,
+        REFUSED,
+        NO_ROOM,
     }
 }
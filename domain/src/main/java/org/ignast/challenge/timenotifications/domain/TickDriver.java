@@ -0,0 +1,118 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.util.concurrent.locks.LockSupport;
+import lombok.val;
+
+/**
+ * Parks the calling thread until the exact start of a tick, spinning the last {@link #SPIN_NANOS}.
+ * Deadlines come from the wall clock time of each tick, so oversleeping never drifts subsequent ticks.
+ */
+class TickDriver {
+
+    private static final long TICK_NANOS = SECONDS.toNanos(1);
+    private static final long REANCHOR_EVERY_NANOS = SECONDS.toNanos(60);
+    private static final long SPIN_NANOS = MILLISECONDS.toNanos(2);
+
+    private final Clock clock;
+    private final Timer lateness;
+    private final Timer duration;
+    private final Counter overruns;
+
+    private long anchorEpochMillis;
+    private long anchorNanos;
+
+    TickDriver(final MeterRegistry meterRegistry, final int shard) {
+        this(meterRegistry, shard, Clock.systemUTC());
+    }
+
+    TickDriver(final MeterRegistry meterRegistry, final int shard, final Clock clock) {
+        this.clock = clock;
+        this.lateness =
+            Timer
+                .builder("notifier.tick.lateness")
+                .description("How late the notifier thread started processing a tick")
+                .tag("shard", String.valueOf(shard))
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.duration =
+            Timer
+                .builder("notifier.tick.duration")
+                .description("How long the notifier thread took to process a tick once it started")
+                .tag("shard", String.valueOf(shard))
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.overruns =
+            Counter
+                .builder("notifier.tick.overruns")
+                .description("Ticks started more than a whole tick late")
+                .tag("shard", String.valueOf(shard))
+                .register(meterRegistry);
+    }
+
+    long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    /**
+     * @return nanoseconds by which the start of the tick was missed, or negative if interrupted before it
+     */
+    long awaitTick(final Timestamp tick) {
+        return awaitEpochMillis(tick.getValueInMillis());
+    }
+
+    long awaitEpochMillis(final long epochMillis) {
+        if (anchorNanos == 0 || System.nanoTime() - anchorNanos > REANCHOR_EVERY_NANOS) {
+            anchor();
+        }
+        val deadline = anchorNanos + MILLISECONDS.toNanos(epochMillis - anchorEpochMillis);
+        for (
+            var remaining = deadline - System.nanoTime();
+            remaining > 0;
+            remaining = deadline - System.nanoTime()
+        ) {
+            if (Thread.currentThread().isInterrupted()) {
+                return -remaining;
+            }
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return recordLateness(System.nanoTime() - deadline);
+    }
+
+    long recordLateness(final long late) {
+        lateness.record(late, NANOSECONDS);
+        if (late >= TICK_NANOS) {
+            overruns.increment();
+        }
+        return late;
+    }
+
+    void tickProcessedSince(final long startedAtNanos) {
+        duration.record(System.nanoTime() - startedAtNanos, NANOSECONDS);
+    }
+
+    /**
+     * Pairs the monotonic clock with the turn of a wall clock millisecond, for sub-millisecond accuracy.
+     */
+    private void anchor() {
+        val previousMillis = clock.millis();
+        var millis = previousMillis;
+        while (millis == previousMillis) {
+            Thread.onSpinWait();
+            millis = clock.millis();
+        }
+        anchorNanos = System.nanoTime();
+        anchorEpochMillis = millis;
+    }
+}
@@ -1,5 +1,6 @@
 package org.ignast.challenge.timenotifications.domain;
 
+import java.time.Clock;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -12,17 +13,33 @@ import lombok.ToString;
 @ToString
 final class Timestamp {
 
-    private final int valueInSeconds;
+    private final long valueInMillis;
 
     static Timestamp current() {
-        return new Timestamp((int) (System.currentTimeMillis() / 1000l));
+        return current(Clock.systemUTC());
+    }
+
+    static Timestamp current(final Clock clock) {
+        return new Timestamp(clock.millis());
+    }
+
+    static Timestamp ofEpochMillis(final long epochMillis) {
+        return new Timestamp(epochMillis);
     }
 
     public Timestamp plusSeconds(final int secondsToAdd) {
-        return new Timestamp(valueInSeconds + secondsToAdd);
+        return new Timestamp(valueInMillis + secondsToAdd * 1000L);
+    }
+
+    public Timestamp plusMillis(final long millisToAdd) {
+        return new Timestamp(valueInMillis + millisToAdd);
+    }
+
+    public Timestamp startOfNextSecond() {
+        return new Timestamp((valueInMillis / 1000 + 1) * 1000);
     }
 
     public boolean gte(final Timestamp other) {
-        return valueInSeconds >= other.getValueInSeconds();
+        return valueInMillis >= other.getValueInMillis();
     }
 }
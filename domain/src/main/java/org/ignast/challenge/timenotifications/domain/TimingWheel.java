@@ -0,0 +1,259 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.util.Arrays;
+import lombok.val;
+
+/**
+ * Hierarchical timing wheel of intrusive lists threaded through arrays indexed by id. Ids due beyond the
+ * hours level wait in an overflow heap, during which their next entry holds their position in the heap.
+ */
+class TimingWheel implements SchedulerIndex {
+
+    private static final int[] SLOTS_PER_LEVEL = { 1000, 60, 60, 8 };
+    private static final long[] MILLIS_PER_SLOT = { 1, 1000, 60 * 1000, 60 * 60 * 1000 };
+    private static final int[] FIRST_SLOT_OF_LEVEL = { 0, 1000, 1060, 1120 };
+    private static final int TOP_LEVEL = SLOTS_PER_LEVEL.length - 1;
+    private static final long MILLIS_PER_SECOND = MILLIS_PER_SLOT[1];
+    private static final int NONE = -1;
+    private static final int OVERFLOW = -2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int[] heads = new int[FIRST_SLOT_OF_LEVEL[TOP_LEVEL] + SLOTS_PER_LEVEL[TOP_LEVEL]];
+    private final long[] occupiedMillis = new long[(SLOTS_PER_LEVEL[0] + Long.SIZE - 1) / Long.SIZE];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private int[] slots = new int[0];
+    private long[] occurrences = new long[0];
+    private int[] overflow = new int[0];
+    private int overflowSize;
+    private final Occurrences cascadeDown = this::add;
+    private long cursor;
+
+    TimingWheel() {
+        this(Timestamp.current());
+    }
+
+    TimingWheel(final Timestamp initTimestamp) {
+        Arrays.fill(heads, NONE);
+        cursor = initTimestamp.getValueInMillis();
+    }
+
+    @Override
+    public void add(final int id, final long occurrenceInMillis) {
+        ensureCapacity(id);
+        remove(id);
+        occurrences[id] = occurrenceInMillis;
+        if (isBeyondHorizon(occurrenceInMillis)) {
+            slots[id] = OVERFLOW;
+            pushOverflow(id);
+            return;
+        }
+        val slot = slotOf(occurrenceInMillis);
+        slots[id] = slot;
+        previous[id] = NONE;
+        next[id] = heads[slot];
+        if (heads[slot] != NONE) {
+            previous[heads[slot]] = id;
+        } else if (slot < SLOTS_PER_LEVEL[0]) {
+            occupiedMillis[slot / Long.SIZE] |= 1L << slot;
+        }
+        heads[slot] = id;
+    }
+
+    @Override
+    public void remove(final int id) {
+        if (id >= slots.length || slots[id] == NONE) {
+            return;
+        }
+        if (slots[id] == OVERFLOW) {
+            removeOverflowAt(next[id]);
+            slots[id] = NONE;
+            return;
+        }
+        val slot = slots[id];
+        if (previous[id] == NONE) {
+            heads[slot] = next[id];
+            if (heads[slot] == NONE && slot < SLOTS_PER_LEVEL[0]) {
+                occupiedMillis[slot / Long.SIZE] &= ~(1L << slot);
+            }
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        slots[id] = NONE;
+    }
+
+    @Override
+    public void drainUpTo(final long tickInMillis, final Occurrences consumer) {
+        while (cursor < tickInMillis) {
+            drainSlot(millisSlotOf(cursor), consumer);
+            val nextSecond = startOfSecondAfter(cursor);
+            cursor = Math.min(Math.min(nextOccupiedMillisAfter(cursor), nextSecond), tickInMillis);
+            if (cursor == nextSecond) {
+                cascade();
+            }
+        }
+        if (cursor == tickInMillis) {
+            drainSlot(millisSlotOf(cursor), consumer);
+        }
+    }
+
+    @Override
+    public long nextTickAfter(final long tickInMillis) {
+        if (tickInMillis / MILLIS_PER_SECOND != cursor / MILLIS_PER_SECOND) {
+            return startOfSecondAfter(tickInMillis);
+        }
+        return Math.min(nextOccupiedMillisAfter(Math.max(tickInMillis, cursor)), startOfSecondAfter(cursor));
+    }
+
+    private void cascade() {
+        if (cursor % MILLIS_PER_SLOT[TOP_LEVEL] == 0) {
+            promoteFromOverflow();
+        }
+        for (int level = TOP_LEVEL; level > 0; level--) {
+            if (cursor % MILLIS_PER_SLOT[level] == 0) {
+                val slot = (int) ((cursor / MILLIS_PER_SLOT[level]) % SLOTS_PER_LEVEL[level]);
+                drainSlot(FIRST_SLOT_OF_LEVEL[level] + slot, cascadeDown);
+            }
+        }
+    }
+
+    private void drainSlot(final int slot, final Occurrences consumer) {
+        var id = heads[slot];
+        if (id == NONE) {
+            return;
+        }
+        heads[slot] = NONE;
+        if (slot < SLOTS_PER_LEVEL[0]) {
+            occupiedMillis[slot / Long.SIZE] &= ~(1L << slot);
+        }
+        while (id != NONE) {
+            val following = next[id];
+            slots[id] = NONE;
+            consumer.accept(id, occurrences[id]);
+            id = following;
+        }
+    }
+
+    private long nextOccupiedMillisAfter(final long millis) {
+        val from = millisSlotOf(millis) + 1;
+        for (int word = from / Long.SIZE; word < occupiedMillis.length; word++) {
+            val bits = word == from / Long.SIZE ? occupiedMillis[word] & (-1L << from) : occupiedMillis[word];
+            if (bits != 0) {
+                return millis - millisSlotOf(millis) + word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return startOfSecondAfter(millis);
+    }
+
+    private int slotOf(final long occurrenceInMillis) {
+        val millis = Math.max(occurrenceInMillis, cursor);
+        for (int level = 0; level < TOP_LEVEL; level++) {
+            val parentSpan = MILLIS_PER_SLOT[level + 1];
+            if (millis / parentSpan == cursor / parentSpan) {
+                return (
+                    FIRST_SLOT_OF_LEVEL[level] +
+                    (int) ((millis / MILLIS_PER_SLOT[level]) % SLOTS_PER_LEVEL[level])
+                );
+            }
+        }
+        val topSpan = MILLIS_PER_SLOT[TOP_LEVEL];
+        return FIRST_SLOT_OF_LEVEL[TOP_LEVEL] + (int) ((millis / topSpan) % SLOTS_PER_LEVEL[TOP_LEVEL]);
+    }
+
+    private boolean isBeyondHorizon(final long occurrenceInMillis) {
+        val topSpan = MILLIS_PER_SLOT[TOP_LEVEL];
+        return occurrenceInMillis / topSpan - cursor / topSpan >= SLOTS_PER_LEVEL[TOP_LEVEL];
+    }
+
+    private void promoteFromOverflow() {
+        while (overflowSize > 0 && !isBeyondHorizon(occurrences[overflow[0]])) {
+            val id = overflow[0];
+            removeOverflowAt(0);
+            slots[id] = NONE;
+            add(id, occurrences[id]);
+        }
+    }
+
+    private void pushOverflow(final int id) {
+        if (overflowSize == overflow.length) {
+            overflow = Arrays.copyOf(overflow, Math.max(INITIAL_CAPACITY, overflowSize * 2));
+        }
+        placeInOverflow(id, overflowSize++);
+        siftUp(overflowSize - 1);
+    }
+
+    private void removeOverflowAt(final int position) {
+        val last = overflow[--overflowSize];
+        if (position < overflowSize) {
+            placeInOverflow(last, position);
+            siftDown(position);
+            siftUp(next[last]);
+        }
+    }
+
+    private void siftUp(final int position) {
+        var child = position;
+        while (child > 0) {
+            val parent = (child - 1) / 2;
+            if (occurrences[overflow[parent]] <= occurrences[overflow[child]]) {
+                return;
+            }
+            swapInOverflow(parent, child);
+            child = parent;
+        }
+    }
+
+    private void siftDown(final int position) {
+        var parent = position;
+        while (true) {
+            val left = 2 * parent + 1;
+            if (left >= overflowSize) {
+                return;
+            }
+            val right = left + 1;
+            val earlier = right < overflowSize && occurrences[overflow[right]] < occurrences[overflow[left]]
+                ? right
+                : left;
+            if (occurrences[overflow[parent]] <= occurrences[overflow[earlier]]) {
+                return;
+            }
+            swapInOverflow(parent, earlier);
+            parent = earlier;
+        }
+    }
+
+    private void swapInOverflow(final int first, final int second) {
+        val id = overflow[first];
+        placeInOverflow(overflow[second], first);
+        placeInOverflow(id, second);
+    }
+
+    private void placeInOverflow(final int id, final int position) {
+        overflow[position] = id;
+        next[id] = position;
+    }
+
+    private static int millisSlotOf(final long millis) {
+        return (int) (millis % MILLIS_PER_SECOND);
+    }
+
+    private static long startOfSecondAfter(final long millis) {
+        return (millis / MILLIS_PER_SECOND + 1) * MILLIS_PER_SECOND;
+    }
+
+    private void ensureCapacity(final int id) {
+        if (id < slots.length) {
+            return;
+        }
+        val capacity = Math.max(INITIAL_CAPACITY, Math.max(id + 1, slots.length * 2));
+        val oldCapacity = slots.length;
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        occurrences = Arrays.copyOf(occurrences, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        Arrays.fill(slots, oldCapacity, capacity, NONE);
+    }
+}
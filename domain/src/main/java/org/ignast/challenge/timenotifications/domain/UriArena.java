@@ -0,0 +1,149 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.val;
+
+/**
+ * Uris kept as encoded text in size classed slots of direct buffers, reused within a class. Not thread safe.
+ */
+final class UriArena {
+
+    static final long NONE = -1;
+
+    private static final int SMALLEST_SLOT_SHIFT = 5;
+    private static final int SIZE_CLASSES = 12;
+    private static final int CHUNK_BYTES = 4 * 1024;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int OVERSIZED = SIZE_CLASSES;
+    private static final int CLASS_SHIFT = 40;
+    private static final long SLOT_MASK = (1L << CLASS_SHIFT) - 1;
+
+    private final SizeClass[] sizeClasses = new SizeClass[SIZE_CLASSES + 1];
+
+    private long reservedBytes;
+
+    UriArena() {
+        for (int sizeClass = 0; sizeClass < SIZE_CLASSES; sizeClass++) {
+            sizeClasses[sizeClass] = new SizeClass(1 << (SMALLEST_SLOT_SHIFT + sizeClass));
+        }
+        sizeClasses[OVERSIZED] = new SizeClass(0);
+    }
+
+    static byte[] encode(final URI uri) {
+        return uri.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    long store(final URI uri) {
+        return store(encode(uri));
+    }
+
+    long store(final byte[] encoded) {
+        val sizeClass = sizeClassOf(encoded.length + LENGTH_BYTES);
+        val slot = sizeClasses[sizeClass].allocate(encoded.length + LENGTH_BYTES);
+        val buffer = bufferOf(sizeClass, slot);
+        val offset = offsetOf(sizeClass, slot);
+        buffer.putInt(offset, encoded.length);
+        buffer.put(offset + LENGTH_BYTES, encoded);
+        return ((long) sizeClass << CLASS_SHIFT) | slot;
+    }
+
+    URI load(final long handle) {
+        return URI.create(new String(bytesOf(handle), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return whether the entry is the given uri, falling back to uri equality, which ignores case in parts
+     */
+    boolean holds(final long handle, final byte[] encoded, final URI uri) {
+        return Arrays.equals(bytesOf(handle), encoded) || load(handle).equals(uri);
+    }
+
+    void free(final long handle) {
+        sizeClasses[(int) (handle >>> CLASS_SHIFT)].free((int) (handle & SLOT_MASK));
+    }
+
+    /**
+     * @return bytes of direct memory set aside for entries, whether in use or free
+     */
+    long reservedBytes() {
+        return reservedBytes;
+    }
+
+    private byte[] bytesOf(final long handle) {
+        val sizeClass = (int) (handle >>> CLASS_SHIFT);
+        val slot = (int) (handle & SLOT_MASK);
+        val buffer = bufferOf(sizeClass, slot);
+        val offset = offsetOf(sizeClass, slot);
+        val bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + LENGTH_BYTES, bytes);
+        return bytes;
+    }
+
+    private ByteBuffer bufferOf(final int sizeClass, final int slot) {
+        val slots = sizeClasses[sizeClass];
+        return sizeClass == OVERSIZED ? slots.chunks.get(slot) : slots.chunks.get(slot / slots.slotsPerChunk);
+    }
+
+    private int offsetOf(final int sizeClass, final int slot) {
+        val slots = sizeClasses[sizeClass];
+        return sizeClass == OVERSIZED ? 0 : (slot % slots.slotsPerChunk) * slots.slotBytes;
+    }
+
+    private static int sizeClassOf(final int bytes) {
+        val shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        return Math.min(OVERSIZED, Math.max(0, shift - SMALLEST_SLOT_SHIFT));
+    }
+
+    private final class SizeClass {
+
+        private final int slotBytes;
+        private final int slotsPerChunk;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private int[] freeSlots = new int[16];
+        private int freeSlotCount;
+        private int issuedSlotCount;
+
+        private SizeClass(final int slotBytes) {
+            this.slotBytes = slotBytes;
+            this.slotsPerChunk = slotBytes == 0 ? 1 : Math.max(1, CHUNK_BYTES / slotBytes);
+        }
+
+        private int allocate(final int bytes) {
+            if (freeSlotCount > 0) {
+                val slot = freeSlots[--freeSlotCount];
+                if (slotBytes == 0) {
+                    replaceOversized(slot, bytes);
+                }
+                return slot;
+            }
+            if (slotBytes == 0) {
+                chunks.add(allocateDirect(bytes));
+            } else if (issuedSlotCount == chunks.size() * slotsPerChunk) {
+                chunks.add(allocateDirect(slotsPerChunk * slotBytes));
+            }
+            return issuedSlotCount++;
+        }
+
+        private void replaceOversized(final int slot, final int bytes) {
+            reservedBytes -= chunks.get(slot).capacity();
+            chunks.set(slot, allocateDirect(bytes));
+        }
+
+        private void free(final int slot) {
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+
+        private ByteBuffer allocateDirect(final int bytes) {
+            reservedBytes += bytes;
+            return ByteBuffer.allocateDirect(bytes);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class VirtualClock extends Clock {
+
+    private final AtomicLong millis;
+
+    private final ZoneId zone;
+
+    VirtualClock(final long epochMillis) {
+        this(new AtomicLong(epochMillis), ZoneOffset.UTC);
+    }
+
+    private VirtualClock(final AtomicLong millis, final ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    void advanceTo(final long epochMillis) {
+        millis.accumulateAndGet(epochMillis, Math::max);
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        return new VirtualClock(millis, zone);
+    }
+}
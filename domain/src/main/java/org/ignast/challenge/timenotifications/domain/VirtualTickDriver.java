@@ -0,0 +1,31 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.val;
+
+/**
+ * Drives ticks on virtual time. Instead of waiting for a tick it moves the clock forward to it, so ticks
+ * follow each other as fast as they are processed. A tick is only late if the clock had already been moved
+ * past it, e.g. by another shard driven by the same clock.
+ */
+class VirtualTickDriver extends TickDriver {
+
+    private final VirtualClock clock;
+
+    VirtualTickDriver(final MeterRegistry meterRegistry, final int shard, final VirtualClock clock) {
+        super(meterRegistry, shard, clock);
+        this.clock = clock;
+    }
+
+    @Override
+    long awaitEpochMillis(final long epochMillis) {
+        if (Thread.currentThread().isInterrupted()) {
+            return -1;
+        }
+        val late = Math.max(0, clock.millis() - epochMillis);
+        clock.advanceTo(epochMillis);
+        return recordLateness(MILLISECONDS.toNanos(late));
+    }
+}
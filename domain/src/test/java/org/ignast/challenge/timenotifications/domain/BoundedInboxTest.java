@@ -0,0 +1,230 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class BoundedInboxTest {
+
+    private static final RemoveSubscription INSTRUCTION_A = new RemoveSubscription(
+        URI.create("http://abc.com")
+    );
+
+    private static final RemoveSubscription INSTRUCTION_B = new RemoveSubscription(
+        URI.create("http://def.com")
+    );
+
+    private static final RemoveSubscription INSTRUCTION_C = new RemoveSubscription(
+        URI.create("http://ghi.com")
+    );
+
+    @Test
+    public void shouldRequireRoomForAtLeastAPairOfInstructions() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new BoundedInbox(1, OverflowPolicy.FAIL_FAST));
+    }
+
+    @Test
+    public void shouldRoundCapacityUpToPowerOfTwo() {
+        assertThat(new BoundedInbox(2, OverflowPolicy.FAIL_FAST).capacity()).isEqualTo(2);
+        assertThat(new BoundedInbox(5, OverflowPolicy.FAIL_FAST).capacity()).isEqualTo(8);
+        assertThat(new BoundedInbox(8, OverflowPolicy.FAIL_FAST).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldInitiallyBeEmpty() {
+        val inbox = new BoundedInbox(4, OverflowPolicy.FAIL_FAST);
+
+        assertThat(inbox.poll()).isNull();
+        assertThat(inbox.size()).isZero();
+    }
+
+    @Test
+    public void shouldHandOverInstructionsInOrderTheyWereOffered() {
+        val inbox = new BoundedInbox(4, OverflowPolicy.FAIL_FAST);
+
+        inbox.offer(INSTRUCTION_A);
+        inbox.offer(INSTRUCTION_B, INSTRUCTION_C);
+
+        assertThat(inbox.size()).isEqualTo(3);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_C);
+        assertThat(inbox.poll()).isNull();
+    }
+
+    @Test
+    public void shouldReuseSlotsOnceTheyWereRead() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.FAIL_FAST);
+
+        for (int i = 0; i < 10; i++) {
+            inbox.offer(INSTRUCTION_A, INSTRUCTION_B);
+            assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+            assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+        }
+        assertThat(inbox.size()).isZero();
+    }
+
+    @Test
+    public void shouldRejectInstructionsThatDoNotFitWhenFailingFast() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.FAIL_FAST);
+        inbox.offer(INSTRUCTION_A);
+
+        assertThatThrownBy(() -> inbox.offer(INSTRUCTION_B, INSTRUCTION_C))
+            .isInstanceOf(InboxOverflowException.class);
+
+        assertThat(inbox.rejections()).isEqualTo(1);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(inbox.poll()).isNull();
+    }
+
+    @Test
+    public void shouldNeverAcceptMoreInstructionsAtOnceThanItCanHold() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.SPILL);
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> inbox.offer(INSTRUCTION_A, INSTRUCTION_B, INSTRUCTION_C));
+    }
+
+    @Test
+    public void shouldSpillInstructionsThatDoNotFitAndHandThemOverAfterTheRing() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.SPILL);
+
+        inbox.offer(INSTRUCTION_A);
+        inbox.offer(INSTRUCTION_B, INSTRUCTION_C);
+
+        assertThat(inbox.size()).isEqualTo(3);
+        assertThat(inbox.spills()).isEqualTo(2);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_C);
+        assertThat(inbox.poll()).isNull();
+    }
+
+    @Test
+    public void shouldReleaseCommitWaitersOnlyOnceTheirInstructionsWereReadAndCommitted() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.SPILL);
+        inbox.offer(INSTRUCTION_A);
+        val ringWaiter = inbox.whenCommitted().toCompletableFuture();
+        inbox.offer(INSTRUCTION_B, INSTRUCTION_C);
+        val spillWaiter = inbox.whenCommitted().toCompletableFuture();
+
+        inbox.committed();
+        assertThat(ringWaiter).isNotDone();
+        inbox.poll();
+        assertThat(ringWaiter).isNotDone();
+        inbox.committed();
+        assertThat(ringWaiter).isDone();
+        inbox.poll();
+        inbox.committed();
+        assertThat(spillWaiter).isNotDone();
+        inbox.poll();
+        inbox.committed();
+        assertThat(spillWaiter).isDone();
+    }
+
+    @Test
+    public void shouldReleaseCommitWaitersOfEmptyInboxOnNextCommit() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.FAIL_FAST);
+
+        val waiter = inbox.whenCommitted().toCompletableFuture();
+        inbox.committed();
+
+        assertThat(waiter).isDone();
+    }
+
+    @Test
+    public void shouldKeepSpillingUntilSpillIsDrainedToPreserveOrder() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.SPILL);
+        inbox.offer(INSTRUCTION_A, INSTRUCTION_A);
+        inbox.offer(INSTRUCTION_B);
+        inbox.poll();
+
+        inbox.offer(INSTRUCTION_C);
+
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_C);
+    }
+
+    @Test
+    public void shouldBlockProducerUntilThereIsRoom() throws InterruptedException {
+        val inbox = new BoundedInbox(2, OverflowPolicy.BLOCK);
+        inbox.offer(INSTRUCTION_A, INSTRUCTION_C);
+        val offered = new CountDownLatch(1);
+        val producer = Executors.newSingleThreadExecutor();
+
+        producer.submit(() -> {
+            inbox.offer(INSTRUCTION_B);
+            offered.countDown();
+        });
+
+        assertThat(offered.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(offered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_C);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+        producer.shutdownNow();
+    }
+
+    @Test
+    public void shouldLeaveWaitingForRoomToProducerTryingToOffer() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.BLOCK);
+        inbox.offer(INSTRUCTION_A, INSTRUCTION_C);
+
+        assertThat(inbox.tryOffer(INSTRUCTION_B)).isFalse();
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_A);
+        assertThat(inbox.tryOffer(INSTRUCTION_B)).isTrue();
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_C);
+        assertThat(inbox.poll()).isEqualTo(INSTRUCTION_B);
+    }
+
+    @Test
+    public void shouldStopBlockingProducerWhenInterrupted() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.BLOCK);
+        inbox.offer(INSTRUCTION_A, INSTRUCTION_C);
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> inbox.offer(INSTRUCTION_B)).isInstanceOf(InboxOverflowException.class);
+        Thread.interrupted();
+    }
+
+    @Test
+    public void shouldHandOverEveryInstructionFromConcurrentProducersExactlyOnce()
+        throws InterruptedException {
+        val inbox = new BoundedInbox(64, OverflowPolicy.BLOCK);
+        val producers = 4;
+        val instructionsPerProducer = 10_000;
+        val executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            val producer = p;
+            executor.submit(() -> {
+                for (int i = 0; i < instructionsPerProducer; i++) {
+                    inbox.offer(
+                        new RemoveSubscription(URI.create("http://host" + producer + "-" + i + ".com"))
+                    );
+                }
+            });
+        }
+
+        val received = new ArrayList<AlterSubscriptions>();
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < producers * instructionsPerProducer && System.nanoTime() < deadline) {
+            val instruction = inbox.poll();
+            if (instruction != null) {
+                received.add(instruction);
+            }
+        }
+        executor.shutdownNow();
+
+        assertThat(received).hasSize(producers * instructionsPerProducer).doesNotHaveDuplicates();
+        assertThat(inbox.poll()).isNull();
+    }
+}
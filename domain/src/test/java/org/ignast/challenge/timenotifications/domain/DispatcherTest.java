@@ -0,0 +1,347 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DispatcherTest {
+
+    private static final Timestamp TIMESTAMP = Timestamp.current();
+
+    private static final long TICK = TIMESTAMP.getValueInMillis();
+
+    private static final URI URI_A = URI.create("http://a.com");
+
+    private static final URI URI_B = URI.create("http://b.com");
+
+    private static final long NO_DEADLINE = NotificationSender.NO_DEADLINE;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TimestampTransformingNotificationSender sender = mock(
+        TimestampTransformingNotificationSender.class
+    );
+
+    private final Dispatcher dispatcher = new Dispatcher(
+        sender,
+        2,
+        16,
+        meterRegistry,
+        Pacer.NONE,
+        Dispatcher.DEFAULT_MAX_OUTSTANDING,
+        Duration.ZERO
+    );
+
+    @BeforeEach
+    public void deliverRightAway() {
+        when(sender.deliver(any(), anyLong(), anyLong()))
+            .thenReturn(
+                CompletableFuture.completedFuture(DeliveryResult.notAttempted(DeliveryOutcome.UNTRACKED))
+            );
+    }
+
+    @AfterEach
+    public void stopDispatcher() {
+        dispatcher.close();
+    }
+
+    @Test
+    public void shouldRequireAtLeastOneWorker() {
+        assertThatThrownBy(() -> new Dispatcher(sender, 0, 16, meterRegistry, Pacer.NONE, 16, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldSendEveryDueNotificationOnWorkerThreads() {
+        dispatcher.start();
+
+        dispatcher.dispatch(due(URI_A, URI_B));
+
+        verify(sender, timeout(1000)).deliver(URI_A, TICK, NO_DEADLINE);
+        verify(sender, timeout(1000)).deliver(URI_B, TICK, NO_DEADLINE);
+    }
+
+    @Test
+    public void shouldCarryOnSendingBatchAfterFailedNotification() {
+        doThrow(new IllegalStateException()).when(sender).deliver(URI_A, TICK, NO_DEADLINE);
+        dispatcher.start();
+
+        dispatcher.dispatch(due(URI_A, URI_B));
+
+        verify(sender, timeout(1000)).deliver(URI_B, TICK, NO_DEADLINE);
+        assertThat(meterRegistry.get("notifier.dispatch.failures").counter().count()).isEqualTo(1);
+        await(() -> meterRegistry.get("notifier.dispatch.outstanding").gauge().value() == 0);
+    }
+
+    @Test
+    public void shouldRecycleBatchesOnceSent() {
+        dispatcher.start();
+        val due = due(URI_A);
+
+        dispatcher.dispatch(due);
+
+        verify(sender, timeout(1000)).deliver(URI_A, TICK, NO_DEADLINE);
+        await(() -> dispatcher.batchFor(TICK + 1) == due);
+        assertThat(due.size()).isZero();
+        assertThat(due.tickInMillis()).isEqualTo(TICK + 1);
+    }
+
+    @Test
+    public void shouldCountNotificationsCompletingExceptionally() {
+        when(sender.deliver(URI_A, TICK, NO_DEADLINE))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+        dispatcher.start();
+
+        dispatcher.dispatch(due(URI_A));
+
+        await(() -> meterRegistry.get("notifier.dispatch.failures").counter().count() == 1);
+    }
+
+    @Test
+    public void shouldHoldBackNotificationsBeyondThoseOutstanding() {
+        val completions = new ArrayList<CompletableFuture<DeliveryResult>>();
+        val boundedRegistry = new SimpleMeterRegistry();
+        val boundedDispatcher = new Dispatcher(
+            new TimestampTransformingNotificationSender(
+                new NotificationSender() {
+                    @Override
+                    public void send(final URI location, final ZonedDateTime time) {}
+
+                    @Override
+                    public CompletionStage<DeliveryResult> deliver(
+                        final URI location,
+                        final NotificationPayload payload
+                    ) {
+                        val completion = new CompletableFuture<DeliveryResult>();
+                        synchronized (completions) {
+                            completions.add(completion);
+                        }
+                        return completion;
+                    }
+                }
+            ),
+            1,
+            16,
+            boundedRegistry,
+            Pacer.NONE,
+            2,
+            Duration.ZERO
+        )
+            .start();
+
+        boundedDispatcher.dispatch(due(URI_A, URI_B, URI_A));
+
+        await(() -> outstanding(completions) == 2);
+        assertThat(boundedRegistry.get("notifier.dispatch.outstanding").gauge().value()).isEqualTo(2);
+        assertThat(outstanding(completions)).isEqualTo(2);
+        synchronized (completions) {
+            completions.get(0).complete(DeliveryResult.notAttempted(DeliveryOutcome.UNTRACKED));
+        }
+        await(() -> outstanding(completions) == 3);
+        boundedDispatcher.close();
+    }
+
+    @Test
+    public void shouldHandFailuresOverToRetriesOfTheirBatch() {
+        when(sender.deliver(URI_A, TICK, NO_DEADLINE))
+            .thenReturn(
+                CompletableFuture.completedFuture(new DeliveryResult(DeliveryOutcome.UNREACHABLE, 0, 1000))
+            );
+        when(sender.deliver(URI_B, TICK, NO_DEADLINE))
+            .thenReturn(
+                CompletableFuture.completedFuture(new DeliveryResult(DeliveryOutcome.REJECTED, 400, 1000))
+            );
+        val pending = new Semaphore(10);
+        val deadLetters = new DeadLetterRing(DeadLetterRing.DEFAULT_CAPACITY_IN_BYTES, meterRegistry);
+        val retries = new PendingRetries(
+            new RetryPolicy(1, 1, 1),
+            pending,
+            deadLetters,
+            new TimingWheel(TIMESTAMP),
+            Clock.systemUTC()
+        );
+        dispatcher.start();
+
+        dispatcher.dispatch(due(URI_A, URI_B).retriedBy(retries, 1));
+        dispatcher.dispatch(due(URI_A).retriedBy(retries, 2));
+
+        await(() -> pending.availablePermits() == 9 && deadLetters.recent().size() == 1);
+        verify(sender, timeout(1000)).deliver(URI_B, TICK, NO_DEADLINE);
+        assertThat(deadLetters.recent().get(0).reason()).isEqualTo(DeadLetter.Reason.EXHAUSTED);
+        assertThat(deadLetters.recent().get(0).attempts()).isEqualTo(2);
+        assertThat(deadLetters.recent().get(0).lastOutcome()).isEqualTo(DeliveryOutcome.UNREACHABLE);
+    }
+
+    @Test
+    public void shouldHandDeadlineCountingFromTickBatchWasFoundDueAt() {
+        val deadlineDispatcher = new Dispatcher(
+            sender,
+            1,
+            16,
+            new SimpleMeterRegistry(),
+            Pacer.NONE,
+            16,
+            Duration.ofSeconds(2)
+        )
+            .start();
+
+        deadlineDispatcher.dispatch(due(URI_A));
+        deadlineDispatcher.dispatch(due(URI_B).dueAt(TICK + 5000));
+
+        verify(sender, timeout(1000)).deliver(URI_A, TICK, TICK + 2000);
+        verify(sender, timeout(1000)).deliver(URI_B, TICK, TICK + 7000);
+        deadlineDispatcher.close();
+    }
+
+    @Test
+    public void shouldRequireNonNegativeDeadlineTolerance() {
+        assertThatThrownBy(() ->
+                new Dispatcher(sender, 1, 16, meterRegistry, Pacer.NONE, 16, Duration.ofMillis(-1))
+            )
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRequireRoomForOutstandingNotifications() {
+        assertThatThrownBy(() -> new Dispatcher(sender, 1, 16, meterRegistry, Pacer.NONE, 0, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldExposeNotificationsWaitingForDispatcher() {
+        dispatcher.dispatch(due(URI_A, URI_B));
+
+        assertThat(meterRegistry.get("notifier.dispatch.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRecordHowLongBatchesWaitedAndTookToSend() {
+        dispatcher.start();
+
+        dispatcher.dispatch(due(URI_A));
+
+        verify(sender, timeout(1000)).deliver(URI_A, TICK, NO_DEADLINE);
+        assertThat(meterRegistry.get("notifier.dispatch.queue.latency").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notifier.dispatch.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    public void shouldNotHoldUpNotifierThreadWhileNotificationsAreBeingSent() throws InterruptedException {
+        val release = new CountDownLatch(1);
+        val slowDispatcher = new Dispatcher(
+            new TimestampTransformingNotificationSender((uri, time) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }),
+            1,
+            Dispatcher.DEFAULT_QUEUE_CAPACITY,
+            meterRegistry,
+            Pacer.NONE,
+            Dispatcher.DEFAULT_MAX_OUTSTANDING,
+            Duration.ZERO
+        )
+            .start();
+        val notifier = new ScheduleBackedNotifier(
+            slowDispatcher,
+            new TimingWheel(),
+            PhaseOccupancy.IMMEDIATE,
+            Retries.NONE
+        );
+        IntStream
+            .range(0, 100_000)
+            .forEach(i ->
+                notifier.subscribe(new PeriodicNotification(URI.create("http://uri" + i), 5), TIMESTAMP)
+            );
+
+        val startedAt = System.nanoTime();
+        notifier.notify(TICK);
+        val tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        release.countDown();
+        slowDispatcher.close();
+        assertThat(tookMillis).isLessThan(1000);
+    }
+
+    @Test
+    public void pacedDispatcherShouldSpreadNotificationsOfTickOverWindow() {
+        val sentAt = new long[20];
+        val sent = new CountDownLatch(sentAt.length);
+        val pacedDispatcher = new Dispatcher(
+            new TimestampTransformingNotificationSender((uri, time) -> {
+                sentAt[Integer.parseInt(uri.getHost().substring(1))] = System.currentTimeMillis();
+                sent.countDown();
+            }),
+            2,
+            16,
+            meterRegistry,
+            new Pacer(Duration.ofMillis(200), Clock.systemUTC()),
+            Dispatcher.DEFAULT_MAX_OUTSTANDING,
+            Duration.ZERO
+        )
+            .start();
+        val tick = System.currentTimeMillis();
+        val due = new DueNotifications(tick);
+        for (int i = 0; i < sentAt.length; i++) {
+            due.add(URI.create("http://n" + i));
+        }
+
+        pacedDispatcher.dispatch(due);
+
+        await(() -> sent.getCount() == 0);
+        pacedDispatcher.close();
+        assertThat(Arrays.stream(sentAt).max().getAsLong() - tick).isGreaterThanOrEqualTo(150);
+        assertThat(sentAt[0] - tick).isLessThan(150);
+    }
+
+    private static void await(final BooleanSupplier condition) {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int outstanding(final List<CompletableFuture<DeliveryResult>> completions) {
+        synchronized (completions) {
+            return completions.size();
+        }
+    }
+
+    private static DueNotifications due(final URI... uris) {
+        val due = new DueNotifications(TICK);
+        for (val uri : uris) {
+            due.add(uri);
+        }
+        return due;
+    }
+}
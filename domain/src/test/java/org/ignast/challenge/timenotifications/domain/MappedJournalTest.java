@@ -0,0 +1,223 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedJournalTest {
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    private static final URI URI_B = URI.create("http://def.com");
+
+    private static final Timestamp TIMESTAMP = Timestamp.ofEpochMillis(1_600_000_000_250L);
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldReplayNothingFromNewJournal() {
+        val replayed = new ReplayedEntries();
+
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+
+        assertThat(replayed.entries).isEmpty();
+    }
+
+    @Test
+    public void shouldReplayInstructionsInOrderTheyWereAppended() {
+        val journal = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        journal.append(new AddSubscription(new PeriodicNotification(URI_A, 5)), TIMESTAMP);
+        journal.append(new RemoveSubscription(URI_A), TIMESTAMP.plusSeconds(1));
+        journal.append(new AddSubscription(new PeriodicNotification(URI_B, 6)), TIMESTAMP.plusSeconds(2));
+        journal.close();
+
+        val replayed = new ReplayedEntries();
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+
+        assertThat(replayed.entries)
+            .containsExactly(
+                "added " + URI_A + " every 5000 from " + TIMESTAMP.getValueInMillis(),
+                "removed " + URI_A,
+                "added " + URI_B + " every 6000 from " + TIMESTAMP.plusSeconds(2).getValueInMillis()
+            );
+    }
+
+    @Test
+    public void shouldReplayBatchAsSubscriptionsAddedOneByOne() {
+        val journal = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        journal.append(
+            new AddSubscriptions(
+                List.of(new PeriodicNotification(URI_A, 5), new PeriodicNotification(URI_B, 6))
+            ),
+            TIMESTAMP
+        );
+        journal.close();
+
+        val replayed = new ReplayedEntries();
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+
+        assertThat(replayed.entries)
+            .containsExactly(
+                "added " + URI_A + " every 5000 from " + TIMESTAMP.getValueInMillis(),
+                "added " + URI_B + " every 6000 from " + TIMESTAMP.getValueInMillis()
+            );
+    }
+
+    @Test
+    public void shouldAppendAfterInstructionsReplayedFromPreviousRun() {
+        val firstRun = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        firstRun.append(new RemoveSubscription(URI_A), TIMESTAMP);
+        firstRun.close();
+        val secondRun = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        secondRun.append(new RemoveSubscription(URI_B), TIMESTAMP);
+        secondRun.close();
+
+        val replayed = new ReplayedEntries();
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+
+        assertThat(replayed.entries).containsExactly("removed " + URI_A, "removed " + URI_B);
+    }
+
+    @Test
+    public void shouldCarryOnIntoNextSegmentOnceCurrentOneIsFull() {
+        val journal = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        val appended = 1000;
+        for (int i = 0; i < appended; i++) {
+            journal.append(new RemoveSubscription(URI.create("http://host" + i + ".com")), TIMESTAMP);
+        }
+        journal.close();
+
+        val replayed = new ReplayedEntries();
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+
+        assertThat(replayed.entries).hasSize(appended);
+        assertThat(replayed.entries.get(appended - 1)).isEqualTo("removed http://host999.com");
+    }
+
+    @Test
+    public void shouldStopReplayingAtTornRecordAndOverwriteIt() throws IOException {
+        val journal = MappedJournal.open(journalFile(), SEGMENT_BYTES, new ReplayedEntries());
+        journal.append(new RemoveSubscription(URI_A), TIMESTAMP);
+        journal.append(new RemoveSubscription(URI_B), TIMESTAMP);
+        journal.close();
+        corruptLastByteOfSecondRecord();
+
+        val replayedAfterCrash = new ReplayedEntries();
+        val recovered = MappedJournal.open(journalFile(), SEGMENT_BYTES, replayedAfterCrash);
+        recovered.append(new RemoveSubscription(URI.create("http://x.com")), TIMESTAMP);
+        recovered.close();
+
+        val replayed = new ReplayedEntries();
+        MappedJournal.open(journalFile(), SEGMENT_BYTES, replayed).close();
+        assertThat(replayedAfterCrash.entries).containsExactly("removed " + URI_A);
+        assertThat(replayed.entries).containsExactly("removed " + URI_A, "removed http://x.com");
+    }
+
+    private void corruptLastByteOfSecondRecord() throws IOException {
+        val recordBytes = 2 * Integer.BYTES + 1 + URI_A.toString().length();
+        try (val file = new RandomAccessFile(journalFile().toFile(), "rw")) {
+            file.seek(2L * recordBytes - 1);
+            val lastByte = file.read();
+            file.seek(2L * recordBytes - 1);
+            file.write(lastByte ^ 0xFF);
+        }
+    }
+
+    private Path journalFile() {
+        return directory.resolve("shard-0.wal");
+    }
+
+    private static class ReplayedEntries implements MappedJournal.Entries {
+
+        private final List<String> entries = new ArrayList<>();
+
+        @Override
+        public void added(final PeriodicNotification notification, final long firstOccurrenceInMillis) {
+            entries.add(
+                "added " +
+                notification.subscriptionUri() +
+                " every " +
+                notification.frequency().toMillis() +
+                " from " +
+                firstOccurrenceInMillis
+            );
+        }
+
+        @Override
+        public void removed(final URI uri) {
+            entries.add("removed " + uri);
+        }
+    }
+}
+
+class ShardJournalsTest {
+
+    private static final Duration INTERVAL = Duration.ofMinutes(10);
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    @TempDir
+    Path directory;
+
+    private final ScheduleBackedNotifier notifier = mock(ScheduleBackedNotifier.class);
+
+    @Test
+    public void shouldNeitherJournalNorRecoverWithoutDirectory() {
+        val journals = new ShardJournals("", 1, INTERVAL);
+
+        assertThat(journals.recover(0, notifier, new SimpleMeterRegistry())).isSameAs(Journal.NONE);
+        verifyNoInteractions(notifier);
+    }
+
+    @Test
+    public void shouldRecoverSubscriptionsJournaledByShard() {
+        val journals = new ShardJournals(directory.toString(), 2, INTERVAL);
+        val journal = journals.recover(1, notifier, new SimpleMeterRegistry());
+        val appliedAt = Timestamp.current();
+        journal.append(new AddSubscription(new PeriodicNotification(URI_A, 5)), appliedAt);
+        journal.append(new RemoveSubscription(URI_A), appliedAt);
+        journal.close();
+
+        new ShardJournals(directory.toString(), 2, INTERVAL)
+            .recover(1, notifier, new SimpleMeterRegistry())
+            .close();
+
+        val inOrder = inOrder(notifier);
+        inOrder
+            .verify(notifier)
+            .restore(eq(new PeriodicNotification(URI_A, 5)), eq(appliedAt.getValueInMillis()), any());
+        inOrder.verify(notifier).unsubscribe(URI_A);
+    }
+
+    @Test
+    public void shouldRefuseJournalsWrittenByDifferentNumberOfShards() {
+        new ShardJournals(directory.toString(), 2, INTERVAL)
+            .recover(0, notifier, new SimpleMeterRegistry())
+            .close();
+        new ShardJournals(directory.toString(), 2, INTERVAL)
+            .recover(1, notifier, new SimpleMeterRegistry())
+            .close();
+
+        assertThatIllegalStateException()
+            .isThrownBy(() -> new ShardJournals(directory.toString(), 3, INTERVAL));
+    }
+}
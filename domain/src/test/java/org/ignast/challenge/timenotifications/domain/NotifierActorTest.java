@@ -1,37 +1,54 @@
 package org.ignast.challenge.timenotifications.domain;
 
-import static org.mockito.ArgumentMatchers.argThat;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.stream.IntStream;
 import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentMatcher;
 
 class ActorInboxTest {
 
     private static final Timestamp TIMESTAMP = Timestamp.current();
     private static final URI URI = java.net.URI.create("http://any");
 
-    private final ConcurrentLinkedQueue<AlterSubscriptions> underlyingInbox = new ConcurrentLinkedQueue<>();
+    private final BoundedInbox underlyingInbox = new BoundedInbox(16, OverflowPolicy.FAIL_FAST);
 
     private final ScheduleBackedNotifier scheduleBackedNotifier = mock(ScheduleBackedNotifier.class);
 
+    private final Journal journal = mock(Journal.class);
+
     private final NotifierActor.SchedulingNotificationsInbox schedulingInbox = new NotifierActor.SchedulingNotificationsInbox(
         underlyingInbox,
-        scheduleBackedNotifier
+        scheduleBackedNotifier,
+        journal
     );
 
+    @BeforeEach
+    public void firstOccurrenceIsTheTickByDefault() {
+        when(scheduleBackedNotifier.subscribe(any(), eq(TIMESTAMP))).thenReturn(TIMESTAMP.getValueInMillis());
+    }
+
     @Test
     public void shouldNotScheduleWhenInboxIsEmpty() {
-        schedulingInbox.read(TIMESTAMP);
+        schedulingInbox.read(TIMESTAMP.getValueInMillis());
 
         verifyNoInteractions(scheduleBackedNotifier);
+        verifyNoInteractions(journal);
     }
 
     @Test
@@ -39,12 +56,58 @@ class ActorInboxTest {
         underlyingInbox.offer(new RemoveSubscription(URI));
         underlyingInbox.offer(new AddSubscription(new PeriodicNotification(URI, 4)));
 
-        schedulingInbox.read(TIMESTAMP);
+        schedulingInbox.read(TIMESTAMP.getValueInMillis());
 
         val inOrder = inOrder(scheduleBackedNotifier);
         inOrder.verify(scheduleBackedNotifier).unsubscribe(URI);
         inOrder.verify(scheduleBackedNotifier).subscribe(new PeriodicNotification(URI, 4), TIMESTAMP);
     }
+
+    @Test
+    public void shouldJournalEveryInstructionAndCommitThemTogether() {
+        underlyingInbox.offer(new RemoveSubscription(URI));
+        underlyingInbox.offer(new AddSubscription(new PeriodicNotification(URI, 4)));
+
+        schedulingInbox.read(TIMESTAMP.getValueInMillis());
+
+        val inOrder = inOrder(journal);
+        inOrder.verify(journal).append(new RemoveSubscription(URI), TIMESTAMP);
+        inOrder.verify(journal).append(new AddSubscription(new PeriodicNotification(URI, 4)), TIMESTAMP);
+        inOrder.verify(journal, times(1)).commit();
+    }
+
+    @Test
+    public void shouldScheduleWholeBatchInSingleRead() {
+        val other = java.net.URI.create("http://other");
+        val batch = new AddSubscriptions(
+            List.of(new PeriodicNotification(URI, 4), new PeriodicNotification(other, 5))
+        );
+        underlyingInbox.offer(batch);
+
+        schedulingInbox.read(TIMESTAMP.getValueInMillis());
+
+        val inOrder = inOrder(scheduleBackedNotifier, journal);
+        inOrder.verify(scheduleBackedNotifier).subscribe(new PeriodicNotification(URI, 4), TIMESTAMP);
+        inOrder.verify(scheduleBackedNotifier).subscribe(new PeriodicNotification(other, 5), TIMESTAMP);
+        inOrder.verify(journal).append(batch, TIMESTAMP);
+        inOrder.verify(journal, times(1)).commit();
+    }
+
+    @Test
+    public void shouldJournalSubscriptionsPlacedLaterInTheirPeriodAtTheirFirstOccurrence() {
+        val other = java.net.URI.create("http://other");
+        val placed = new PeriodicNotification(other, 5);
+        when(scheduleBackedNotifier.subscribe(placed, TIMESTAMP))
+            .thenReturn(TIMESTAMP.getValueInMillis() + 3000);
+        underlyingInbox.offer(new AddSubscriptions(List.of(new PeriodicNotification(URI, 4), placed)));
+
+        schedulingInbox.read(TIMESTAMP.getValueInMillis());
+
+        val inOrder = inOrder(journal);
+        inOrder.verify(journal).append(new AddSubscription(new PeriodicNotification(URI, 4)), TIMESTAMP);
+        inOrder.verify(journal).append(new AddSubscription(placed), TIMESTAMP.plusSeconds(3));
+        inOrder.verify(journal, times(1)).commit();
+    }
 }
 
 class ActorPerTickJobTest {
@@ -52,20 +115,22 @@ class ActorPerTickJobTest {
     private static final Timestamp TIMESTAMP = Timestamp.current();
     private static final URI URI = java.net.URI.create("http://any");
 
-    private final ConcurrentLinkedQueue<AlterSubscriptions> underlyingInbox = new ConcurrentLinkedQueue<>();
+    private final BoundedInbox underlyingInbox = new BoundedInbox(16, OverflowPolicy.FAIL_FAST);
 
     private final ScheduleBackedNotifier scheduleBackedNotifier = mock(ScheduleBackedNotifier.class);
 
     private final NotifierActor.PerTickJob perTickJob = new NotifierActor.PerTickJob(
         underlyingInbox,
-        scheduleBackedNotifier
+        scheduleBackedNotifier,
+        new TickDriver(new SimpleMeterRegistry(), 0),
+        Journal.NONE
     );
 
     @Test
     public void shouldNotScheduleWhenInboxIsEmpty() {
-        perTickJob.readInboxAndNotifyOnTick(TIMESTAMP);
+        perTickJob.readInboxAndNotifyOnTick(TIMESTAMP.getValueInMillis());
 
-        verify(scheduleBackedNotifier).notify(argThat(atOr1SecondAfter(TIMESTAMP)));
+        verify(scheduleBackedNotifier).notify(TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -73,16 +138,84 @@ class ActorPerTickJobTest {
         underlyingInbox.offer(new RemoveSubscription(URI));
         underlyingInbox.offer(new AddSubscription(new PeriodicNotification(URI, 4)));
 
-        perTickJob.readInboxAndNotifyOnTick(TIMESTAMP);
+        perTickJob.readInboxAndNotifyOnTick(TIMESTAMP.getValueInMillis());
 
         val inOrder = inOrder(scheduleBackedNotifier);
         verify(scheduleBackedNotifier).unsubscribe(URI);
-        verify(scheduleBackedNotifier)
-            .subscribe(eq(new PeriodicNotification(URI, 4)), argThat(atOr1SecondAfter(TIMESTAMP)));
-        verify(scheduleBackedNotifier).notify(argThat(atOr1SecondAfter(TIMESTAMP)));
+        verify(scheduleBackedNotifier).subscribe(new PeriodicNotification(URI, 4), TIMESTAMP);
+        verify(scheduleBackedNotifier).notify(TIMESTAMP.getValueInMillis());
+    }
+
+    @Test
+    public void shouldNotifyOnTickItself() {
+        val tick = Timestamp.current().plusSeconds(1);
+
+        perTickJob.readInboxAndNotifyOnTick(tick.getValueInMillis());
+
+        verify(scheduleBackedNotifier).notify(tick.getValueInMillis());
+        assertThat(Timestamp.current().gte(tick)).isTrue();
+    }
+
+    @Test
+    public void shouldNeitherReadInboxNorNotifyWhenInterruptedBeforeTheTick() {
+        underlyingInbox.offer(new RemoveSubscription(URI));
+
+        Thread.currentThread().interrupt();
+        perTickJob.readInboxAndNotifyOnTick(Timestamp.current().plusSeconds(2).getValueInMillis());
+        Thread.interrupted();
+
+        verifyNoInteractions(scheduleBackedNotifier);
+    }
+}
+
+class NotifierActorSimulationTest {
+
+    private static final long STARTED_AT = 1_600_000_000_000L;
+
+    private final VirtualClock clock = new VirtualClock(STARTED_AT - 500);
+
+    private final BoundedInbox inbox = new BoundedInbox(16, OverflowPolicy.FAIL_FAST);
+
+    private final DeliveryRecorder recorder = new DeliveryRecorder();
+
+    private final NotifierActor actor = new NotifierActor(
+        inbox,
+        new ScheduleBackedNotifier(
+            NotificationDispatch.inline(new TimestampTransformingNotificationSender(recorder)),
+            new TimingWheel(Timestamp.ofEpochMillis(clock.millis())),
+            PhaseOccupancy.IMMEDIATE,
+            Retries.NONE
+        ),
+        new VirtualTickDriver(new SimpleMeterRegistry(), 0, clock),
+        Journal.NONE
+    );
+
+    @Test
+    public void shouldNotifyEverySubscriptionExactlyOnTimeThroughoutHoursOfVirtualTime() {
+        val notifications = IntStream
+            .range(0, 1000)
+            .mapToObj(i -> new PeriodicNotification(URI.create("http://host" + i), (i % 7 + 1) * 5))
+            .collect(toList());
+        notifications.forEach(n -> recorder.expect(n.subscriptionUri(), STARTED_AT, n.frequency().toMillis())
+        );
+        inbox.offer(new AddSubscriptions(notifications));
+        val lastTick = STARTED_AT + HOURS.toMillis(4);
+
+        actor.runUntil(lastTick);
+
+        assertThat(recorder.deliveries()).isGreaterThan(1000L * 4 * 60 * 60 / 35);
+        assertThat(recorder.mistimed()).isZero();
+        assertThat(recorder.unexpected()).isZero();
+        assertThat(recorder.missedUpTo(lastTick)).isZero();
+        assertThat(clock.millis()).isEqualTo(lastTick);
     }
 
-    private ArgumentMatcher<Timestamp> atOr1SecondAfter(final Timestamp timestamp) {
-        return m -> m.gte(TIMESTAMP) && !m.gte(TIMESTAMP.plusSeconds(2));
+    @Test
+    public void shouldStopReplayingWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        actor.runUntil(STARTED_AT + HOURS.toMillis(4));
+        Thread.interrupted();
+
+        assertThat(clock.millis()).isEqualTo(STARTED_AT - 500);
     }
 }
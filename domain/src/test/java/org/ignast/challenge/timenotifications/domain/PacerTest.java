@@ -0,0 +1,128 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class PacerTest {
+
+    private static final long TICK = 1_700_000_000_000L;
+
+    private static final long TICK_NANOS = 5_000_000_000L;
+
+    private static final long MILLI = 1_000_000;
+
+    private final Pacer pacer = new Pacer(Duration.ofMillis(500), Clock.systemUTC());
+
+    @Test
+    public void shouldRequireWindowWithinSecond() {
+        assertThatThrownBy(() -> new Pacer(Duration.ZERO, Clock.systemUTC()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Pacer(Duration.ofMillis(1001), Clock.systemUTC()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void notificationsOfSecondShouldBeSpreadEvenlyOverWindow() {
+        pacer.expect(TICK, 100);
+
+        val releases = new ArrayList<Long>();
+        for (int i = 0; i < 100; i++) {
+            releases.add(pacer.releaseAtNanos(TICK, TICK_NANOS, TICK) - TICK_NANOS);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(releases.get(i)).isEqualTo(i * 5 * MILLI);
+        }
+    }
+
+    @Test
+    public void notificationsShouldNotBeHeldPastEndOfWindow() {
+        pacer.expect(TICK, 10);
+
+        for (int i = 0; i < 10; i++) {
+            pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+        }
+
+        assertThat(pacer.releaseAtNanos(TICK, TICK_NANOS, TICK)).isEqualTo(TICK_NANOS + 500 * MILLI);
+    }
+
+    @Test
+    public void dispatcherFallenBehindShouldSendWhatItIsOwedRightAway() {
+        pacer.expect(TICK, 100);
+        val late = TICK_NANOS + 200 * MILLI;
+
+        for (int i = 0; i < 40; i++) {
+            assertThat(pacer.releaseAtNanos(TICK, late, TICK + 200)).isLessThan(late);
+        }
+        assertThat(pacer.releaseAtNanos(TICK, late, TICK + 200)).isEqualTo(late);
+        assertThat(pacer.releaseAtNanos(TICK, late, TICK + 200)).isEqualTo(late + 5 * MILLI);
+    }
+
+    @Test
+    public void paceShouldQuickenOnceMoreNotificationsTurnOutToBeDue() {
+        pacer.expect(TICK, 10);
+        pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+        pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+
+        pacer.expect(TICK, 90);
+
+        assertThat(pacer.releaseAtNanos(TICK, TICK_NANOS, TICK)).isEqualTo(TICK_NANOS + 10 * MILLI);
+    }
+
+    @Test
+    public void paceShouldFollowLargerOfCurrentAndPreviousSecond() {
+        pacer.expect(TICK, 100);
+        pacer.expect(TICK + 1000, 10);
+        val nextTickNanos = TICK_NANOS + 1000 * MILLI;
+
+        pacer.releaseAtNanos(TICK + 1000, nextTickNanos, TICK + 1000);
+
+        assertThat(pacer.releaseAtNanos(TICK + 1000, nextTickNanos, TICK + 1000))
+            .isEqualTo(nextTickNanos + 5 * MILLI);
+    }
+
+    @Test
+    public void eachSecondShouldStartPacingFromItsTick() {
+        pacer.expect(TICK, 2);
+        pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+        pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+        pacer.releaseAtNanos(TICK, TICK_NANOS, TICK);
+        pacer.expect(TICK + 1000, 2);
+        val nextTickNanos = TICK_NANOS + 1000 * MILLI;
+
+        assertThat(pacer.releaseAtNanos(TICK + 1000, nextTickNanos, TICK + 1000)).isEqualTo(nextTickNanos);
+    }
+
+    @Test
+    public void notificationsOfEarlierSecondShouldNeitherBePacedNorTakeTokensOfCurrentOne() {
+        pacer.expect(TICK + 1000, 100);
+        val nextTickNanos = TICK_NANOS + 1000 * MILLI;
+        pacer.releaseAtNanos(TICK + 1000, nextTickNanos, TICK + 1000);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(pacer.releaseAtNanos(TICK, nextTickNanos, TICK + 1000)).isEqualTo(nextTickNanos);
+        }
+
+        assertThat(pacer.releaseAtNanos(TICK + 1000, nextTickNanos, TICK + 1000))
+            .isEqualTo(nextTickNanos + 5 * MILLI);
+    }
+
+    @Test
+    public void shouldNotWaitForNotificationsWhoseWindowHasPassed() {
+        pacer.expect(TICK, 1_000_000);
+        val tick = Clock.systemUTC().millis() - 1000;
+
+        val startedAt = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            pacer.await(tick);
+        }
+
+        assertThat(System.nanoTime() - startedAt).isLessThan(500 * MILLI);
+    }
+}
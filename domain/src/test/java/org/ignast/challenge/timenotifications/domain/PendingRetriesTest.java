@@ -0,0 +1,270 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class PendingRetriesTest {
+
+    private static final long TICK = 1_700_000_000_000L;
+
+    private static final URI URI_A = URI.create("http://a.com");
+
+    private static final DeliveryResult FAILED = new DeliveryResult(DeliveryOutcome.FAILED, 503, 1000);
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(TICK), ZoneOffset.UTC);
+
+    private final Semaphore pending = new Semaphore(10);
+
+    private final DeadLetterRing deadLetters = new DeadLetterRing(
+        DeadLetterRing.DEFAULT_CAPACITY_IN_BYTES,
+        new SimpleMeterRegistry()
+    );
+
+    private final PendingRetries retries = retries(new RetryPolicy(3, 100, 100), pending);
+
+    private final List<Retry> due = new ArrayList<>();
+
+    @Test
+    public void shouldRetryFailureOnceItsDelayPassed() {
+        retries.failed(URI_A, TICK, 1, FAILED);
+
+        retries.schedule(TICK, uri -> TICK + 10_000);
+        retries.drainUpTo(TICK + 100, this::collect);
+
+        assertThat(due).containsExactly(new Retry(URI_A, TICK, 2));
+        assertThat(retries.waiting()).isZero();
+        assertThat(pending.availablePermits()).isEqualTo(10);
+        assertThat(deadLetters.recent()).isEmpty();
+    }
+
+    @Test
+    public void shouldHoldRetryUntilItsDelayPassed() {
+        retries.failed(URI_A, TICK, 1, FAILED);
+
+        retries.schedule(TICK, uri -> TICK + 10_000);
+        retries.drainUpTo(TICK + 49, this::collect);
+
+        assertThat(due).isEmpty();
+        assertThat(retries.waiting()).isEqualTo(1);
+        assertThat(pending.availablePermits()).isEqualTo(9);
+        assertThat(retries.nextTickAfter(TICK + 49)).isLessThanOrEqualTo(TICK + 100);
+    }
+
+    @Test
+    public void shouldReuseSlotsOfRetriesHandedOver() {
+        IntStream
+            .range(0, 3)
+            .forEach(round -> {
+                val tick = TICK + round * 1000;
+                IntStream
+                    .range(0, 8)
+                    .forEach(i -> retries.failed(URI.create("http://u" + i), tick, 1, FAILED));
+                retries.schedule(tick, uri -> tick + 10_000);
+                retries.drainUpTo(tick + 100, this::collect);
+            });
+
+        assertThat(due).hasSize(24);
+        assertThat(retries.waiting()).isZero();
+    }
+
+    @Test
+    public void shouldGiveUpOnceEveryRetryFailed() {
+        retries.failed(URI_A, TICK - 5000, 4, FAILED);
+
+        assertThat(deadLetters.recent())
+            .containsExactly(
+                new DeadLetter(
+                    URI_A,
+                    TICK - 5000,
+                    4,
+                    DeliveryOutcome.FAILED,
+                    503,
+                    DeadLetter.Reason.EXHAUSTED,
+                    TICK
+                )
+            );
+        assertThat(pending.availablePermits()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldGiveUpOnFailuresBeyondThoseAllowedToWait() {
+        val capped = retries(new RetryPolicy(3, 100, 100), new Semaphore(1));
+
+        capped.failed(URI_A, TICK, 1, FAILED);
+        capped.failed(URI.create("http://b.com"), TICK, 1, FAILED);
+
+        assertThat(deadLetters.recent()).hasSize(1);
+        assertThat(deadLetters.recent().get(0).subscriptionUri()).isEqualTo(URI.create("http://b.com"));
+        assertThat(deadLetters.recent().get(0).reason()).isEqualTo(DeadLetter.Reason.OVER_CAP);
+    }
+
+    @Test
+    public void shouldGiveUpOnFailuresNotifiedAfreshBeforeTheyCouldBeRetried() {
+        retries.failed(URI_A, TICK, 1, FAILED);
+
+        retries.schedule(TICK, uri -> TICK + 50);
+
+        assertThat(retries.waiting()).isZero();
+        assertThat(pending.availablePermits()).isEqualTo(10);
+        assertThat(deadLetters.recent()).hasSize(1);
+        assertThat(deadLetters.recent().get(0).reason()).isEqualTo(DeadLetter.Reason.SUPERSEDED);
+    }
+
+    @Test
+    public void shouldForgetFailuresOfSubscriptionsNoLongerThere() {
+        retries.failed(URI_A, TICK, 1, FAILED);
+
+        retries.schedule(TICK, uri -> Retries.UNSUBSCRIBED);
+        retries.drainUpTo(TICK + 100, this::collect);
+
+        assertThat(due).isEmpty();
+        assertThat(pending.availablePermits()).isEqualTo(10);
+        assertThat(deadLetters.recent()).isEmpty();
+    }
+
+    private PendingRetries retries(final RetryPolicy policy, final Semaphore pending) {
+        return new PendingRetries(
+            policy,
+            pending,
+            deadLetters,
+            new TimingWheel(Timestamp.current(clock)),
+            clock
+        );
+    }
+
+    private void collect(final URI uri, final long scheduledAtMillis, final int attempt) {
+        due.add(new Retry(uri, scheduledAtMillis, attempt));
+    }
+
+    private record Retry(URI uri, long scheduledAtMillis, int attempt) {}
+}
+
+class RetryPolicyTest {
+
+    @Test
+    public void shouldRequirePositiveDelaysWithBaseWithinMax() {
+        assertThatThrownBy(() -> new RetryPolicy(-1, 100, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetryPolicy(3, 0, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetryPolicy(3, 100, 99)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldAllowAsManyRetriesAsConfigured() {
+        val policy = new RetryPolicy(2, 100, 1000);
+
+        assertThat(policy.allowsRetryAfter(1)).isTrue();
+        assertThat(policy.allowsRetryAfter(2)).isTrue();
+        assertThat(policy.allowsRetryAfter(3)).isFalse();
+    }
+
+    @Test
+    public void shouldNeverRetryWhenNoRetriesAreAllowed() {
+        assertThat(new RetryPolicy(0, 100, 1000).allowsRetryAfter(1)).isFalse();
+    }
+
+    @Test
+    public void delayShouldDoubleWithEveryAttemptUpToMaxLessRandomHalf() {
+        val policy = new RetryPolicy(10, 100, 1000);
+
+        IntStream
+            .range(0, 1000)
+            .forEach(i -> {
+                assertThat(policy.delayInMillis(1)).isBetween(50L, 100L);
+                assertThat(policy.delayInMillis(3)).isBetween(200L, 400L);
+                assertThat(policy.delayInMillis(10)).isBetween(500L, 1000L);
+            });
+    }
+
+    @Test
+    public void delayShouldNotOverflowHowEverManyAttempts() {
+        val policy = new RetryPolicy(Integer.MAX_VALUE, 1, Long.MAX_VALUE);
+
+        assertThat(policy.delayInMillis(Integer.MAX_VALUE)).isPositive();
+    }
+
+    @Test
+    public void delaysShouldBeSpreadSoThatFailuresAreNotRetriedInLockstep() {
+        val policy = new RetryPolicy(3, 1000, 1000);
+
+        val delays = IntStream.range(0, 100).mapToLong(i -> policy.delayInMillis(1)).distinct().count();
+
+        assertThat(delays).isGreaterThan(10);
+    }
+}
+
+class DeadLetterRingTest {
+
+    private static final URI URI_A = URI.create("http://a.com");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void shouldListMostRecentFirst() {
+        val ring = new DeadLetterRing(DeadLetterRing.DEFAULT_CAPACITY_IN_BYTES, meterRegistry);
+
+        ring.add(letter(1, DeadLetter.Reason.EXHAUSTED));
+        ring.add(letter(2, DeadLetter.Reason.EXHAUSTED));
+
+        assertThat(ring.recent()).extracting(DeadLetter::scheduledAtMillis).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void shouldEvictOldestToStayWithinCapacity() {
+        val single = new DeadLetterRing(DeadLetterRing.DEFAULT_CAPACITY_IN_BYTES, meterRegistry);
+        single.add(letter(0, DeadLetter.Reason.EXHAUSTED));
+        val ring = new DeadLetterRing(3 * single.bytes(), new SimpleMeterRegistry());
+
+        IntStream.range(0, 5).forEach(i -> ring.add(letter(i, DeadLetter.Reason.EXHAUSTED)));
+
+        assertThat(ring.recent()).extracting(DeadLetter::scheduledAtMillis).containsExactly(4L, 3L, 2L);
+        assertThat(ring.bytes()).isEqualTo(3 * single.bytes());
+    }
+
+    @Test
+    public void shouldNotKeepLetterLargerThanCapacity() {
+        val ring = new DeadLetterRing(10, meterRegistry);
+
+        ring.add(letter(1, DeadLetter.Reason.EXHAUSTED));
+
+        assertThat(ring.recent()).isEmpty();
+        assertThat(ring.bytes()).isZero();
+    }
+
+    @Test
+    public void shouldCountLettersByReasonEvenOnceEvicted() {
+        val ring = new DeadLetterRing(10, meterRegistry);
+
+        ring.add(letter(1, DeadLetter.Reason.OVER_CAP));
+        ring.add(letter(2, DeadLetter.Reason.OVER_CAP));
+        ring.add(letter(3, DeadLetter.Reason.SUPERSEDED));
+
+        assertThat(
+            meterRegistry.get("notifier.retry.dead-letters").tag("reason", "OVER_CAP").counter().count()
+        )
+            .isEqualTo(2);
+        assertThat(
+            meterRegistry.get("notifier.retry.dead-letters").tag("reason", "SUPERSEDED").counter().count()
+        )
+            .isEqualTo(1);
+        assertThat(
+            meterRegistry.get("notifier.retry.dead-letters").tag("reason", "EXHAUSTED").counter().count()
+        )
+            .isZero();
+    }
+
+    private static DeadLetter letter(final long scheduledAtMillis, final DeadLetter.Reason reason) {
+        return new DeadLetter(URI_A, scheduledAtMillis, 4, DeliveryOutcome.TIMED_OUT, 0, reason, 0);
+    }
+}
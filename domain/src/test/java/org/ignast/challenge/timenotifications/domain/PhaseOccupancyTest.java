@@ -0,0 +1,82 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class PhaseOccupancyTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final PhaseOccupancy occupancy = new PhaseOccupancy();
+
+    @Test
+    public void subscriptionsOfSamePeriodShouldBeSpreadOverEverySecondOfIt() {
+        val counts = new HashMap<Long, Integer>();
+        for (int i = 0; i < 400; i++) {
+            val occurrence = place(4000, NOW);
+            assertThat(occurrence).isBetween(NOW, NOW + 3000);
+            counts.merge(occurrence, 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4).allSatisfy((occurrence, count) -> assertThat(count).isEqualTo(100));
+    }
+
+    @Test
+    public void subscriptionShouldBePlacedAtPhaseLeftEmptyByRemovedOne() {
+        for (int i = 0; i < 4; i++) {
+            place(4000, NOW);
+        }
+        occupancy.vacate(4000, NOW + 2000 + 4000 * 10);
+
+        assertThat(place(4000, NOW + 4000)).isEqualTo(NOW + 4000 + 2000);
+    }
+
+    @Test
+    public void subscriptionsShouldAvoidPhasesOccupiedByThoseStartedRightAway() {
+        occupancy.occupy(4000, NOW);
+        occupancy.occupy(4000, NOW + 1000);
+
+        assertThat(place(4000, NOW)).isEqualTo(NOW + 2000);
+        assertThat(place(4000, NOW)).isEqualTo(NOW + 3000);
+    }
+
+    @Test
+    public void periodsNotInWholeSecondsShouldBeSpreadOverMilliseconds() {
+        assertThat(place(250, NOW)).isEqualTo(NOW);
+        assertThat(place(250, NOW)).isEqualTo(NOW + 1);
+        assertThat(occupancy.occupancyAt(250, NOW + 1)).isEqualTo(1);
+    }
+
+    @Test
+    public void phasesOfLongPeriodsShouldShareCountersAndStillFallOnWholeSeconds() {
+        val day = Duration.ofDays(1).toMillis();
+        for (int i = 0; i < PhaseOccupancy.MAX_BUCKETS; i++) {
+            val occurrence = place(day, NOW);
+            assertThat(occurrence % 1000).isEqualTo(NOW % 1000);
+            assertThat(occurrence).isBetween(NOW, NOW + day - 1);
+        }
+
+        for (long phase = 0; phase < day; phase += day / PhaseOccupancy.MAX_BUCKETS) {
+            assertThat(occupancy.occupancyAt(day, NOW + phase)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void subscriptionsOfPeriodsBeyondTheLimitShouldStartRightAway() {
+        for (int period = 1; period <= PhaseOccupancy.MAX_PERIODS; period++) {
+            place(period * 1000L, NOW);
+        }
+
+        assertThat(place(PhaseOccupancy.MAX_PERIODS * 1000L + 1000, NOW + 1)).isEqualTo(NOW + 1);
+    }
+
+    private long place(final long frequencyInMillis, final long nowInMillis) {
+        val occurrence = occupancy.firstOccurrence(frequencyInMillis, nowInMillis);
+        occupancy.occupy(frequencyInMillis, occurrence);
+        return occurrence;
+    }
+}
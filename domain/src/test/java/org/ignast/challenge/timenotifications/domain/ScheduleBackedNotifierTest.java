@@ -1,18 +1,31 @@
 package org.ignast.challenge.timenotifications.domain;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 import java.util.stream.IntStream;
 import lombok.val;
 import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class ScheduleBackedNotifierTest {
 
@@ -32,18 +45,18 @@ class ScheduleBackedNotifierTest {
 
     @Test
     public void shouldNotNotifyWhenThereAreZeroSubscribers() {
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, never()).send(any(), any());
+        verify(notificationSender, never()).send(any(), anyLong());
     }
 
     @Test
     public void shouldNotifySubscriber() {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -51,9 +64,9 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
         scheduleBackedNotifier.unsubscribe(URI_A);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, never()).send(URI_A, TIMESTAMP);
+        verify(notificationSender, never()).send(URI_A, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -62,31 +75,174 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.unsubscribe(URI_A);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
     }
 
     @Test
     public void onceNotifiedNextOccurrenceShouldBeRescheduled() {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+    }
+
+    @Test
+    public void subscriberNotifiedLessOftenThanTheWheelSpansShouldBeNotifiedOnEveryOccurrence() {
+        val week = Duration.ofDays(7);
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, week), TIMESTAMP);
+
+        val end = TIMESTAMP.getValueInMillis() + 2 * week.toMillis();
+        for (
+            var tick = TIMESTAMP.getValueInMillis();
+            tick <= end;
+            tick = scheduleBackedNotifier.nextTickAfter(tick)
+        ) {
+            scheduleBackedNotifier.notify(tick);
+        }
+
+        val inOrder = inOrder(notificationSender);
+        inOrder.verify(notificationSender).send(URI_A, TIMESTAMP.getValueInMillis());
+        inOrder.verify(notificationSender).send(URI_A, TIMESTAMP.getValueInMillis() + week.toMillis());
+        inOrder.verify(notificationSender).send(URI_A, end);
+        verify(notificationSender, times(3)).send(any(), anyLong());
+    }
+
+    @Test
+    public void infrequentSubscriberShouldBeCooledDownBetweenOccurrencesAndWarmedUpAheadOfThem() {
+        val hour = Duration.ofHours(1).toMillis();
+        val start = TIMESTAMP.getValueInMillis();
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, Duration.ofHours(1)), TIMESTAMP);
+
+        val warmUp = start + hour - ScheduleBackedNotifier.WARM_UP_AHEAD_IN_MILLIS;
+        var tick = start;
+        for (; tick < warmUp; tick = scheduleBackedNotifier.nextTickAfter(tick)) {
+            scheduleBackedNotifier.notify(tick);
+            assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isEqualTo(1);
+        }
+        scheduleBackedNotifier.notify(tick);
+        assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isZero();
+        for (; tick <= start + hour; tick = scheduleBackedNotifier.nextTickAfter(tick)) {
+            scheduleBackedNotifier.notify(tick);
+        }
+
+        val inOrder = inOrder(notificationSender);
+        inOrder.verify(notificationSender).send(URI_A, start);
+        inOrder.verify(notificationSender).send(URI_A, start + hour);
+        verify(notificationSender, times(2)).send(any(), anyLong());
+        assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cooledDownSubscriberShouldBeUnsubscribable() {
+        val start = TIMESTAMP.getValueInMillis();
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, Duration.ofHours(1)), TIMESTAMP);
+        scheduleBackedNotifier.notify(start);
+
+        scheduleBackedNotifier.unsubscribe(URI_A);
+
+        assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isZero();
+        scheduleBackedNotifier.notify(start + Duration.ofHours(1).toMillis());
+        verify(notificationSender, times(1)).send(any(), anyLong());
+    }
+
+    @Test
+    public void frequentSubscriberShouldStayOnHeap() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, Duration.ofMinutes(1)), TIMESTAMP);
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+
+        assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isZero();
+    }
+
+    @Test
+    public void infrequentSubscriberRestoredFarFromItsOccurrenceShouldBeCooledDownAndNotifiedOnTime() {
+        val start = TIMESTAMP.getValueInMillis();
+        val hour = Duration.ofHours(1).toMillis();
+        scheduleBackedNotifier.restore(
+            new PeriodicNotification(URI_A, Duration.ofHours(1)),
+            start - hour + 60_000,
+            TIMESTAMP
+        );
+
+        assertThat(scheduleBackedNotifier.coldSubscriptionCount()).isEqualTo(1);
+        for (var tick = start; tick <= start + 60_000; tick = scheduleBackedNotifier.nextTickAfter(tick)) {
+            scheduleBackedNotifier.notify(tick);
+        }
+
+        verify(notificationSender).send(URI_A, start + 60_000);
+        verify(notificationSender, times(1)).send(any(), anyLong());
+    }
+
+    @Test
+    public void subscribersImportedTogetherShouldBeSpreadOverTheirPeriodWhenPlacementIsBalanced() {
+        val balanced = new ScheduleBackedNotifier(
+            NotificationDispatch.inline(notificationSender),
+            new TimingWheel(),
+            new PhaseOccupancy(),
+            Retries.NONE
+        );
+        val start = TIMESTAMP.startOfNextSecond();
+        val firstOccurrences = new ArrayList<Long>();
+        for (int i = 0; i < 8; i++) {
+            firstOccurrences.add(
+                balanced.subscribe(new PeriodicNotification(URI.create("http://host" + i), 4), start)
+            );
+        }
+
+        for (int second = 0; second < 4; second++) {
+            balanced.notify(start.getValueInMillis() + second * 1000L);
+        }
+
+        for (int second = 0; second < 4; second++) {
+            verify(notificationSender, times(2)).send(any(), eq(start.getValueInMillis() + second * 1000L));
+        }
+        assertThat(firstOccurrences).allSatisfy(occurrence -> assertThat(occurrence % 1000).isZero());
+    }
+
+    @Test
+    public void subscriberAskingToStartNowShouldBeNotifiedRightAwayWhenPlacementIsBalanced() {
+        val balanced = new ScheduleBackedNotifier(
+            NotificationDispatch.inline(notificationSender),
+            new TimingWheel(),
+            new PhaseOccupancy(),
+            Retries.NONE
+        );
+        balanced.subscribe(new PeriodicNotification(URI_A, 4), TIMESTAMP);
+
+        val firstOccurrence = balanced.subscribe(
+            new PeriodicNotification(URI_B, Duration.ofSeconds(4), true),
+            TIMESTAMP
+        );
+        balanced.notify(TIMESTAMP.getValueInMillis());
+
+        assertThat(firstOccurrence).isEqualTo(TIMESTAMP.getValueInMillis());
+        verify(notificationSender).send(URI_B, TIMESTAMP.getValueInMillis());
+    }
+
+    @Test
+    public void subscriberShouldBeNotifiedRightAwayWhenPlacementIsImmediate() {
+        val firstOccurrence = scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 4), TIMESTAMP);
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, 4), TIMESTAMP);
+
+        assertThat(firstOccurrence).isEqualTo(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(2)).send(any(), eq(TIMESTAMP.getValueInMillis()));
     }
 
     @Test
     public void rescheduledResubscribedSubscriberShouldBeNotified() {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
         scheduleBackedNotifier.unsubscribe(URI_A);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(2)).send(URI_A, TIMESTAMP);
+        verify(notificationSender, times(2)).send(URI_A, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -94,10 +250,10 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, 6), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -106,10 +262,10 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, 6), TIMESTAMP);
         scheduleBackedNotifier.unsubscribe(URI_A);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, never()).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP);
+        verify(notificationSender, never()).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -118,10 +274,10 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, 6), TIMESTAMP);
         scheduleBackedNotifier.unsubscribe(URI_B);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, never()).send(URI_B, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, never()).send(URI_B, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -131,10 +287,10 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.unsubscribe(URI_A);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -144,10 +300,10 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.unsubscribe(URI_B);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, 6), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP);
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -157,12 +313,12 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, periodA), TIMESTAMP);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, periodB), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(periodA));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(periodB));
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(periodA).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(periodB).getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(periodA));
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(periodB));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(periodA).getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(periodB).getValueInMillis());
     }
 
     @Test
@@ -171,27 +327,27 @@ class ScheduleBackedNotifierTest {
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_B, period), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period));
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period).getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period));
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(period));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period).getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(period).getValueInMillis());
     }
 
     @Test
     public void shouldNotifyMultipleSubscribersAtCoincidingPeriodsJoiningAtDifferentTimes() {
         val period = 5;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
         scheduleBackedNotifier.subscribe(
             new PeriodicNotification(URI_B, period),
             TIMESTAMP.plusSeconds(period)
         );
 
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period));
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period).getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period));
-        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(period));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period).getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_B, TIMESTAMP.plusSeconds(period).getValueInMillis());
     }
 
     @Test
@@ -199,13 +355,14 @@ class ScheduleBackedNotifierTest {
         val period = 5;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * 2));
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period));
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period * 2));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(period).getValueInMillis());
+        verify(notificationSender, times(1))
+            .send(URI_A, TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
     }
 
     @Test
@@ -213,20 +370,23 @@ class ScheduleBackedNotifierTest {
         val initialPeriod = 5;
         val changedPeriod = 6;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, initialPeriod), TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
         scheduleBackedNotifier.unsubscribe(URI_A);
         scheduleBackedNotifier.subscribe(
             new PeriodicNotification(URI_A, changedPeriod),
             TIMESTAMP.plusSeconds(initialPeriod)
         );
 
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod));
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod).getValueInMillis());
+        scheduleBackedNotifier.notify(
+            TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod).getValueInMillis()
+        );
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(initialPeriod));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
         verify(notificationSender, times(1))
-            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod));
+            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).getValueInMillis());
+        verify(notificationSender, times(1))
+            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod).getValueInMillis());
     }
 
     @Test
@@ -235,25 +395,31 @@ class ScheduleBackedNotifierTest {
         val initialPeriod = 5;
         val changedPeriod = 6;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, initialPeriod), TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP);
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
         scheduleBackedNotifier.unsubscribe(URI_A);
         scheduleBackedNotifier.subscribe(
             new PeriodicNotification(URI_A, changedPeriod),
             TIMESTAMP.plusSeconds(randomMoment)
         );
 
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(randomMoment));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(randomMoment).plusSeconds(changedPeriod));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod));
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(randomMoment).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(initialPeriod).getValueInMillis());
+        scheduleBackedNotifier.notify(
+            TIMESTAMP.plusSeconds(randomMoment).plusSeconds(changedPeriod).getValueInMillis()
+        );
+        scheduleBackedNotifier.notify(
+            TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod).getValueInMillis()
+        );
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.plusSeconds(randomMoment));
-        verify(notificationSender, never()).send(URI_A, TIMESTAMP.plusSeconds(initialPeriod));
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1))
+            .send(URI_A, TIMESTAMP.plusSeconds(randomMoment).getValueInMillis());
+        verify(notificationSender, never())
+            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).getValueInMillis());
         verify(notificationSender, times(1))
-            .send(URI_A, TIMESTAMP.plusSeconds(randomMoment).plusSeconds(changedPeriod));
+            .send(URI_A, TIMESTAMP.plusSeconds(randomMoment).plusSeconds(changedPeriod).getValueInMillis());
         verify(notificationSender, never())
-            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod));
+            .send(URI_A, TIMESTAMP.plusSeconds(initialPeriod).plusSeconds(changedPeriod).getValueInMillis());
     }
 
     @Test
@@ -261,11 +427,96 @@ class ScheduleBackedNotifierTest {
         val period = 5;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * 2));
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
+
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, never()).send(URI_A, TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
+    }
+
+    @Test
+    public void shouldResumeSkippedSubscriberAtItsSubsequentOccurrence() {
+        val period = 5;
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period + 2).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
+
+        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP.getValueInMillis());
+        verify(notificationSender, times(1))
+            .send(URI_A, TIMESTAMP.plusSeconds(period * 2).getValueInMillis());
+        verify(notificationSender, times(2)).send(any(), anyLong());
+    }
+
+    @Test
+    public void shouldNotifySubscriberWithSubSecondPeriods() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, Duration.ofMillis(250)), TIMESTAMP);
+
+        IntStream
+            .range(0, 8)
+            .forEach(i -> scheduleBackedNotifier.notify(TIMESTAMP.plusMillis(250 * i).getValueInMillis()));
+
+        IntStream
+            .range(0, 8)
+            .forEach(i ->
+                verify(notificationSender).send(URI_A, TIMESTAMP.plusMillis(250 * i).getValueInMillis())
+            );
+        verify(notificationSender, times(8)).send(any(), anyLong());
+    }
+
+    @Test
+    public void shouldTickAtNextSubSecondOccurrence() {
+        val startOfSecond = TIMESTAMP.startOfNextSecond();
+        scheduleBackedNotifier.subscribe(
+            new PeriodicNotification(URI_A, Duration.ofMillis(250)),
+            startOfSecond
+        );
+
+        scheduleBackedNotifier.notify(startOfSecond.getValueInMillis());
+
+        assertThat(scheduleBackedNotifier.nextTickAfter(startOfSecond.getValueInMillis()))
+            .isEqualTo(startOfSecond.plusMillis(250).getValueInMillis());
+    }
+
+    @Test
+    public void shouldTickOncePerSecondWhenNoSubSecondOccurrenceIsDue() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
 
-        verify(notificationSender, times(1)).send(URI_A, TIMESTAMP);
-        verify(notificationSender, never()).send(URI_A, TIMESTAMP.plusSeconds(period * 2));
+        assertThat(scheduleBackedNotifier.nextTickAfter(TIMESTAMP.getValueInMillis()))
+            .isEqualTo(TIMESTAMP.startOfNextSecond().getValueInMillis());
+    }
+
+    @Test
+    public void shouldResumeRestoredSubscriberInPhaseWithItsFirstOccurrence() {
+        val firstOccurrence = TIMESTAMP.plusSeconds(-12);
+        scheduleBackedNotifier.restore(
+            new PeriodicNotification(URI_A, 5),
+            firstOccurrence.getValueInMillis(),
+            TIMESTAMP
+        );
+
+        IntStream
+            .range(0, 6)
+            .forEach(i -> scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(i).getValueInMillis()));
+
+        verify(notificationSender).send(URI_A, firstOccurrence.plusSeconds(15).getValueInMillis());
+        verify(notificationSender, times(1)).send(any(), anyLong());
+    }
+
+    @Test
+    public void shouldNotifyRestoredSubscriberWhoseFirstOccurrenceIsNow() {
+        scheduleBackedNotifier.restore(
+            new PeriodicNotification(URI_A, 5),
+            TIMESTAMP.getValueInMillis(),
+            TIMESTAMP
+        );
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+
+        verify(notificationSender).send(URI_A, TIMESTAMP.getValueInMillis());
     }
 
     @Test
@@ -273,12 +524,12 @@ class ScheduleBackedNotifierTest {
         val period = 3;
         scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, period), TIMESTAMP);
 
-        scheduleBackedNotifier.notify(TIMESTAMP);
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(1));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(2));
-        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(4));
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(1).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(2).getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(4).getValueInMillis());
 
-        verify(notificationSender, times(1)).send(any(), any());
+        verify(notificationSender, times(1)).send(any(), anyLong());
     }
 
     @Test
@@ -289,17 +540,157 @@ class ScheduleBackedNotifierTest {
         IntStream
             .range(0, 15)
             .forEach(i -> {
-                scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * i));
+                scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(period * i).getValueInMillis());
 
-                verify(notificationSender).send(URI_A, TIMESTAMP.plusSeconds(period * i));
+                verify(notificationSender).send(URI_A, TIMESTAMP.plusSeconds(period * i).getValueInMillis());
             });
     }
 }
 
+class ScheduleBackedNotifierDispatchTest {
+
+    private static final Timestamp TIMESTAMP = Timestamp.current().plusSeconds(10);
+
+    private final List<DueNotifications> dispatched = new ArrayList<>();
+
+    private final ScheduleBackedNotifier scheduleBackedNotifier = new ScheduleBackedNotifier(
+        dispatched::add,
+        new TimingWheel(),
+        PhaseOccupancy.IMMEDIATE,
+        Retries.NONE
+    );
+
+    @Test
+    public void shouldNotDispatchAnythingWhenNothingIsDue() {
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+
+        assertThat(dispatched).isEmpty();
+    }
+
+    @Test
+    public void shouldHandOverNotificationsDueInTickInFullBatches() {
+        val dueNotifications = DueNotifications.CAPACITY + 1;
+        IntStream
+            .range(0, dueNotifications)
+            .forEach(i ->
+                scheduleBackedNotifier.subscribe(
+                    new PeriodicNotification(URI.create("http://uri" + i), 5),
+                    TIMESTAMP
+                )
+            );
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+
+        assertThat(dispatched).hasSize(2);
+        assertThat(dispatched.get(0).size()).isEqualTo(DueNotifications.CAPACITY);
+        assertThat(dispatched.get(1).size()).isEqualTo(1);
+        assertThat(dispatched)
+            .allSatisfy(due -> assertThat(due.tickInMillis()).isEqualTo(TIMESTAMP.getValueInMillis()));
+    }
+
+    @Test
+    public void shouldStartNewBatchEveryTick() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI.create("http://uri"), 5), TIMESTAMP);
+
+        scheduleBackedNotifier.notify(TIMESTAMP.getValueInMillis());
+        scheduleBackedNotifier.notify(TIMESTAMP.plusSeconds(5).getValueInMillis());
+
+        assertThat(dispatched).hasSize(2);
+        assertThat(dispatched.get(1).tickInMillis()).isEqualTo(TIMESTAMP.plusSeconds(5).getValueInMillis());
+        assertThat(dispatched.get(1).uri(0)).isEqualTo(URI.create("http://uri"));
+    }
+}
+
+class ScheduleBackedNotifierRetryTest {
+
+    private static final Timestamp TIMESTAMP = Timestamp.current().plusSeconds(10);
+
+    private static final long TICK = TIMESTAMP.getValueInMillis();
+
+    private static final URI URI_A = URI.create("http://uriA");
+
+    private static final DeliveryResult FAILED = new DeliveryResult(DeliveryOutcome.TIMED_OUT, 0, 1000);
+
+    private final List<DueNotifications> dispatched = new ArrayList<>();
+
+    private final Retries retries = new PendingRetries(
+        new RetryPolicy(3, 1, 1),
+        new Semaphore(10),
+        new DeadLetterRing(DeadLetterRing.DEFAULT_CAPACITY_IN_BYTES, new SimpleMeterRegistry()),
+        new TimingWheel(),
+        Clock.systemUTC()
+    );
+
+    private final ScheduleBackedNotifier scheduleBackedNotifier = new ScheduleBackedNotifier(
+        dispatched::add,
+        new TimingWheel(),
+        PhaseOccupancy.IMMEDIATE,
+        retries
+    );
+
+    @Test
+    public void shouldHaveFailuresOfRegularNotificationsRetried() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
+
+        scheduleBackedNotifier.notify(TICK);
+
+        assertThat(dispatched).hasSize(1);
+        assertThat(dispatched.get(0).retries()).isSameAs(retries);
+        assertThat(dispatched.get(0).attempt()).isEqualTo(1);
+        assertThat(dispatched.get(0).dueAtInMillis()).isEqualTo(TICK);
+    }
+
+    @Test
+    public void shouldRetryFailedNotificationCarryingMomentItWasDueAt() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
+        scheduleBackedNotifier.notify(TICK);
+
+        retries.failed(URI_A, TICK, 1, FAILED);
+        scheduleBackedNotifier.notify(TICK + 1);
+        assertThat(scheduleBackedNotifier.nextTickAfter(TICK + 1)).isEqualTo(TICK + 2);
+        scheduleBackedNotifier.notify(TICK + 2);
+
+        assertThat(dispatched).hasSize(2);
+        assertThat(dispatched.get(1).uri(0)).isEqualTo(URI_A);
+        assertThat(dispatched.get(1).tickInMillis()).isEqualTo(TICK);
+        assertThat(dispatched.get(1).attempt()).isEqualTo(2);
+        assertThat(dispatched.get(1).retries()).isSameAs(retries);
+        assertThat(dispatched.get(1).dueAtInMillis()).isEqualTo(TICK + 2);
+    }
+
+    @Test
+    public void shouldNotRetryNotificationOfSubscriptionNotifiedAfreshAtSameTick() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
+        scheduleBackedNotifier.notify(TICK);
+
+        retries.failed(URI_A, TICK, 1, FAILED);
+        scheduleBackedNotifier.notify(TICK + 1);
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP.plusMillis(2));
+        scheduleBackedNotifier.notify(TICK + 2);
+
+        assertThat(dispatched).hasSize(2);
+        assertThat(dispatched.get(1).tickInMillis()).isEqualTo(TICK + 2);
+        assertThat(dispatched.get(1).attempt()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRetryNotificationOfSubscriptionNoLongerThere() {
+        scheduleBackedNotifier.subscribe(new PeriodicNotification(URI_A, 5), TIMESTAMP);
+        scheduleBackedNotifier.notify(TICK);
+
+        retries.failed(URI_A, TICK, 1, FAILED);
+        scheduleBackedNotifier.unsubscribe(URI_A);
+        scheduleBackedNotifier.notify(TICK + 1);
+        scheduleBackedNotifier.notify(TICK + 2);
+
+        assertThat(dispatched).hasSize(1);
+    }
+}
+
 class TimestampTransformingNotificationSenderTest {
 
     private static final URI ANY_URI = URI.create("http://any");
-    private static final int MILLIS_EPOCH_UTC_YEAR_2030 = 1893456001;
+    private static final long MILLIS_EPOCH_UTC_YEAR_2030 = 1893456001000L;
     private final NotificationSender notificationSender = mock(NotificationSender.class);
 
     private final ZonedDateTime UTC_YEAR_2030 = ZonedDateTime.of(2030, 1, 1, 0, 0, 1, 0, ZoneId.of("UTC"));
@@ -309,13 +700,44 @@ class TimestampTransformingNotificationSenderTest {
     );
 
     @Test
-    public void shouldTransformTimestampToDate() {
-        val now = Timestamp.current();
-        val valueInSeconds = now.getValueInSeconds();
-        val year2030 = now.plusSeconds(MILLIS_EPOCH_UTC_YEAR_2030 - valueInSeconds);
+    public void shouldTransformEpochMillisToDate() {
+        timestampTransformingNotificationSender.send(ANY_URI, MILLIS_EPOCH_UTC_YEAR_2030);
+
+        verify(notificationSender)
+            .send(
+                eq(ANY_URI),
+                argThat((NotificationPayload payload) -> payload.time().equals(UTC_YEAR_2030))
+            );
+    }
 
-        timestampTransformingNotificationSender.send(ANY_URI, year2030);
+    @Test
+    public void shouldRenderPayloadAsJson() {
+        timestampTransformingNotificationSender.send(ANY_URI, MILLIS_EPOCH_UTC_YEAR_2030);
+
+        verify(notificationSender)
+            .send(
+                eq(ANY_URI),
+                argThat((NotificationPayload payload) ->
+                    StandardCharsets.UTF_8
+                        .decode(payload.body())
+                        .toString()
+                        .equals("{\"time\":\"2030-01-01T00:00:01Z[UTC]\"}")
+                )
+            );
+    }
 
-        verify(notificationSender).send(ANY_URI, UTC_YEAR_2030);
+    @Test
+    public void shouldShareRenderedPayloadBetweenNotificationsOfSameTick() {
+        val tick = MILLIS_EPOCH_UTC_YEAR_2030;
+        val payloads = ArgumentCaptor.forClass(NotificationPayload.class);
+
+        timestampTransformingNotificationSender.send(ANY_URI, tick);
+        timestampTransformingNotificationSender.send(URI.create("http://other"), tick);
+        timestampTransformingNotificationSender.send(ANY_URI, tick + 1);
+
+        verify(notificationSender, times(3)).send(any(URI.class), payloads.capture());
+        assertThat(payloads.getAllValues().get(1)).isSameAs(payloads.getAllValues().get(0));
+        assertThat(payloads.getAllValues().get(2)).isNotSameAs(payloads.getAllValues().get(0));
+        assertThat(payloads.getAllValues().get(2).time()).isEqualTo(UTC_YEAR_2030.plusNanos(1_000_000));
     }
 }
@@ -0,0 +1,204 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.ScheduleBackedNotifier.TimestampTransformingNotificationSender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScheduleSnapshotTest {
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    private static final URI URI_B = URI.create("http://def.com");
+
+    private static final Timestamp STARTED_AT = Timestamp.ofEpochMillis(1_600_000_000_250L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldReadBackEverySubscriptionWithItsNextOccurrence() throws IOException {
+        val encoder = new ScheduleSnapshot.Encoder(STARTED_AT);
+        encoder.accept(URI_A, 250, STARTED_AT.getValueInMillis() - 100);
+        encoder.accept(URI_B, 4 * 60 * 60 * 1000, STARTED_AT.getValueInMillis() + 3_600_000);
+        encoder.end();
+        val file = directory.resolve("shard-0.1.snapshot");
+        Files.write(file, encoder.takeChunk());
+
+        val read = new ArrayList<String>();
+        ScheduleSnapshot.read(
+            file,
+            new MappedJournal.Entries() {
+                @Override
+                public void added(
+                    final PeriodicNotification notification,
+                    final long nextOccurrenceInMillis
+                ) {
+                    read.add(notification + " at " + nextOccurrenceInMillis);
+                }
+
+                @Override
+                public void removed(final URI uri) {}
+            }
+        );
+
+        assertThat(read)
+            .containsExactly(
+                new PeriodicNotification(URI_A, Duration.ofMillis(250)) +
+                " at " +
+                (STARTED_AT.getValueInMillis() - 100),
+                new PeriodicNotification(URI_B, Duration.ofHours(4)) +
+                " at " +
+                (STARTED_AT.getValueInMillis() + 3_600_000)
+            );
+    }
+
+    @Test
+    public void shouldTakeAboutTwentyBytesPerSubscriptionBesidesItsUri() {
+        val encoder = new ScheduleSnapshot.Encoder(STARTED_AT);
+        encoder.takeChunk();
+
+        encoder.accept(URI_A, 5000, STARTED_AT.getValueInMillis() + 4000);
+
+        assertThat(encoder.takeChunk().length).isLessThanOrEqualTo(URI_A.toString().length() + 20);
+    }
+
+    @Test
+    public void shouldRefuseFilesThatAreNotSnapshots() throws IOException {
+        val file = directory.resolve("shard-0.1.snapshot");
+        Files.write(file, new byte[] { 1, 2, 3, 4 });
+
+        assertThatIllegalStateException().isThrownBy(() -> ScheduleSnapshot.read(file, null));
+    }
+}
+
+class GenerationalJournalTest {
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final TimestampTransformingNotificationSender sender = mock(
+        TimestampTransformingNotificationSender.class
+    );
+
+    @Test
+    public void shouldNotSnapshotBeforeIntervalHasPassed() throws InterruptedException {
+        val writer = Executors.newSingleThreadExecutor();
+        val journal = openJournal(Duration.ofMinutes(10), writer);
+
+        journal.snapshot(new ScheduleBackedNotifier(sender), Timestamp.current().getValueInMillis());
+        awaitWritten(writer);
+
+        assertThat(GenerationalJournal.latestSnapshotGeneration(directory, 0)).isEmpty();
+        assertThat(GenerationalJournal.journalGenerations(directory, 0)).containsExactly(0L, 1L);
+    }
+
+    @Test
+    public void shouldSwitchToNewGenerationAndDropOlderOnesOnceSnapshotIsComplete()
+        throws InterruptedException {
+        val writer = Executors.newSingleThreadExecutor();
+        val journal = openJournal(Duration.ZERO, writer);
+        val notifier = new ScheduleBackedNotifier(sender);
+        val tick = Timestamp.current();
+        val subscriptions = GenerationalJournal.SUBSCRIPTIONS_SNAPSHOTTED_PER_TICK + 10;
+        IntStream
+            .range(0, subscriptions)
+            .forEach(i -> notifier.subscribe(new PeriodicNotification(uri(i), 5), tick));
+
+        journal.snapshot(notifier, tick.getValueInMillis());
+        journal.append(new RemoveSubscription(uri(0)), tick);
+        journal.snapshot(notifier, tick.plusMillis(1).getValueInMillis());
+        journal.close();
+        awaitWritten(writer);
+
+        assertThat(GenerationalJournal.latestSnapshotGeneration(directory, 0)).hasValue(1);
+        assertThat(GenerationalJournal.journalGenerations(directory, 0)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void shouldRecoverSnapshotAndJournalWrittenSinceInPhase() throws InterruptedException {
+        val writer = Executors.newSingleThreadExecutor();
+        val journal = openJournal(Duration.ZERO, writer);
+        val notifier = new ScheduleBackedNotifier(sender);
+        val subscribedAt = Timestamp.current().plusSeconds(-3);
+        notifier.subscribe(new PeriodicNotification(URI_A, 5), subscribedAt);
+        notifier.subscribe(new PeriodicNotification(uri(1), 5), subscribedAt);
+        journal.snapshot(notifier, Timestamp.current().getValueInMillis());
+        journal.append(new RemoveSubscription(uri(1)), Timestamp.current());
+        journal.close();
+        awaitWritten(writer);
+
+        val recovered = new ScheduleBackedNotifier(sender);
+        new ShardJournals(directory.toString(), 1, Duration.ofMinutes(10))
+            .recover(0, recovered, new SimpleMeterRegistry())
+            .close();
+        val restartedAt = subscribedAt.plusSeconds(4);
+        IntStream.range(0, 5).forEach(i -> recovered.notify(restartedAt.plusSeconds(i).getValueInMillis()));
+
+        verify(sender, times(1)).send(URI_A, subscribedAt.plusSeconds(5).getValueInMillis());
+        verify(sender, never()).send(URI_A, restartedAt.getValueInMillis());
+        verify(sender, never()).send(eq(uri(1)), anyLong());
+    }
+
+    private GenerationalJournal openJournal(final Duration interval, final ExecutorService writer) {
+        return new GenerationalJournal(
+            directory,
+            0,
+            0,
+            MappedJournal.open(
+                GenerationalJournal.journalFile(directory, 0, 0),
+                SEGMENT_BYTES,
+                NoEntries.INSTANCE
+            ),
+            SEGMENT_BYTES,
+            interval,
+            writer,
+            Clock.systemUTC()
+        );
+    }
+
+    private static void awaitWritten(final ExecutorService writer) throws InterruptedException {
+        writer.shutdown();
+        assertThat(writer.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static URI uri(final int i) {
+        return URI.create("http://host" + i + ".com");
+    }
+
+    private enum NoEntries implements MappedJournal.Entries {
+        INSTANCE;
+
+        @Override
+        public void added(final PeriodicNotification notification, final long firstOccurrenceInMillis) {}
+
+        @Override
+        public void removed(final URI uri) {}
+    }
+}
@@ -0,0 +1,217 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class ScheduleTableTest {
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    private static final URI URI_B = URI.create("http://def.com");
+
+    private final ScheduleTable table = new ScheduleTable();
+
+    @Test
+    public void tableShouldInitiallyNotContainUris() {
+        assertThat(table.idOf(URI_A)).isEqualTo(ScheduleTable.ABSENT);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    public void tableShouldPreserveScheduleOfAddedUri() {
+        val id = table.add(URI_A, 5, 100);
+
+        assertThat(table.idOf(URI_A)).isEqualTo(id);
+        assertThat(table.uri(id)).isEqualTo(URI_A);
+        assertThat(table.frequencyInMillis(id)).isEqualTo(5);
+        assertThat(table.nextOccurrenceInMillis(id)).isEqualTo(100);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void tableShouldIssueDistinctIds() {
+        val idA = table.add(URI_A, 5, 100);
+        val idB = table.add(URI_B, 6, 100);
+
+        assertThat(idA).isNotEqualTo(idB);
+        assertThat(table.idOf(URI_B)).isEqualTo(idB);
+    }
+
+    @Test
+    public void tableShouldRollNextOccurrence() {
+        val id = table.add(URI_A, 5, 100);
+
+        table.setNextOccurrenceInMillis(id, 105);
+
+        assertThat(table.nextOccurrenceInMillis(id)).isEqualTo(105);
+    }
+
+    @Test
+    public void tableShouldForgetRemovedUris() {
+        val id = table.add(URI_A, 5, 100);
+        table.add(URI_B, 6, 100);
+
+        table.remove(id);
+
+        assertThat(table.idOf(URI_A)).isEqualTo(ScheduleTable.ABSENT);
+        assertThat(table.idOf(URI_B)).isNotEqualTo(ScheduleTable.ABSENT);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void tableShouldRecycleIdsOfRemovedUris() {
+        val id = table.add(URI_A, 5, 100);
+        table.remove(id);
+
+        assertThat(table.add(URI_B, 6, 100)).isEqualTo(id);
+    }
+
+    @Test
+    public void tableShouldKeepIdsDenseAndFindableWhileGrowingAndShrinking() {
+        val uris = IntStream
+            .range(0, 10_000)
+            .mapToObj(i -> URI.create("http://host" + i))
+            .toArray(URI[]::new);
+        val ids = new HashSet<Integer>();
+        for (val uri : uris) {
+            ids.add(table.add(uri, 4, 0));
+        }
+        for (int i = 0; i < uris.length; i += 2) {
+            table.remove(table.idOf(uris[i]));
+        }
+
+        assertThat(ids).hasSize(uris.length).allMatch(id -> id < uris.length);
+        for (int i = 0; i < uris.length; i++) {
+            val id = table.idOf(uris[i]);
+            if (i % 2 == 0) {
+                assertThat(id).isEqualTo(ScheduleTable.ABSENT);
+            } else {
+                assertThat(table.uri(id)).isEqualTo(uris[i]);
+            }
+        }
+    }
+
+    @Test
+    public void tableShouldBeWalkedThroughInChunks() {
+        table.add(URI_A, 5, 100);
+        val removed = table.add(URI.create("http://removed.com"), 5, 100);
+        table.add(URI_B, 6, 200);
+        table.remove(removed);
+        val walked = new ArrayList<String>();
+
+        val carryOnFrom = table.forEachFrom(
+            0,
+            1,
+            (uri, frequency, next) -> walked.add(uri + " " + frequency + " " + next)
+        );
+        val end = table.forEachFrom(
+            carryOnFrom,
+            1,
+            (uri, frequency, next) -> walked.add(uri + " " + frequency + " " + next)
+        );
+
+        assertThat(walked).containsExactly(URI_A + " 5 100", URI_B + " 6 200");
+        assertThat(end).isEqualTo(ScheduleTable.ABSENT);
+    }
+}
+
+class ScheduleTableColdTierTest {
+
+    private static final URI URI_A = URI.create("http://abc.com/a");
+
+    private static final URI URI_B = URI.create("http://abc.com/b");
+
+    private final ScheduleTable table = new ScheduleTable();
+
+    @Test
+    public void cooledDownUriShouldStillBeFoundAndLoaded() {
+        val id = table.add(URI_A, 5, 100);
+
+        table.coolDown(id);
+
+        assertThat(table.isCold(id)).isTrue();
+        assertThat(table.coldSize()).isEqualTo(1);
+        assertThat(table.idOf(URI_A)).isEqualTo(id);
+        assertThat(table.idOf(URI_B)).isEqualTo(ScheduleTable.ABSENT);
+        assertThat(table.uri(id)).isEqualTo(URI_A);
+    }
+
+    @Test
+    public void cooledDownUriShouldBeFoundByEqualUriSpelledDifferently() {
+        val id = table.add(URI.create("http://ABC.com/a"), 5, 100);
+
+        table.coolDown(id);
+
+        assertThat(table.idOf(URI_A)).isEqualTo(id);
+    }
+
+    @Test
+    public void warmedUpUriShouldBeBackOnHeap() {
+        val id = table.add(URI_A, 5, 100);
+        table.coolDown(id);
+
+        table.warmUp(id);
+
+        assertThat(table.isCold(id)).isFalse();
+        assertThat(table.coldSize()).isZero();
+        assertThat(table.uri(id)).isEqualTo(URI_A);
+        assertThat(table.idOf(URI_A)).isEqualTo(id);
+    }
+
+    @Test
+    public void removedColdUriShouldBeForgottenAndItsIdReissuedWarm() {
+        val id = table.add(URI_A, 5, 100);
+        table.coolDown(id);
+
+        table.remove(id);
+
+        assertThat(table.idOf(URI_A)).isEqualTo(ScheduleTable.ABSENT);
+        assertThat(table.coldSize()).isZero();
+        assertThat(table.add(URI_B, 6, 100)).isEqualTo(id);
+        assertThat(table.isCold(id)).isFalse();
+    }
+
+    @Test
+    public void coldUrisShouldBeWalkedThroughAlongWithWarmOnes() {
+        table.coolDown(table.add(URI_A, 5, 100));
+        table.add(URI_B, 6, 200);
+        val walked = new ArrayList<String>();
+        val visited = new ArrayList<URI>();
+
+        table.forEachFrom(0, 10, (uri, frequency, next) -> walked.add(uri + " " + frequency + " " + next));
+        table.forEachUri(visited::add);
+
+        assertThat(walked).containsExactly(URI_A + " 5 100", URI_B + " 6 200");
+        assertThat(visited).containsExactly(URI_A, URI_B);
+    }
+
+    @Test
+    public void manyColdUrisShouldRemainFindableWhileGrowingAndShrinking() {
+        val uris = IntStream
+            .range(0, 10_000)
+            .mapToObj(i -> URI.create("http://host" + i + "/" + "x".repeat(i % 300)))
+            .toArray(URI[]::new);
+        for (val uri : uris) {
+            table.coolDown(table.add(uri, 4, 0));
+        }
+        for (int i = 0; i < uris.length; i += 2) {
+            table.remove(table.idOf(uris[i]));
+        }
+
+        for (int i = 0; i < uris.length; i++) {
+            val id = table.idOf(uris[i]);
+            if (i % 2 == 0) {
+                assertThat(id).isEqualTo(ScheduleTable.ABSENT);
+            } else {
+                assertThat(table.uri(id)).isEqualTo(uris[i]);
+            }
+        }
+        assertThat(table.coldSize()).isEqualTo(uris.length / 2);
+    }
+}
@@ -0,0 +1,75 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class ShardedInboxesTest {
+
+    private static final URI URI_A = URI.create("http://abc.com");
+
+    @Test
+    public void shouldRequireAtLeastOneShard() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ShardedInboxes(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ShardedInboxes(List.of()));
+    }
+
+    @Test
+    public void shouldHaveSeparateInboxPerShard() {
+        val inboxes = new ShardedInboxes(3);
+
+        assertThat(inboxes.count()).isEqualTo(3);
+        assertThat(inboxes.ofShard(0)).isNotSameAs(inboxes.ofShard(1)).isNotSameAs(inboxes.ofShard(2));
+    }
+
+    @Test
+    public void singleShardShouldOwnEveryUri() {
+        val inboxes = new ShardedInboxes(1);
+
+        assertThat(inboxes.ofOwner(URI_A)).isSameAs(inboxes.ofShard(0));
+    }
+
+    @Test
+    public void uriShouldAlwaysBeOwnedBySameShard() {
+        val inboxes = new ShardedInboxes(8);
+
+        assertThat(inboxes.ofOwner(URI.create("http://abc.com"))).isSameAs(inboxes.ofOwner(URI_A));
+        assertThat(inboxes.ofOwner(URI_A)).isSameAs(inboxes.ofShard(inboxes.shardOf(URI_A)));
+    }
+
+    @Test
+    public void urisShouldBeSpreadAcrossAllShards() {
+        val inboxes = new ShardedInboxes(8);
+
+        val owners = IntStream
+            .range(0, 1000)
+            .map(i -> inboxes.shardOf(URI.create("http://host" + i + ".com")))
+            .distinct()
+            .count();
+
+        assertThat(owners).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldExposeDepthAndRejectionsOfEachShard() {
+        val inboxes = new ShardedInboxes(2, 2, OverflowPolicy.FAIL_FAST);
+        val meterRegistry = new SimpleMeterRegistry();
+        inboxes.bindTo(meterRegistry);
+
+        inboxes.ofShard(1).offer(new RemoveSubscription(URI_A), new RemoveSubscription(URI_A));
+        assertThatThrownBy(() -> inboxes.ofShard(1).offer(new RemoveSubscription(URI_A)))
+            .isInstanceOf(InboxOverflowException.class);
+
+        assertThat(meterRegistry.get("notifier.inbox.depth").tag("shard", "0").gauge().value()).isZero();
+        assertThat(meterRegistry.get("notifier.inbox.depth").tag("shard", "1").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("notifier.inbox.rejections").tag("shard", "1").functionCounter().count())
+            .isEqualTo(1);
+    }
+}
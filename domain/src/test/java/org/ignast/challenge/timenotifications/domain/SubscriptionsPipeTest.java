@@ -1,17 +1,27 @@
 package org.ignast.challenge.timenotifications.domain;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+import lombok.val;
 import org.junit.jupiter.api.Test;
 
 class SubscriptionsPipeTest {
 
     private static final URI URI = java.net.URI.create("http://someuri");
-    private final ConcurrentLinkedQueue<AlterSubscriptions> pipe = new ConcurrentLinkedQueue<>();
+    private final BoundedInbox pipe = new BoundedInbox(16, OverflowPolicy.FAIL_FAST);
 
-    private final Subscriptions subscriptionPipe = new SubscriptionsPipe(pipe);
+    private final Subscriptions subscriptionPipe = new SubscriptionsPipe(new ShardedInboxes(List.of(pipe)));
 
     @Test
     public void shouldRegisterSubscription() {
@@ -22,6 +32,46 @@ class SubscriptionsPipeTest {
         assertThat(pipe.poll()).isNull();
     }
 
+    @Test
+    public void shouldBeDurableRightAwayWithoutJournal() {
+        subscriptionPipe.subscribe(new PeriodicNotification(URI, 3));
+
+        assertThat(subscriptionPipe.whenDurable(List.of(URI)).toCompletableFuture()).isCompleted();
+    }
+
+    @Test
+    public void shouldBeDurableOnceJournaledChangesAreCommitted() {
+        val journaledPipe = new SubscriptionsPipe(
+            new ShardedInboxes(List.of(pipe)),
+            "journal",
+            Duration.ofSeconds(5)
+        );
+        journaledPipe.subscribe(new PeriodicNotification(URI, 3));
+
+        val durable = journaledPipe.whenDurable(List.of(URI)).toCompletableFuture();
+
+        assertThat(durable).isNotDone();
+        pipe.poll();
+        pipe.committed();
+        assertThat(durable).isCompleted();
+    }
+
+    @Test
+    public void shouldGiveUpWaitingForChangesNeverCommitted() {
+        val journaledPipe = new SubscriptionsPipe(
+            new ShardedInboxes(List.of(pipe)),
+            "journal",
+            Duration.ofMillis(10)
+        );
+        journaledPipe.subscribe(new PeriodicNotification(URI, 3));
+
+        val durable = journaledPipe.whenDurable(List.of(URI)).toCompletableFuture();
+
+        assertThatThrownBy(() -> durable.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+    }
+
     @Test
     public void shouldNotRegisterSameSubscriptionTwice() {
         subscriptionPipe.subscribe(new PeriodicNotification(URI, 3));
@@ -110,4 +160,217 @@ class SubscriptionsPipeTest {
         assertThat(pipe.poll()).isEqualTo(new RemoveSubscription(URI));
         assertThat(pipe.poll()).isNull();
     }
+
+    @Test
+    public void shouldNotHoldUpWritersToOtherShardsWhileBatchWaitsForRoom() throws Exception {
+        val inboxes = new ShardedInboxes(2, 2, OverflowPolicy.BLOCK);
+        val sharedPipe = new SubscriptionsPipe(inboxes);
+        val uris = IntStream
+            .iterate(0, i -> i + 1)
+            .mapToObj(i -> java.net.URI.create("http://host" + i))
+            .filter(uri -> inboxes.shardOf(uri) == 0)
+            .limit(3)
+            .toList();
+        val sharingStripe = IntStream
+            .iterate(0, i -> i + 1)
+            .mapToObj(i -> java.net.URI.create("http://other" + i))
+            .filter(uri -> inboxes.shardOf(uri) == 1)
+            .filter(uri -> stripeOf(uri) == stripeOf(uris.get(2)))
+            .findFirst()
+            .orElseThrow();
+        sharedPipe.subscribe(new PeriodicNotification(uris.get(0), 3));
+        sharedPipe.subscribe(new PeriodicNotification(uris.get(1), 3));
+        val writers = Executors.newFixedThreadPool(2);
+
+        val blocked = writers.submit(() ->
+            sharedPipe.subscribeAll(List.of(new PeriodicNotification(uris.get(2), 3)))
+        );
+
+        try {
+            assertThatThrownBy(() -> blocked.get(50, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+            assertThat(
+                writers
+                    .submit(() -> sharedPipe.subscribe(new PeriodicNotification(sharingStripe, 3)))
+                    .get(5, TimeUnit.SECONDS)
+            )
+                .isTrue();
+            inboxes.ofShard(0).poll();
+            assertThat(blocked.get(5, TimeUnit.SECONDS)).containsExactly(SubscriptionOutcome.SUBSCRIBED);
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldLeaveRegistrationsUntouchedWhenInboxRejectsChange() {
+        val fullPipe = new SubscriptionsPipe(
+            new ShardedInboxes(List.of(new BoundedInbox(2, OverflowPolicy.FAIL_FAST)))
+        );
+        fullPipe.subscribe(new PeriodicNotification(URI, 3));
+        fullPipe.subscribe(new PeriodicNotification(java.net.URI.create("http://otheruri"), 3));
+
+        assertThatThrownBy(() -> fullPipe.unsubscribe(URI)).isInstanceOf(InboxOverflowException.class);
+        assertThatThrownBy(() -> fullPipe.reschedule(new PeriodicNotification(URI, 4)))
+            .isInstanceOf(InboxOverflowException.class);
+        assertThat(fullPipe.subscribe(new PeriodicNotification(URI, 3))).isFalse();
+        val rejectedUri = java.net.URI.create("http://rejecteduri");
+        assertThatThrownBy(() -> fullPipe.subscribe(new PeriodicNotification(rejectedUri, 3)))
+            .isInstanceOf(InboxOverflowException.class);
+        assertThat(fullPipe.unsubscribe(rejectedUri)).isFalse();
+    }
+
+    @Test
+    public void shouldRescheduleWithoutLosingSubscriptionWhenInboxIsFull() {
+        val inbox = new BoundedInbox(2, OverflowPolicy.FAIL_FAST);
+        val nearlyFullPipe = new SubscriptionsPipe(new ShardedInboxes(List.of(inbox)));
+        nearlyFullPipe.subscribe(new PeriodicNotification(URI, 3));
+
+        assertThatThrownBy(() -> nearlyFullPipe.reschedule(new PeriodicNotification(URI, 4)))
+            .isInstanceOf(InboxOverflowException.class);
+        assertThat(inbox.poll()).isEqualTo(new AddSubscription(new PeriodicNotification(URI, 3)));
+        assertThat(inbox.poll()).isNull();
+        assertThat(nearlyFullPipe.unsubscribe(URI)).isTrue();
+    }
+
+    @Test
+    public void shouldRouteInstructionsToInboxOfShardOwningTheUri() {
+        val inboxes = new ShardedInboxes(4);
+        val shardedPipe = new SubscriptionsPipe(inboxes);
+
+        shardedPipe.subscribe(new PeriodicNotification(URI, 3));
+        shardedPipe.unsubscribe(URI);
+
+        val owner = inboxes.ofOwner(URI);
+        assertThat(owner.poll()).isEqualTo(new AddSubscription(new PeriodicNotification(URI, 3)));
+        assertThat(owner.poll()).isEqualTo(new RemoveSubscription(URI));
+        IntStream
+            .range(0, inboxes.count())
+            .forEach(shard -> assertThat(inboxes.ofShard(shard).size()).isZero());
+    }
+
+    @Test
+    public void shouldHandOverBatchAsSingleInstructionReportingOutcomeOfEachSubscription() {
+        subscriptionPipe.subscribe(new PeriodicNotification(URI, 3));
+        pipe.poll();
+        val other = java.net.URI.create("http://otheruri");
+
+        val outcomes = subscriptionPipe.subscribeAll(
+            List.of(
+                new PeriodicNotification(URI, 4),
+                new PeriodicNotification(other, 5),
+                new PeriodicNotification(other, 6)
+            )
+        );
+
+        assertThat(outcomes)
+            .containsExactly(
+                SubscriptionOutcome.ALREADY_REGISTERED,
+                SubscriptionOutcome.SUBSCRIBED,
+                SubscriptionOutcome.ALREADY_REGISTERED
+            );
+        assertThat(pipe.poll()).isEqualTo(new AddSubscriptions(List.of(new PeriodicNotification(other, 5))));
+        assertThat(pipe.poll()).isNull();
+        assertThat(subscriptionPipe.unsubscribe(other)).isTrue();
+    }
+
+    @Test
+    public void shouldSplitLargeBatchesIntoSeveralInstructions() {
+        val subscriptions = IntStream
+            .range(0, SubscriptionsPipe.MAX_SUBSCRIPTIONS_PER_MESSAGE + 1)
+            .mapToObj(i -> new PeriodicNotification(java.net.URI.create("http://uri" + i), 3))
+            .toList();
+
+        subscriptionPipe.subscribeAll(subscriptions);
+
+        val first = (AddSubscriptions) pipe.poll();
+        val second = (AddSubscriptions) pipe.poll();
+        assertThat(first.notifications()).hasSize(SubscriptionsPipe.MAX_SUBSCRIPTIONS_PER_MESSAGE);
+        assertThat(second.notifications()).containsExactly(subscriptions.get(subscriptions.size() - 1));
+        assertThat(pipe.poll()).isNull();
+    }
+
+    @Test
+    public void shouldReportBatchAsOverloadedAndLeaveItUnregisteredWhenInboxRejectsIt() {
+        val fullPipe = new SubscriptionsPipe(
+            new ShardedInboxes(List.of(new BoundedInbox(2, OverflowPolicy.FAIL_FAST)))
+        );
+        fullPipe.subscribe(new PeriodicNotification(java.net.URI.create("http://uri1"), 3));
+        fullPipe.subscribe(new PeriodicNotification(java.net.URI.create("http://uri2"), 3));
+
+        val outcomes = fullPipe.subscribeAll(List.of(new PeriodicNotification(URI, 3)));
+
+        assertThat(outcomes).containsExactly(SubscriptionOutcome.OVERLOADED);
+        assertThat(fullPipe.unsubscribe(URI)).isFalse();
+    }
+
+    @Test
+    public void shouldRouteEachPartOfBatchToInboxOfShardOwningIt() {
+        val inboxes = new ShardedInboxes(4);
+        val shardedPipe = new SubscriptionsPipe(inboxes);
+        val subscriptions = IntStream
+            .range(0, 20)
+            .mapToObj(i -> new PeriodicNotification(java.net.URI.create("http://uri" + i), 3))
+            .toList();
+
+        shardedPipe.subscribeAll(subscriptions);
+
+        for (int shard = 0; shard < inboxes.count(); shard++) {
+            val expectedShard = shard;
+            val batch = (AddSubscriptions) inboxes.ofShard(shard).poll();
+            assertThat(batch.notifications())
+                .containsExactlyElementsOf(
+                    subscriptions
+                        .stream()
+                        .filter(s -> inboxes.shardOf(s.subscriptionUri()) == expectedShard)
+                        .toList()
+                );
+            assertThat(inboxes.ofShard(shard).poll()).isNull();
+        }
+    }
+
+    @Test
+    public void shouldKeepRegistryAndInstructionsInAgreementWhenAlteredConcurrently() throws Exception {
+        val inbox = new BoundedInbox(1024, OverflowPolicy.SPILL);
+        val concurrentPipe = new SubscriptionsPipe(new ShardedInboxes(List.of(inbox)));
+        val uris = IntStream.range(0, 8).mapToObj(i -> java.net.URI.create("http://uri" + i)).toList();
+        val threads = 8;
+        val executor = Executors.newFixedThreadPool(threads);
+        val start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            val seed = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    val uri = uris.get((i + seed) % uris.size());
+                    switch ((i * 7 + seed) % 3) {
+                        case 0 -> concurrentPipe.subscribe(new PeriodicNotification(uri, 3));
+                        case 1 -> concurrentPipe.reschedule(new PeriodicNotification(uri, 4));
+                        default -> concurrentPipe.unsubscribe(uri);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        val scheduled = new HashSet<java.net.URI>();
+        for (AlterSubscriptions instruction = inbox.poll(); instruction != null; instruction = inbox.poll()) {
+            if (instruction instanceof AddSubscription) {
+                assertThat(scheduled.add(((AddSubscription) instruction).notification().subscriptionUri()))
+                    .isTrue();
+            } else {
+                assertThat(scheduled.remove(((RemoveSubscription) instruction).uri())).isTrue();
+            }
+        }
+        for (val uri : uris) {
+            assertThat(concurrentPipe.unsubscribe(uri)).isEqualTo(scheduled.contains(uri));
+        }
+    }
+
+    private static int stripeOf(final URI uri) {
+        return Math.floorMod(uri.hashCode(), SubscriptionsPipe.LOCK_STRIPES);
+    }
 }
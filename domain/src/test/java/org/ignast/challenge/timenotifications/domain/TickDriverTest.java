@@ -0,0 +1,121 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class TickDriverTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TickDriver tickDriver = new TickDriver(meterRegistry, 0);
+
+    @Test
+    public void shouldNotStartTickEarly() {
+        val tick = System.currentTimeMillis() + 50;
+
+        tickDriver.awaitEpochMillis(tick);
+
+        assertThat(System.currentTimeMillis()).isGreaterThanOrEqualTo(tick);
+    }
+
+    @Test
+    public void shouldReportHowLateMissedTickWasStarted() {
+        val late = tickDriver.awaitEpochMillis(System.currentTimeMillis() - 2000);
+
+        assertThat(late).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(1999)).isLessThan(SECONDS.toNanos(3));
+        assertThat(meterRegistry.get("notifier.tick.overruns").tag("shard", "0").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRecordLatenessOfEveryTick() {
+        val now = System.currentTimeMillis();
+
+        tickDriver.awaitEpochMillis(now + 10);
+        tickDriver.awaitEpochMillis(now + 20);
+
+        assertThat(meterRegistry.get("notifier.tick.lateness").tag("shard", "0").timer().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get("notifier.tick.overruns").counter().count()).isZero();
+    }
+
+    @Test
+    public void shouldStopWaitingWhenInterrupted() {
+        Thread.currentThread().interrupt();
+
+        val late = tickDriver.awaitEpochMillis(System.currentTimeMillis() + 60_000);
+        Thread.interrupted();
+
+        assertThat(late).isNegative();
+    }
+
+    @Test
+    public void firingErrorShouldBeWellUnder5MillisAt99thPercentile() {
+        val rounds = LongStream.generate(() -> p99LatenessOfTicksEvery5Millis(200)).limit(3);
+
+        assertThat(rounds.min().getAsLong())
+            .describedAs("best p99 lateness out of 3 rounds, as a busy host can stall the whole jvm")
+            .isLessThan(MILLISECONDS.toNanos(5));
+    }
+
+    private long p99LatenessOfTicksEvery5Millis(final int ticks) {
+        val lateness = new long[ticks];
+        val firstTick = System.currentTimeMillis() + 5;
+        for (int i = 0; i < ticks; i++) {
+            lateness[i] = tickDriver.awaitEpochMillis(firstTick + i * 5L);
+        }
+        Arrays.sort(lateness);
+        assertThat(lateness[0]).isNotNegative();
+        return lateness[ticks * 99 / 100 - 1];
+    }
+}
+
+class VirtualTickDriverTest {
+
+    private static final long NOW = 1_600_000_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final VirtualClock clock = new VirtualClock(NOW);
+
+    private final TickDriver tickDriver = new VirtualTickDriver(meterRegistry, 0, clock);
+
+    @Test
+    public void shouldMoveClockToTickRatherThanWaitForIt() {
+        val late = tickDriver.awaitEpochMillis(NOW + HOURS.toMillis(1));
+
+        assertThat(late).isZero();
+        assertThat(clock.millis()).isEqualTo(NOW + HOURS.toMillis(1));
+        assertThat(tickDriver.currentTimeMillis()).isEqualTo(NOW + HOURS.toMillis(1));
+    }
+
+    @Test
+    public void shouldReportTicksTheClockHasAlreadyPassedAsLate() {
+        clock.advanceTo(NOW + 3000);
+
+        val late = tickDriver.awaitEpochMillis(NOW + 1000);
+
+        assertThat(late).isEqualTo(SECONDS.toNanos(2));
+        assertThat(clock.millis()).isEqualTo(NOW + 3000);
+        assertThat(meterRegistry.get("notifier.tick.overruns").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotMoveClockWhenInterrupted() {
+        Thread.currentThread().interrupt();
+
+        val late = tickDriver.awaitEpochMillis(NOW + 1000);
+        Thread.interrupted();
+
+        assertThat(late).isNegative();
+        assertThat(clock.millis()).isEqualTo(NOW);
+    }
+}
@@ -15,17 +15,22 @@ class TimestampTest {
 
     @Test
     public void shouldBeRepresentableAsString() {
-        assertThat(Timestamp.current().toString()).startsWith("Timestamp(valueInSeconds=1");
+        assertThat(Timestamp.current().toString()).startsWith("Timestamp(valueInMillis=1");
     }
 
     @Test
-    public void shouldPreserveTimestampInSeconds() {
-        val currentTimeSeconds = (int) (System.currentTimeMillis() / 1000l);
+    public void shouldPreserveTimestampInMillis() {
+        val currentTimeMillis = System.currentTimeMillis();
 
         val timestamp = Timestamp.current();
 
-        assertThat(timestamp.getValueInSeconds()).isGreaterThanOrEqualTo(currentTimeSeconds);
-        assertThat(timestamp.getValueInSeconds()).isLessThanOrEqualTo(currentTimeSeconds + 1);
+        assertThat(timestamp.getValueInMillis()).isGreaterThanOrEqualTo(currentTimeMillis);
+        assertThat(timestamp.getValueInMillis()).isLessThanOrEqualTo(currentTimeMillis + 1000);
+    }
+
+    @Test
+    public void shouldBeCreatableFromEpochMillis() {
+        assertThat(Timestamp.ofEpochMillis(1250).getValueInMillis()).isEqualTo(1250);
     }
 
     @Test
@@ -33,7 +38,20 @@ class TimestampTest {
         val now = Timestamp.current();
         val oneSecondInTheFuture = now.plusSeconds(1);
 
-        assertThat(now.getValueInSeconds() + 1).isEqualTo(oneSecondInTheFuture.getValueInSeconds());
+        assertThat(now.getValueInMillis() + 1000).isEqualTo(oneSecondInTheFuture.getValueInMillis());
+    }
+
+    @Test
+    public void shouldProvideTimestampMillisecondsInTheFuture() {
+        assertThat(Timestamp.ofEpochMillis(1000).plusMillis(250)).isEqualTo(Timestamp.ofEpochMillis(1250));
+    }
+
+    @Test
+    public void shouldProvideStartOfNextSecond() {
+        assertThat(Timestamp.ofEpochMillis(1250).startOfNextSecond())
+            .isEqualTo(Timestamp.ofEpochMillis(2000));
+        assertThat(Timestamp.ofEpochMillis(2000).startOfNextSecond())
+            .isEqualTo(Timestamp.ofEpochMillis(3000));
     }
 
     @Test
@@ -0,0 +1,257 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    private static final int ID_A = 0;
+
+    private static final int ID_B = 1;
+
+    private static final long SECOND = 1000;
+
+    private static final long MILLIS_IN_4_HOURS = 4 * 60 * 60 * SECOND;
+
+    private static final long DAY = 24 * 60 * 60 * SECOND;
+
+    private final Timestamp current = Timestamp.current();
+
+    private final long now = current.getValueInMillis();
+
+    private final TimingWheel wheel = new TimingWheel(current);
+
+    @Test
+    public void wheelShouldInitiallyNotContainIds() {
+        assertThat(drainUpTo(now)).isEmpty();
+    }
+
+    @Test
+    public void wheelShouldHandOverIdsAtTheirOccurrence() {
+        wheel.add(ID_A, now + SECOND);
+
+        assertThat(drainUpTo(now)).isEmpty();
+        assertThat(drainUpTo(now + SECOND)).containsExactly(entry(ID_A, now + SECOND));
+    }
+
+    @Test
+    public void wheelShouldHandOverIdsOnlyOnce() {
+        wheel.add(ID_A, now);
+
+        drainUpTo(now);
+
+        assertThat(drainUpTo(now)).isEmpty();
+        assertThat(drainUpTo(now + SECOND)).isEmpty();
+    }
+
+    @Test
+    public void wheelShouldHandOverAllIdsSharingOccurrence() {
+        wheel.add(ID_A, now + SECOND);
+        wheel.add(ID_B, now + SECOND);
+
+        assertThat(drainUpTo(now + SECOND)).containsOnlyKeys(ID_A, ID_B);
+    }
+
+    @Test
+    public void wheelShouldNotHandOverRemovedIds() {
+        wheel.add(ID_A, now + SECOND);
+        wheel.add(ID_B, now + SECOND);
+        wheel.remove(ID_A);
+
+        assertThat(drainUpTo(now + SECOND)).containsOnlyKeys(ID_B);
+    }
+
+    @Test
+    public void wheelShouldIgnoreRemovalOfIdsItDoesNotContain() {
+        wheel.add(ID_A, now + SECOND);
+        wheel.remove(ID_B);
+        wheel.remove(ID_A);
+        wheel.remove(ID_A);
+
+        assertThat(drainUpTo(now + SECOND)).isEmpty();
+    }
+
+    @Test
+    public void wheelShouldMoveReaddedIds() {
+        wheel.add(ID_A, now + SECOND);
+        wheel.add(ID_A, now + 2 * SECOND);
+
+        assertThat(drainUpTo(now + SECOND)).isEmpty();
+        assertThat(drainUpTo(now + 2 * SECOND)).containsExactly(entry(ID_A, now + 2 * SECOND));
+    }
+
+    @Test
+    public void wheelShouldCascadeIdsScheduledMinutesAhead() {
+        wheel.add(ID_A, now + 150 * SECOND);
+
+        assertThat(drainUpTo(now + 149 * SECOND)).isEmpty();
+        assertThat(drainUpTo(now + 150 * SECOND)).containsExactly(entry(ID_A, now + 150 * SECOND));
+    }
+
+    @Test
+    public void wheelShouldCascadeIdsScheduledHoursAhead() {
+        wheel.add(ID_A, now + MILLIS_IN_4_HOURS);
+
+        assertThat(drainUpTo(now + MILLIS_IN_4_HOURS - SECOND)).isEmpty();
+        assertThat(drainUpTo(now + MILLIS_IN_4_HOURS)).containsExactly(entry(ID_A, now + MILLIS_IN_4_HOURS));
+    }
+
+    @Test
+    public void wheelShouldRemoveIdsAfterTheyWereCascaded() {
+        wheel.add(ID_A, now + 150 * SECOND);
+        drainUpTo(now + 140 * SECOND);
+
+        wheel.remove(ID_A);
+
+        assertThat(drainUpTo(now + 150 * SECOND)).isEmpty();
+    }
+
+    @Test
+    public void wheelShouldHandOverSkippedIdsWithTheirOriginalOccurrence() {
+        wheel.add(ID_A, now + 2 * SECOND);
+
+        assertThat(drainUpTo(now + 5 * SECOND)).containsExactly(entry(ID_A, now + 2 * SECOND));
+    }
+
+    @Test
+    public void wheelShouldHandOverIdsAddedToAlreadyDrainedTickOnceTheWheelMovesOn() {
+        drainUpTo(now);
+        wheel.add(ID_A, now);
+
+        assertThat(drainUpTo(now + SECOND)).containsExactly(entry(ID_A, now));
+    }
+
+    @Test
+    public void wheelShouldAccommodateManyIds() {
+        val ids = 5000;
+        for (int id = 0; id < ids; id++) {
+            wheel.add(id, now + (1 + id % 7) * SECOND);
+        }
+
+        val drained = drainUpTo(now + 7 * SECOND);
+
+        assertThat(drained).hasSize(ids);
+    }
+
+    @Test
+    public void wheelShouldHandOverIdsAtMillisecondsWithinSecond() {
+        wheel.add(ID_A, now + 250);
+        wheel.add(ID_B, now + 1250);
+
+        assertThat(drainUpTo(now + 249)).isEmpty();
+        assertThat(drainUpTo(now + 250)).containsExactly(entry(ID_A, now + 250));
+        assertThat(drainUpTo(now + 1249)).isEmpty();
+        assertThat(drainUpTo(now + 1250)).containsExactly(entry(ID_B, now + 1250));
+    }
+
+    @Test
+    public void wheelShouldHandOverSkippedSubSecondIdsWithTheirOriginalOccurrence() {
+        wheel.add(ID_A, now + 250);
+
+        assertThat(drainUpTo(now + 2 * SECOND)).containsExactly(entry(ID_A, now + 250));
+    }
+
+    @Test
+    public void nextTickShouldBeStartOfNextSecondWhenNothingIsDueWithinCurrentOne() {
+        val startOfSecond = current.startOfNextSecond().getValueInMillis();
+        drainUpTo(startOfSecond);
+        wheel.add(ID_A, startOfSecond + 3 * SECOND);
+
+        assertThat(wheel.nextTickAfter(startOfSecond)).isEqualTo(startOfSecond + SECOND);
+    }
+
+    @Test
+    public void nextTickShouldBeNextOccupiedMillisecondWithinCurrentSecond() {
+        val startOfSecond = current.startOfNextSecond().getValueInMillis();
+        drainUpTo(startOfSecond);
+        wheel.add(ID_A, startOfSecond + 500);
+        wheel.add(ID_B, startOfSecond + 250);
+
+        assertThat(wheel.nextTickAfter(startOfSecond)).isEqualTo(startOfSecond + 250);
+        drainUpTo(startOfSecond + 250);
+        assertThat(wheel.nextTickAfter(startOfSecond + 250)).isEqualTo(startOfSecond + 500);
+        drainUpTo(startOfSecond + 500);
+        assertThat(wheel.nextTickAfter(startOfSecond + 500)).isEqualTo(startOfSecond + SECOND);
+    }
+
+    @Test
+    public void nextTickShouldBeNextOccupiedMillisecondOnceSubSecondIdsCascadeIntoCurrentSecond() {
+        val startOfSecond = current.startOfNextSecond().getValueInMillis();
+        drainUpTo(startOfSecond);
+        wheel.add(ID_A, startOfSecond + SECOND + 750);
+
+        drainUpTo(startOfSecond + SECOND);
+
+        assertThat(wheel.nextTickAfter(startOfSecond + SECOND)).isEqualTo(startOfSecond + SECOND + 750);
+    }
+
+    @Test
+    public void wheelShouldHandOverIdsDueBeyondItsHorizonAtTheirOccurrence() {
+        wheel.add(ID_A, now + 7 * DAY);
+
+        assertThat(drainUpTo(now + 7 * DAY - 1)).isEmpty();
+        assertThat(drainUpTo(now + 7 * DAY)).containsExactly(entry(ID_A, now + 7 * DAY));
+    }
+
+    @Test
+    public void wheelShouldNotHandOverIdsRemovedBeyondItsHorizon() {
+        wheel.add(ID_A, now + DAY);
+        wheel.add(ID_B, now + 2 * DAY);
+
+        wheel.remove(ID_A);
+
+        assertThat(drainUpTo(now + 2 * DAY)).containsExactly(entry(ID_B, now + 2 * DAY));
+    }
+
+    @Test
+    public void wheelShouldMoveIdsBetweenOverflowAndWheel() {
+        wheel.add(ID_A, now + DAY);
+        wheel.add(ID_A, now + SECOND);
+        wheel.add(ID_B, now + SECOND);
+        wheel.add(ID_B, now + DAY);
+
+        assertThat(drainUpTo(now + SECOND)).containsExactly(entry(ID_A, now + SECOND));
+        assertThat(drainUpTo(now + DAY)).containsExactly(entry(ID_B, now + DAY));
+    }
+
+    @Test
+    public void wheelShouldHandOverEveryIdDueBeyondItsHorizonExactlyOnTime() {
+        val random = new Random(42);
+        val occurrences = new HashMap<Integer, Long>();
+        for (int id = 0; id < 500; id++) {
+            val occurrence = now + MILLIS_IN_4_HOURS * 2 + (long) (random.nextDouble() * 10 * DAY);
+            occurrences.put(id, occurrence);
+            wheel.add(id, occurrence);
+        }
+        for (int id = 0; id < 500; id += 5) {
+            wheel.remove(id);
+            occurrences.remove(id);
+        }
+
+        val drained = new HashMap<Integer, Long>();
+        for (var tick = now; tick <= now + 11 * DAY; tick = wheel.nextTickAfter(tick)) {
+            val currentTick = tick;
+            wheel.drainUpTo(
+                tick,
+                (id, occurrence) -> {
+                    assertThat(occurrence).isEqualTo(currentTick);
+                    drained.put(id, occurrence);
+                }
+            );
+        }
+
+        assertThat(drained).isEqualTo(occurrences);
+    }
+
+    private Map<Integer, Long> drainUpTo(final long tick) {
+        val drained = new HashMap<Integer, Long>();
+        wheel.drainUpTo(tick, drained::put);
+        return drained;
+    }
+}
@@ -0,0 +1,49 @@
+package org.ignast.challenge.timenotifications.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class UriArenaTest {
+
+    private final UriArena arena = new UriArena();
+
+    @Test
+    public void arenaShouldLoadStoredUrisOfAnyLength() {
+        val shortUri = URI.create("http://a");
+        val longUri = URI.create("http://host/" + "x".repeat(100_000));
+
+        val shortHandle = arena.store(shortUri);
+        val longHandle = arena.store(longUri);
+
+        assertThat(arena.load(shortHandle)).isEqualTo(shortUri);
+        assertThat(arena.load(longHandle)).isEqualTo(longUri);
+    }
+
+    @Test
+    public void arenaShouldReuseFreedSlots() {
+        val handle = arena.store(URI.create("http://a"));
+        val reserved = arena.reservedBytes();
+        arena.free(handle);
+
+        val reused = arena.store(URI.create("http://b"));
+
+        assertThat(reused).isEqualTo(handle);
+        assertThat(arena.load(reused)).isEqualTo(URI.create("http://b"));
+        assertThat(arena.reservedBytes()).isEqualTo(reserved);
+    }
+
+    @Test
+    public void arenaShouldTellWhetherEntryHoldsUri() {
+        val uri = URI.create("http://abc.com/a");
+        val handle = arena.store(uri);
+
+        assertThat(arena.holds(handle, UriArena.encode(uri), uri)).isTrue();
+        val differentlySpelled = URI.create("http://ABC.com/a");
+        assertThat(arena.holds(handle, UriArena.encode(differentlySpelled), differentlySpelled)).isTrue();
+        val other = URI.create("http://abc.com/b");
+        assertThat(arena.holds(handle, UriArena.encode(other), other)).isFalse();
+    }
+}
@@ -0,0 +1,80 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+/**
+ * Opens after {@link #failureThreshold} consecutive failures, then lets one probe through per wait, doubling
+ * the wait up to {@link #MAX_BACKOFF} times while probes fail. A probe that never completes is replaced.
+ */
+final class CircuitBreaker {
+
+    static final int MAX_BACKOFF = 32;
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private int backoff = 1;
+
+    private long retryAtNanos;
+
+    CircuitBreaker(final int failureThreshold, final long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * @return whether a notification may be sent, which in half-open state makes it the probe
+     */
+    synchronized boolean allows(final long nowNanos) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (nowNanos - retryAtNanos < 0) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        retryAtNanos = nowNanos + openNanos * backoff;
+        return true;
+    }
+
+    synchronized void succeeded() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        backoff = 1;
+    }
+
+    synchronized void failed(final long nowNanos) {
+        if (state == State.HALF_OPEN) {
+            backoff = Math.min(MAX_BACKOFF, backoff * 2);
+            open(nowNanos);
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open(nowNanos);
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized long nanosUntilRetry(final long nowNanos) {
+        return state == State.CLOSED ? 0 : Math.max(0, retryAtNanos - nowNanos);
+    }
+
+    private void open(final long nowNanos) {
+        state = State.OPEN;
+        retryAtNanos = nowNanos + openNanos * backoff;
+    }
+}
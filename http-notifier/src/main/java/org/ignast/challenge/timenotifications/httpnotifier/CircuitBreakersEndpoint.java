@@ -0,0 +1,57 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.val;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lists open or half-open breakers only; any breaker can be looked up by host, with its port if not default.
+ */
+@Component
+@Endpoint(id = "breakers")
+public class CircuitBreakersEndpoint {
+
+    private final HttpNotifier httpNotifier;
+
+    public CircuitBreakersEndpoint(final HttpNotifier httpNotifier) {
+        this.httpNotifier = httpNotifier;
+    }
+
+    @ReadOperation
+    public Map<String, BreakerState> tripped() {
+        val nowNanos = System.nanoTime();
+        val tripped = new TreeMap<String, BreakerState>();
+        httpNotifier
+            .breakers()
+            .forEach((host, breaker) -> {
+                val state = BreakerState.of(breaker, nowNanos);
+                if (!CircuitBreaker.State.CLOSED.name().equals(state.state())) {
+                    tripped.put(host, state);
+                }
+            });
+        return tripped;
+    }
+
+    /**
+     * @return state of the breaker, or nothing if the host has not been notified, which answers 404
+     */
+    @ReadOperation
+    public BreakerState host(@Selector final String host) {
+        val breaker = httpNotifier.breakerOf(host);
+        return breaker == null ? null : BreakerState.of(breaker, System.nanoTime());
+    }
+
+    public record BreakerState(String state, int consecutiveFailures, long millisUntilProbe) {
+        private static BreakerState of(final CircuitBreaker breaker, final long nowNanos) {
+            return new BreakerState(
+                breaker.state().name(),
+                breaker.consecutiveFailures(),
+                breaker.nanosUntilRetry(nowNanos) / 1_000_000
+            );
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import lombok.val;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "deliveries")
+public class DeliveriesEndpoint {
+
+    private final HttpNotifier httpNotifier;
+
+    public DeliveriesEndpoint(final HttpNotifier httpNotifier) {
+        this.httpNotifier = httpNotifier;
+    }
+
+    @ReadOperation
+    public DeliveryStats.Summary overall() {
+        return httpNotifier.deliveryStats().summary();
+    }
+
+    /**
+     * @return outcomes of notifications to the host, or nothing if it has not been notified, which answers 404
+     */
+    @ReadOperation
+    public DeliveryStats.Summary host(@Selector final String host) {
+        val stats = httpNotifier.deliveryStatsOf(host);
+        return stats == null ? null : stats.summary();
+    }
+}
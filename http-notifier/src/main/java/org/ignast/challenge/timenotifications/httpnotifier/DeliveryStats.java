@@ -0,0 +1,61 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+import org.ignast.challenge.timenotifications.domain.DeliveryResult;
+
+/**
+ * Thread safe.
+ */
+final class DeliveryStats {
+
+    private static final DeliveryOutcome[] OUTCOMES = DeliveryOutcome.values();
+
+    private static final double MICROS_PER_MILLI = 1000;
+
+    private final AtomicLongArray outcomes = new AtomicLongArray(OUTCOMES.length);
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    void record(final DeliveryResult result) {
+        outcomes.incrementAndGet(result.outcome().ordinal());
+        if (result.outcome().attempted()) {
+            latency.record(result.latencyNanos());
+        }
+    }
+
+    long count(final DeliveryOutcome outcome) {
+        return outcomes.get(outcome.ordinal());
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+
+    Summary summary() {
+        val counts = new EnumMap<DeliveryOutcome, Long>(DeliveryOutcome.class);
+        for (val outcome : OUTCOMES) {
+            if (count(outcome) > 0) {
+                counts.put(outcome, count(outcome));
+            }
+        }
+        return new Summary(
+            counts,
+            latency.microsAtPercentile(50) / MICROS_PER_MILLI,
+            latency.microsAtPercentile(99) / MICROS_PER_MILLI,
+            latency.microsAtPercentile(99.9) / MICROS_PER_MILLI,
+            latency.highestMicros() / MICROS_PER_MILLI
+        );
+    }
+
+    public record Summary(
+        Map<DeliveryOutcome, Long> outcomes,
+        double p50Millis,
+        double p99Millis,
+        double p999Millis,
+        double maxMillis
+    ) {}
+}
@@ -0,0 +1,9 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+public enum ExcessPolicy {
+    /**
+     * Holds it until a request to the same host completes, shedding it only once that host's queue is full.
+     */
+    QUEUE,
+    SHED,
+}
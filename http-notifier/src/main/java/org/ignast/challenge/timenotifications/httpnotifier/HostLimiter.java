@@ -0,0 +1,233 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+
+/**
+ * Adaptive limit of requests in flight to a single host. It is halved at most once for requests started
+ * before its previous decrease, so that one episode of overload does not collapse it.
+ */
+final class HostLimiter<T> {
+
+    static final double LATENCY_TOLERANCE = 2;
+
+    static final int MIN_LIMIT = 1;
+
+    private static final int SAMPLES_PER_BASELINE = 100;
+
+    private static final double SMOOTHING = 0.1;
+
+    private final int maxLimit;
+
+    private final int queueCapacity;
+
+    private final ExcessPolicy excessPolicy;
+
+    private final Queue<T> queued = new ArrayDeque<>();
+
+    private final Counter shed;
+
+    private final Counter expired;
+
+    private final Counter cancelled;
+
+    private final List<Meter> meters;
+
+    private double limit;
+
+    private int inFlight;
+
+    private double smoothedLatencyNanos;
+
+    private long baselineNanos = Long.MAX_VALUE;
+
+    private long fastestThisWindowNanos = Long.MAX_VALUE;
+
+    private int samplesThisWindow;
+
+    private long lastDecreaseAtNanos;
+
+    private long lastActiveAtNanos;
+
+    private boolean retired;
+
+    HostLimiter(
+        final String host,
+        final int initialLimit,
+        final int maxLimit,
+        final int queueCapacity,
+        final ExcessPolicy excessPolicy,
+        final MeterRegistry meterRegistry
+    ) {
+        this.limit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.excessPolicy = excessPolicy;
+        this.lastDecreaseAtNanos = System.nanoTime();
+        this.lastActiveAtNanos = lastDecreaseAtNanos;
+        val inFlightGauge = Gauge
+            .builder("notifier.http.host.in-flight", this, HostLimiter::inFlight)
+            .description("Requests to the host awaiting a response")
+            .tag("host", host)
+            .register(meterRegistry);
+        val limitGauge = Gauge
+            .builder("notifier.http.host.limit", this, HostLimiter::limit)
+            .description("Requests the host is currently allowed to have in flight")
+            .tag("host", host)
+            .register(meterRegistry);
+        val queuedGauge = Gauge
+            .builder("notifier.http.host.queued", this, HostLimiter::queued)
+            .description("Notifications to the host waiting for a request to complete")
+            .tag("host", host)
+            .register(meterRegistry);
+        this.shed = droppedCounter(host, DeliveryOutcome.SHED, meterRegistry);
+        this.expired = droppedCounter(host, DeliveryOutcome.EXPIRED, meterRegistry);
+        this.cancelled = droppedCounter(host, DeliveryOutcome.CANCELLED, meterRegistry);
+        this.meters = List.of(inFlightGauge, limitGauge, queuedGauge, shed, expired, cancelled);
+    }
+
+    enum Admission {
+        SEND,
+        QUEUED,
+        SHED,
+        RETIRED,
+    }
+
+    synchronized Admission admit(final T notification) {
+        if (retired) {
+            return Admission.RETIRED;
+        }
+        lastActiveAtNanos = System.nanoTime();
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return Admission.SEND;
+        }
+        if (excessPolicy == ExcessPolicy.QUEUE && queued.size() < queueCapacity) {
+            queued.add(notification);
+            return Admission.QUEUED;
+        }
+        shed.increment();
+        return Admission.SHED;
+    }
+
+    /**
+     * @return a queued notification to be sent in place of the completed request, if any
+     */
+    synchronized T completed(final long startedAtNanos, final long latencyNanos, final boolean failed) {
+        inFlight--;
+        lastActiveAtNanos = System.nanoTime();
+        if (failed) {
+            decrease(startedAtNanos);
+        } else {
+            sample(latencyNanos);
+            if (smoothedLatencyNanos > LATENCY_TOLERANCE * baselineNanos) {
+                decrease(startedAtNanos);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+        return nextQueued();
+    }
+
+    /**
+     * Gives back the place of an admitted notification that missed its deadline.
+     *
+     * @return a queued notification to be sent in its place, if any
+     */
+    synchronized T dropped() {
+        expired.increment();
+        return abandoned();
+    }
+
+    /**
+     * Counts a request cancelled at its deadline, whose place is given back once it completes.
+     */
+    void cancelled() {
+        cancelled.increment();
+    }
+
+    /**
+     * Gives back the place of an admitted notification whose request could not be made.
+     *
+     * @return a queued notification to be sent in its place, if any
+     */
+    synchronized T abandoned() {
+        inFlight--;
+        return nextQueued();
+    }
+
+    /**
+     * @return whether the limiter is retired, after which it admits nothing
+     */
+    synchronized boolean retireIfIdle(
+        final long nowNanos,
+        final long idleNanos,
+        final MeterRegistry registry
+    ) {
+        if (!retired && inFlight == 0 && queued.isEmpty() && nowNanos - lastActiveAtNanos >= idleNanos) {
+            retired = true;
+            meters.forEach(registry::remove);
+        }
+        return retired;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized double limit() {
+        return limit;
+    }
+
+    synchronized int queued() {
+        return queued.size();
+    }
+
+    private static Counter droppedCounter(
+        final String host,
+        final DeliveryOutcome outcome,
+        final MeterRegistry meterRegistry
+    ) {
+        return Counter
+            .builder("notifier.http.host.shed")
+            .description("Notifications to the host dropped, by whether for its limit or their deadline")
+            .tag("host", host)
+            .tag("outcome", outcome.name())
+            .register(meterRegistry);
+    }
+
+    private T nextQueued() {
+        if (inFlight < (int) limit && !queued.isEmpty()) {
+            inFlight++;
+            return queued.poll();
+        }
+        return null;
+    }
+
+    private void sample(final long latencyNanos) {
+        smoothedLatencyNanos =
+            smoothedLatencyNanos == 0
+                ? latencyNanos
+                : smoothedLatencyNanos + SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+        fastestThisWindowNanos = Math.min(fastestThisWindowNanos, latencyNanos);
+        if (++samplesThisWindow == SAMPLES_PER_BASELINE) {
+            baselineNanos = fastestThisWindowNanos;
+            fastestThisWindowNanos = Long.MAX_VALUE;
+            samplesThisWindow = 0;
+        }
+    }
+
+    private void decrease(final long startedAtNanos) {
+        if (startedAtNanos - lastDecreaseAtNanos >= 0) {
+            limit = Math.max(MIN_LIMIT, limit / 2);
+            lastDecreaseAtNanos = System.nanoTime();
+        }
+    }
+}
@@ -1,39 +1,393 @@
 package org.ignast.challenge.timenotifications.httpnotifier;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+import org.ignast.challenge.timenotifications.domain.DeliveryResult;
+import org.ignast.challenge.timenotifications.domain.NotificationPayload;
 import org.ignast.challenge.timenotifications.domain.NotificationSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Repository;
-import org.springframework.web.client.RestClientException;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+/**
+ * Posts notifications without awaiting their answers, within an adaptive limit of requests in flight per
+ * host, skipping hosts whose circuit breaker is open.
+ */
 @Repository
 public class HttpNotifier implements NotificationSender {
 
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    static final int DEFAULT_MAX_LIMIT = 1000;
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    static final int DEFAULT_BREAKER_FAILURES = 5;
+
+    private static final int SWEEPS_PER_IDLE_PERIOD = 4;
+
+    private static final DeliveryResult SKIPPED_RESULT = DeliveryResult.notAttempted(DeliveryOutcome.SKIPPED);
+
+    private static final DeliveryResult SHED_RESULT = DeliveryResult.notAttempted(DeliveryOutcome.SHED);
+
+    private static final DeliveryResult EXPIRED_RESULT = DeliveryResult.notAttempted(DeliveryOutcome.EXPIRED);
+
+    private static final DeliveryResult INVALID_RESULT = DeliveryResult.notAttempted(DeliveryOutcome.INVALID);
+
+    private static final CompletionStage<DeliveryResult> SKIPPED = CompletableFuture.completedStage(
+        SKIPPED_RESULT
+    );
+
     private final WebClient webClient;
 
+    private final ConcurrentHashMap<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    private final int initialLimit;
+
+    private final int maxLimit;
+
+    private final int queueCapacity;
+
+    private final ExcessPolicy excessPolicy;
+
+    private final Duration timeout;
+
+    private final int breakerFailures;
+
+    private final Duration breakerOpen;
+
+    private final long idleNanos;
+
+    private final AtomicLong nextSweepAtNanos = new AtomicLong(System.nanoTime());
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter skipped;
+
+    private final DeliveryStats deliveryStats = new DeliveryStats();
+
     public HttpNotifier(final WebClient.Builder builder) {
-        webClient = builder.build();
+        this(
+            builder,
+            new SimpleMeterRegistry(),
+            DEFAULT_INITIAL_LIMIT,
+            DEFAULT_MAX_LIMIT,
+            DEFAULT_QUEUE_CAPACITY,
+            ExcessPolicy.QUEUE,
+            Duration.ofSeconds(5),
+            DEFAULT_BREAKER_FAILURES,
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(10)
+        );
+    }
+
+    @Autowired
+    public HttpNotifier(
+        final WebClient.Builder builder,
+        final MeterRegistry meterRegistry,
+        @Value("${notifier.http.limit.initial:" + DEFAULT_INITIAL_LIMIT + "}") final int initialLimit,
+        @Value("${notifier.http.limit.max:" + DEFAULT_MAX_LIMIT + "}") final int maxLimit,
+        @Value("${notifier.http.queue.capacity:" + DEFAULT_QUEUE_CAPACITY + "}") final int queueCapacity,
+        @Value("${notifier.http.excess:QUEUE}") final ExcessPolicy excessPolicy,
+        @Value("${notifier.http.timeout:5s}") final Duration timeout,
+        @Value(
+            "${notifier.http.breaker.failures:" + DEFAULT_BREAKER_FAILURES + "}"
+        ) final int breakerFailures,
+        @Value("${notifier.http.breaker.open:30s}") final Duration breakerOpen,
+        @Value("${notifier.http.host.idle-eviction:10m}") final Duration idleEviction
+    ) {
+        if (initialLimit < HostLimiter.MIN_LIMIT || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                "host limits must be positive with the initial one within the max"
+            );
+        }
+        if (breakerFailures < 1 || breakerOpen.isNegative() || breakerOpen.isZero()) {
+            throw new IllegalArgumentException("circuit breakers must open after failures for a while");
+        }
+        if (idleEviction.isNegative() || idleEviction.isZero()) {
+            throw new IllegalArgumentException("idle hosts must be evicted after a while");
+        }
+        this.webClient = builder.build();
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.excessPolicy = excessPolicy;
+        this.timeout = timeout;
+        this.breakerFailures = breakerFailures;
+        this.breakerOpen = breakerOpen;
+        this.idleNanos = idleEviction.toNanos();
+        this.skipped =
+            Counter
+                .builder("notifier.http.breaker.skipped")
+                .description("Notifications not sent as the circuit breaker of their host was open")
+                .register(meterRegistry);
+        Gauge
+            .builder("notifier.http.hosts", destinations, Map::size)
+            .description("Hosts notified recently enough to be tracked")
+            .register(meterRegistry);
+        for (val outcome : DeliveryOutcome.values()) {
+            FunctionCounter
+                .builder("notifier.http.deliveries", deliveryStats, stats -> stats.count(outcome))
+                .description("Notifications by how they went")
+                .tag("outcome", outcome.name())
+                .register(meterRegistry);
+        }
     }
 
     @Override
     public void send(final URI location, final ZonedDateTime time) {
-        fireAndForget(location, time);
+        deliver(location, NotificationPayload.of(time));
+    }
+
+    @Override
+    public void send(final URI location, final NotificationPayload payload) {
+        deliver(location, payload);
+    }
+
+    @Override
+    public CompletionStage<DeliveryResult> deliver(final URI location, final NotificationPayload payload) {
+        return deliver(location, payload, NO_DEADLINE);
+    }
+
+    @Override
+    public CompletionStage<DeliveryResult> deliver(
+        final URI location,
+        final NotificationPayload payload,
+        final long deadlineInMillis
+    ) {
+        evictIdleDestinations();
+        val pending = new Pending(location, payload, deadlineInMillis, new CompletableFuture<>());
+        while (true) {
+            val destination = destinationOf(location);
+            if (!allows(destination)) {
+                return SKIPPED;
+            }
+            switch (destination.limiter().admit(pending)) {
+                case SEND:
+                    sendUnlessExpired(destination, pending);
+                    return pending.result();
+                case SHED:
+                    record(destination, SHED_RESULT);
+                    pending.result().complete(SHED_RESULT);
+                    return pending.result();
+                case QUEUED:
+                    return pending.result();
+                default:
+                    destinations.remove(hostOf(location), destination);
+            }
+        }
+    }
+
+    Map<String, CircuitBreaker> breakers() {
+        val breakers = new TreeMap<String, CircuitBreaker>();
+        destinations.forEach((host, destination) -> breakers.put(host, destination.breaker()));
+        return breakers;
+    }
+
+    /**
+     * @return circuit breaker of the host, or null if it has not been notified
+     */
+    CircuitBreaker breakerOf(final String host) {
+        val destination = destinations.get(host);
+        return destination == null ? null : destination.breaker();
+    }
+
+    DeliveryStats deliveryStats() {
+        return deliveryStats;
+    }
+
+    /**
+     * @return outcomes of notifications to the host, or null if it has not been notified
+     */
+    DeliveryStats deliveryStatsOf(final String host) {
+        val destination = destinations.get(host);
+        return destination == null ? null : destination.stats();
+    }
+
+    private boolean allows(final Destination destination) {
+        if (destination.breaker().allows(System.nanoTime())) {
+            return true;
+        }
+        skipped.increment();
+        record(destination, SKIPPED_RESULT);
+        return false;
+    }
+
+    /**
+     * Forgets idle hosts, so that neither memory nor metrics grow with every host ever notified.
+     */
+    private void evictIdleDestinations() {
+        val nowNanos = System.nanoTime();
+        val sweepAtNanos = nextSweepAtNanos.get();
+        if (
+            nowNanos - sweepAtNanos < 0 ||
+            !nextSweepAtNanos.compareAndSet(sweepAtNanos, nowNanos + idleNanos / SWEEPS_PER_IDLE_PERIOD)
+        ) {
+            return;
+        }
+        destinations.forEach((host, destination) -> {
+            if (destination.limiter().retireIfIdle(nowNanos, idleNanos, meterRegistry)) {
+                destinations.remove(host, destination);
+            }
+        });
+    }
+
+    private void sendUnlessExpired(final Destination destination, final Pending admitted) {
+        var pending = admitted;
+        while (pending != null) {
+            val millisLeft = pending.deadlineInMillis() - System.currentTimeMillis();
+            if (millisLeft <= 0) {
+                record(destination, EXPIRED_RESULT);
+                pending.result().complete(EXPIRED_RESULT);
+                pending = destination.limiter().dropped();
+            } else if (fireAndForget(destination, pending, millisLeft)) {
+                return;
+            } else {
+                record(destination, INVALID_RESULT);
+                pending.result().complete(INVALID_RESULT);
+                pending = destination.limiter().abandoned();
+            }
+        }
+    }
+
+    /**
+     * @return false if the request could not be made
+     */
+    private boolean fireAndForget(
+        final Destination destination,
+        final Pending pending,
+        final long millisLeft
+    ) {
+        val cancelledAtDeadline = millisLeft < timeout.toMillis();
+        val startedAtNanos = System.nanoTime();
+        final Mono<Integer> request;
+        try {
+            request =
+                webClient
+                    .post()
+                    .uri(pending.location())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(pending.payload().body())
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+                    .timeout(cancelledAtDeadline ? Duration.ofMillis(millisLeft) : timeout);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        request.subscribe(
+            status -> completed(destination, pending, startedAtNanos, outcomeOf(status), status),
+            error -> completed(destination, pending, startedAtNanos, outcomeOf(error, cancelledAtDeadline), 0)
+        );
+        return true;
     }
 
-    private void fireAndForget(final URI location, final ZonedDateTime time) {
-        webClient
-            .post()
-            .uri(location)
-            .contentType(MediaType.APPLICATION_JSON)
-            .bodyValue(asJson(time))
-            .retrieve()
-            .bodyToMono(String.class)
-            .subscribe();
+    /**
+     * A request cancelled at its deadline says nothing of whether the host is up, so the breaker is left be.
+     */
+    private void completed(
+        final Destination destination,
+        final Pending pending,
+        final long startedAtNanos,
+        final DeliveryOutcome outcome,
+        final int status
+    ) {
+        val completedAtNanos = System.nanoTime();
+        val latencyNanos = completedAtNanos - startedAtNanos;
+        if (signalsUnavailability(outcome, status)) {
+            destination.breaker().failed(completedAtNanos);
+        } else if (outcome != DeliveryOutcome.CANCELLED) {
+            destination.breaker().succeeded();
+        } else {
+            destination.limiter().cancelled();
+        }
+        val next = destination.limiter().completed(startedAtNanos, latencyNanos, signalsOverload(outcome));
+        val result = new DeliveryResult(outcome, status, latencyNanos);
+        record(destination, result);
+        pending.result().complete(result);
+        if (next != null) {
+            sendUnlessExpired(destination, next);
+        }
     }
 
-    private static final String asJson(final ZonedDateTime time) {
-        return String.format("{\"time\":\"%s\"}", time.toString());
+    private void record(final Destination destination, final DeliveryResult result) {
+        destination.stats().record(result);
+        deliveryStats.record(result);
     }
+
+    private Destination destinationOf(final URI location) {
+        return destinations.computeIfAbsent(hostOf(location), this::newDestination);
+    }
+
+    private Destination newDestination(final String host) {
+        return new Destination(
+            new HostLimiter<>(host, initialLimit, maxLimit, queueCapacity, excessPolicy, meterRegistry),
+            new CircuitBreaker(breakerFailures, breakerOpen.toNanos()),
+            new DeliveryStats()
+        );
+    }
+
+    static DeliveryOutcome outcomeOf(final int status) {
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return DeliveryOutcome.FAILED;
+        }
+        return status >= 400 ? DeliveryOutcome.REJECTED : DeliveryOutcome.DELIVERED;
+    }
+
+    static DeliveryOutcome outcomeOf(final Throwable error, final boolean cancelledAtDeadline) {
+        if (error instanceof TimeoutException) {
+            return cancelledAtDeadline ? DeliveryOutcome.CANCELLED : DeliveryOutcome.TIMED_OUT;
+        }
+        return DeliveryOutcome.UNREACHABLE;
+    }
+
+    private static boolean signalsOverload(final DeliveryOutcome outcome) {
+        return (
+            outcome == DeliveryOutcome.FAILED ||
+            outcome == DeliveryOutcome.TIMED_OUT ||
+            outcome == DeliveryOutcome.CANCELLED ||
+            outcome == DeliveryOutcome.UNREACHABLE
+        );
+    }
+
+    private static boolean signalsUnavailability(final DeliveryOutcome outcome, final int status) {
+        return (
+            signalsOverload(outcome) &&
+            outcome != DeliveryOutcome.CANCELLED &&
+            status != HttpStatus.TOO_MANY_REQUESTS.value()
+        );
+    }
+
+    static String hostOf(final URI location) {
+        val host = location.getHost() == null ? "" : location.getHost().toLowerCase(Locale.ROOT);
+        return location.getPort() == -1 ? host : host + ":" + location.getPort();
+    }
+
+    private record Pending(
+        URI location,
+        NotificationPayload payload,
+        long deadlineInMillis,
+        CompletableFuture<DeliveryResult> result
+    ) {}
+
+    private record Destination(HostLimiter<Pending> limiter, CircuitBreaker breaker, DeliveryStats stats) {}
 }
@@ -0,0 +1,87 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.val;
+
+/**
+ * Log-linear buckets of {@link #SUB_BUCKETS} per power of two of microseconds, within a quarter of recorded
+ * values. Latencies beyond {@link #HIGHEST_MICROS} are counted as that. Thread safe.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int HIGHEST_EXPONENT = 27;
+
+    static final long HIGHEST_MICROS = (1L << (HIGHEST_EXPONENT + 1)) - 1;
+
+    private static final int BUCKETS = SUB_BUCKETS + (HIGHEST_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong highestMicros = new AtomicLong();
+
+    void record(final long latencyNanos) {
+        val micros = Math.min(HIGHEST_MICROS, Math.max(0, latencyNanos / NANOS_PER_MICRO));
+        counts.incrementAndGet(bucketOf(micros));
+        total.incrementAndGet();
+        for (var highest = highestMicros.get(); micros > highest; highest = highestMicros.get()) {
+            if (highestMicros.compareAndSet(highest, micros)) {
+                break;
+            }
+        }
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    long highestMicros() {
+        return highestMicros.get();
+    }
+
+    /**
+     * @return highest latency of the bucket holding the given percentile, or zero if nothing was recorded
+     */
+    long microsAtPercentile(final double percentile) {
+        val count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        val rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        var seen = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestMicrosOf(bucket), highestMicros.get());
+            }
+        }
+        return highestMicros.get();
+    }
+
+    static int bucketOf(final long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        val exponent = 63 - Long.numberOfLeadingZeros(micros);
+        val subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestMicrosOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        val exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        val subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        val width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
@@ -0,0 +1,190 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+import org.ignast.challenge.timenotifications.domain.NotificationPayload;
+import org.ignast.challenge.timenotifications.httpnotifier.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+final class CircuitBreakerTest {
+
+    private static final long OPEN = 1000;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN);
+
+    @Test
+    public void shouldStayClosedBelowThreshold() {
+        breaker.failed(0);
+        breaker.failed(0);
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.allows(0)).isTrue();
+    }
+
+    @Test
+    public void shouldCountOnlyConsecutiveFailures() {
+        breaker.failed(0);
+        breaker.failed(0);
+        breaker.succeeded();
+        breaker.failed(0);
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.consecutiveFailures()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldOpenAtThreshold() {
+        failThrice(0);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.allows(OPEN - 1)).isFalse();
+        assertThat(breaker.nanosUntilRetry(OPEN - 1)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLetSingleProbeThroughOnceOpenLongEnough() {
+        failThrice(0);
+
+        assertThat(breaker.allows(OPEN)).isTrue();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.allows(OPEN + 1)).isFalse();
+    }
+
+    @Test
+    public void shouldCloseOnceProbeSucceeds() {
+        failThrice(0);
+        breaker.allows(OPEN);
+
+        breaker.succeeded();
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.allows(OPEN + 1)).isTrue();
+        assertThat(breaker.nanosUntilRetry(OPEN + 1)).isZero();
+    }
+
+    @Test
+    public void shouldStayOpenTwiceAsLongOnceProbeFails() {
+        failThrice(0);
+        breaker.allows(OPEN);
+
+        breaker.failed(OPEN);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.allows(OPEN + 2 * OPEN - 1)).isFalse();
+        assertThat(breaker.allows(OPEN + 2 * OPEN)).isTrue();
+    }
+
+    @Test
+    public void shouldCapBackoff() {
+        failThrice(0);
+        var now = 0L;
+        for (int i = 0; i < 10; i++) {
+            now += breaker.nanosUntilRetry(now);
+            breaker.allows(now);
+            breaker.failed(now);
+        }
+
+        assertThat(breaker.nanosUntilRetry(now)).isEqualTo(CircuitBreaker.MAX_BACKOFF * OPEN);
+    }
+
+    @Test
+    public void shouldReplaceProbeThatNeverCompleted() {
+        failThrice(0);
+        breaker.allows(OPEN);
+
+        assertThat(breaker.allows(2 * OPEN)).isTrue();
+    }
+
+    @Test
+    public void shouldBeResetBySuccessOfRequestSentBeforeOpening() {
+        failThrice(0);
+
+        breaker.succeeded();
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    private void failThrice(final long nowNanos) {
+        breaker.failed(nowNanos);
+        breaker.failed(nowNanos);
+        breaker.failed(nowNanos);
+    }
+}
+
+final class CircuitBreakersEndpointTest {
+
+    private final HttpNotifier httpNotifier = new HttpNotifier(WebClient.builder());
+
+    private final CircuitBreakersEndpoint endpoint = new CircuitBreakersEndpoint(httpNotifier);
+
+    @Test
+    public void shouldNotListClosedBreakers() {
+        httpNotifier.send(URI.create("http://unresolvableHost:8081/"), HttpNotifierTest.ANY_TIME);
+
+        assertThat(endpoint.tripped()).isEmpty();
+    }
+
+    @Test
+    public void shouldLookUpBreakerOfNotifiedHost() {
+        httpNotifier.send(URI.create("http://unresolvableHost:8081/"), HttpNotifierTest.ANY_TIME);
+
+        val state = endpoint.host("unresolvablehost:8081");
+
+        assertThat(state.state()).isEqualTo("CLOSED");
+        assertThat(state.consecutiveFailures()).isBetween(0, 1);
+    }
+
+    @Test
+    public void shouldListOpenBreakers() throws InterruptedException {
+        val notifier = HttpNotifierTest.withBreakerOpeningAfter(1, new SimpleMeterRegistry());
+        val endpoint = new CircuitBreakersEndpoint(notifier);
+
+        notifier.send(URI.create("http://unresolvableHost:8081/"), HttpNotifierTest.ANY_TIME);
+
+        HttpNotifierTest.awaitBreaker(notifier, "unresolvablehost:8081", State.OPEN);
+        assertThat(endpoint.tripped()).containsOnlyKeys("unresolvablehost:8081");
+        assertThat(endpoint.tripped().get("unresolvablehost:8081").millisUntilProbe()).isPositive();
+    }
+
+    @Test
+    public void shouldNotFindBreakerOfHostNeverNotified() {
+        assertThat(endpoint.host("example.com")).isNull();
+    }
+}
+
+final class DeliveriesEndpointTest {
+
+    private final HttpNotifier httpNotifier = new HttpNotifier(WebClient.builder());
+
+    private final DeliveriesEndpoint endpoint = new DeliveriesEndpoint(httpNotifier);
+
+    @Test
+    public void shouldSummariseOutcomesOverallAndPerHost() throws Exception {
+        httpNotifier
+            .deliver(
+                URI.create("http://unresolvableHost:8081/"),
+                NotificationPayload.of(HttpNotifierTest.ANY_TIME)
+            )
+            .toCompletableFuture()
+            .get(30, TimeUnit.SECONDS);
+
+        assertThat(endpoint.overall().outcomes()).containsEntry(DeliveryOutcome.UNREACHABLE, 1L);
+        assertThat(endpoint.host("unresolvablehost:8081").outcomes())
+            .containsOnly(entry(DeliveryOutcome.UNREACHABLE, 1L));
+        assertThat(endpoint.host("unresolvablehost:8081").maxMillis()).isPositive();
+        assertThat(new ObjectMapper().writeValueAsString(endpoint.overall())).contains("\"UNREACHABLE\":1");
+    }
+
+    @Test
+    public void shouldNotFindHostNeverNotified() {
+        assertThat(endpoint.host("example.com")).isNull();
+    }
+}
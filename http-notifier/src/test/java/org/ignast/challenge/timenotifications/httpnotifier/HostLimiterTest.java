@@ -0,0 +1,219 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.ignast.challenge.timenotifications.httpnotifier.HostLimiter.Admission;
+import org.junit.jupiter.api.Test;
+
+final class HostLimiterTest {
+
+    private static final long FAST = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void shouldAdmitUpToTheLimit() {
+        val limiter = limiter(2, ExcessPolicy.SHED);
+
+        assertThat(limiter.admit("a")).isEqualTo(Admission.SEND);
+        assertThat(limiter.admit("b")).isEqualTo(Admission.SEND);
+        assertThat(limiter.admit("c")).isEqualTo(Admission.SHED);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCountShedNotifications() {
+        val limiter = limiter(1, ExcessPolicy.SHED);
+        limiter.admit("a");
+
+        limiter.admit("b");
+
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", "host")
+                .tag("outcome", "SHED")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(limiter.completed(System.nanoTime(), FAST, false)).isNull();
+    }
+
+    @Test
+    public void shouldHandQueuedNotificationsToCompletedRequestsInOrder() {
+        val limiter = limiter(1, ExcessPolicy.QUEUE);
+        limiter.admit("a");
+
+        assertThat(limiter.admit("b")).isEqualTo(Admission.QUEUED);
+        assertThat(limiter.admit("c")).isEqualTo(Admission.QUEUED);
+        assertThat(limiter.queued()).isEqualTo(2);
+        assertThat(limiter.completed(System.nanoTime(), FAST, false)).isEqualTo("b");
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHandPlaceOfDroppedNotificationToNextQueuedOne() {
+        val limiter = limiter(1, ExcessPolicy.QUEUE);
+        limiter.admit("a");
+        limiter.admit("b");
+
+        assertThat(limiter.dropped()).isEqualTo("b");
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.dropped()).isNull();
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(1);
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", "host")
+                .tag("outcome", "EXPIRED")
+                .counter()
+                .count()
+        )
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void shouldHandPlaceOfAbandonedNotificationToNextQueuedOneWithoutCountingItShed() {
+        val limiter = limiter(1, ExcessPolicy.QUEUE);
+        limiter.admit("a");
+        limiter.admit("b");
+
+        assertThat(limiter.abandoned()).isEqualTo("b");
+        assertThat(limiter.abandoned()).isNull();
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", "host")
+                .tag("outcome", "EXPIRED")
+                .counter()
+                .count()
+        )
+            .isZero();
+    }
+
+    @Test
+    public void shouldRetireOnlyOnceIdleWithNothingInFlight() {
+        val limiter = limiter(1, ExcessPolicy.QUEUE);
+        limiter.admit("a");
+        val idle = TimeUnit.MINUTES.toNanos(1);
+
+        assertThat(limiter.retireIfIdle(System.nanoTime() + 2 * idle, idle, meterRegistry)).isFalse();
+        limiter.completed(System.nanoTime(), FAST, false);
+        assertThat(limiter.retireIfIdle(System.nanoTime(), idle, meterRegistry)).isFalse();
+        assertThat(limiter.retireIfIdle(System.nanoTime() + 2 * idle, idle, meterRegistry)).isTrue();
+
+        assertThat(limiter.admit("b")).isEqualTo(Admission.RETIRED);
+        assertThat(meterRegistry.find("notifier.http.host.in-flight").gauge()).isNull();
+        assertThat(meterRegistry.find("notifier.http.host.shed").counter()).isNull();
+    }
+
+    @Test
+    public void shouldShedOnceTheQueueIsFull() {
+        val limiter = new HostLimiter<String>("host", 1, 10, 1, ExcessPolicy.QUEUE, meterRegistry);
+        limiter.admit("a");
+        limiter.admit("b");
+
+        assertThat(limiter.admit("c")).isEqualTo(Admission.SHED);
+
+        assertThat(limiter.queued()).isEqualTo(1);
+        assertThat(meterRegistry.get("notifier.http.host.shed").tag("outcome", "SHED").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldIncreaseAdditivelyOnSuccess() {
+        val limiter = limiter(4, ExcessPolicy.SHED);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.admit("a");
+            limiter.completed(System.nanoTime(), FAST, false);
+        }
+
+        assertThat(limiter.limit()).isBetween(4.9, 5.0);
+    }
+
+    @Test
+    public void shouldNotIncreaseBeyondMax() {
+        val limiter = new HostLimiter<String>("host", 10, 10, 0, ExcessPolicy.SHED, meterRegistry);
+
+        limiter.admit("a");
+        limiter.completed(System.nanoTime(), FAST, false);
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldHalveOnFailure() {
+        val limiter = limiter(8, ExcessPolicy.SHED);
+        limiter.admit("a");
+
+        limiter.completed(System.nanoTime(), FAST, true);
+
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldHalveOnlyOnceForRequestsStartedBeforeTheDecrease() {
+        val limiter = limiter(8, ExcessPolicy.SHED);
+        val startedAt = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.admit("a");
+        }
+
+        limiter.completed(startedAt, FAST, true);
+        limiter.completed(startedAt, FAST, true);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        limiter.completed(System.nanoTime(), FAST, true);
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotGoBelowMinimum() {
+        val limiter = limiter(1, ExcessPolicy.SHED);
+        limiter.admit("a");
+
+        limiter.completed(System.nanoTime(), FAST, true);
+
+        assertThat(limiter.limit()).isEqualTo(HostLimiter.MIN_LIMIT);
+    }
+
+    @Test
+    public void shouldHalveOnceLatencyGrowsBeyondTolerance() {
+        val limiter = new HostLimiter<String>("host", 8, 1000, 0, ExcessPolicy.SHED, meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            limiter.admit("a");
+            limiter.completed(System.nanoTime(), FAST, false);
+        }
+        val limitAtBaseline = limiter.limit();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.admit("a");
+            limiter.completed(System.nanoTime(), 10 * FAST, false);
+        }
+
+        assertThat(limiter.limit()).isLessThan(limitAtBaseline);
+    }
+
+    @Test
+    public void shouldExposeInFlightAndLimitPerHost() {
+        val limiter = limiter(3, ExcessPolicy.SHED);
+
+        limiter.admit("a");
+
+        assertThat(meterRegistry.get("notifier.http.host.in-flight").tag("host", "host").gauge().value())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("notifier.http.host.limit").tag("host", "host").gauge().value())
+            .isEqualTo(3);
+    }
+
+    private HostLimiter<String> limiter(final int limit, final ExcessPolicy excessPolicy) {
+        return new HostLimiter<>("host", limit, 1000, 100, excessPolicy, meterRegistry);
+    }
+}
@@ -1,19 +1,28 @@
 package org.ignast.challenge.timenotifications.httpnotifier;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.val;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import org.ignast.challenge.timenotifications.domain.DeliveryOutcome;
+import org.ignast.challenge.timenotifications.domain.NotificationPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -22,20 +31,20 @@ final class HttpNotifierTest {
     private static final ZonedDateTime TOKYO_2022_01_01_00_00_01 = LocalDateTime
         .of(2022, Month.JANUARY, 1, 0, 0, 1, 0)
         .atZone(ZoneId.of("Asia/Tokyo"));
-    private static final ZonedDateTime ANY_TIME = TOKYO_2022_01_01_00_00_01;
+    static final ZonedDateTime ANY_TIME = TOKYO_2022_01_01_00_00_01;
 
     private final HttpNotifier httpNotifier = new HttpNotifier(WebClient.builder());
 
-    private static MockWebServer mockServer;
+    private MockWebServer mockServer;
 
-    @BeforeAll
-    static void setUp() throws IOException {
+    @BeforeEach
+    void setUp() throws IOException {
         mockServer = new MockWebServer();
         mockServer.start();
     }
 
-    @AfterAll
-    static void tearDown() throws IOException {
+    @AfterEach
+    void tearDown() throws IOException {
         mockServer.shutdown();
     }
 
@@ -55,6 +64,24 @@ final class HttpNotifierTest {
             .isEqualTo("{\"time\":\"2022-01-01T00:00:01+09:00[Asia/Tokyo]\"}");
     }
 
+    @Test
+    public void shouldPostSharedPayloadInFullToEveryUri() throws InterruptedException {
+        mockServer.enqueue(new MockResponse());
+        mockServer.enqueue(new MockResponse());
+        final String url = String.format("http://localhost:%d/", mockServer.getPort());
+        val payload = NotificationPayload.of(TOKYO_2022_01_01_00_00_01);
+
+        httpNotifier.send(URI.create(url + "a"), payload);
+        httpNotifier.send(URI.create(url + "b"), payload);
+
+        val expectedBody = "{\"time\":\"2022-01-01T00:00:01+09:00[Asia/Tokyo]\"}";
+        assertThat(mockServer.takeRequest().getBody().readUtf8()).isEqualTo(expectedBody);
+        assertThat(mockServer.takeRequest().getBody().readUtf8()).isEqualTo(expectedBody);
+        assertThat(payload.body().remaining()).isEqualTo(expectedBody.length());
+        payload.body().position(expectedBody.length());
+        assertThat(payload.body().remaining()).isEqualTo(expectedBody.length());
+    }
+
     @Test
     public void shouldIgnoreClientSideErrors() throws InterruptedException {
         mockServer.enqueue(new MockResponse().setResponseCode(400));
@@ -87,4 +114,437 @@ final class HttpNotifierTest {
 
         httpNotifier.send(uri, ANY_TIME);
     }
+
+    @Test
+    public void shouldQueueNotificationsBeyondTheLimitOfTheHost() throws InterruptedException {
+        mockServer.enqueue(new MockResponse());
+        mockServer.enqueue(new MockResponse());
+        val notifier = limitedToOne(ExcessPolicy.QUEUE, new SimpleMeterRegistry());
+        final String url = String.format("http://localhost:%d/", mockServer.getPort());
+
+        notifier.send(URI.create(url + "a"), ANY_TIME);
+        notifier.send(URI.create(url + "b"), ANY_TIME);
+
+        assertThat(mockServer.takeRequest().getRequestUrl().toString()).isEqualTo(url + "a");
+        assertThat(mockServer.takeRequest().getRequestUrl().toString()).isEqualTo(url + "b");
+    }
+
+    @Test
+    public void shouldShedNotificationsBeyondTheLimitOfTheHost() throws InterruptedException {
+        mockServer.enqueue(new MockResponse());
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = limitedToOne(ExcessPolicy.SHED, meterRegistry);
+        final String url = String.format("http://localhost:%d/", mockServer.getPort());
+
+        notifier.send(URI.create(url + "a"), ANY_TIME);
+        val shed = notifier.deliver(URI.create(url + "b"), NotificationPayload.of(ANY_TIME));
+
+        assertThat(shed.toCompletableFuture().getNow(null).outcome()).isEqualTo(DeliveryOutcome.SHED);
+        assertThat(mockServer.takeRequest().getRequestUrl().toString()).isEqualTo(url + "a");
+        val host = "localhost:" + mockServer.getPort();
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", host)
+                .tag("outcome", "SHED")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldIdentifyHostsByNameAndExplicitPort() {
+        assertThat(HttpNotifier.hostOf(URI.create("http://Example.com/a"))).isEqualTo("example.com");
+        assertThat(HttpNotifier.hostOf(URI.create("http://example.com:8080/a")))
+            .isEqualTo("example.com:8080");
+    }
+
+    @Test
+    public void shouldSkipHostsWhoseBreakerIsOpen() throws InterruptedException, IOException {
+        try (val server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setResponseCode(503));
+            val meterRegistry = new SimpleMeterRegistry();
+            val notifier = withBreakerOpeningAfter(2, meterRegistry);
+            val uri = URI.create(String.format("http://localhost:%d/", server.getPort()));
+
+            notifier.send(uri, ANY_TIME);
+            notifier.send(uri, ANY_TIME);
+            server.takeRequest();
+            server.takeRequest();
+            awaitBreaker(notifier, HttpNotifier.hostOf(uri), CircuitBreaker.State.OPEN);
+            notifier.send(uri, ANY_TIME);
+
+            assertThat(meterRegistry.get("notifier.http.breaker.skipped").counter().count()).isEqualTo(1);
+            assertThat(server.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    public void shouldKeepNotifyingHostsThatOnlyAskToBackOff() throws InterruptedException, IOException {
+        try (val server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(429));
+            server.enqueue(new MockResponse().setResponseCode(429));
+            val notifier = withBreakerOpeningAfter(1, new SimpleMeterRegistry());
+            val uri = URI.create(String.format("http://localhost:%d/", server.getPort()));
+
+            notifier.send(uri, ANY_TIME);
+            server.takeRequest();
+            Thread.sleep(100);
+            notifier.send(uri, ANY_TIME);
+
+            assertThat(server.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+            assertThat(notifier.breakerOf(HttpNotifier.hostOf(uri)).state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+    }
+
+    @Test
+    public void shouldCompleteDeliveryWithStatusAndLatency() throws Exception {
+        mockServer.enqueue(new MockResponse().setResponseCode(202));
+        val uri = URI.create(String.format("http://localhost:%d/", mockServer.getPort()));
+
+        val result = httpNotifier
+            .deliver(uri, NotificationPayload.of(ANY_TIME))
+            .toCompletableFuture()
+            .get(5, SECONDS);
+
+        assertThat(result.outcome()).isEqualTo(DeliveryOutcome.DELIVERED);
+        assertThat(result.httpStatus()).isEqualTo(202);
+        assertThat(result.latencyNanos()).isPositive();
+        mockServer.takeRequest();
+    }
+
+    @Test
+    public void shouldDiscardResponseBodies() throws Exception {
+        try (val server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setBody("x".repeat(1 << 20)));
+            val uri = URI.create(String.format("http://localhost:%d/", server.getPort()));
+
+            val result = httpNotifier
+                .deliver(uri, NotificationPayload.of(ANY_TIME))
+                .toCompletableFuture()
+                .get(5, SECONDS);
+
+            assertThat(result.outcome()).isEqualTo(DeliveryOutcome.DELIVERED);
+        }
+    }
+
+    @Test
+    public void shouldTellRejectionsFromFailures() {
+        assertThat(HttpNotifier.outcomeOf(404)).isEqualTo(DeliveryOutcome.REJECTED);
+        assertThat(HttpNotifier.outcomeOf(429)).isEqualTo(DeliveryOutcome.FAILED);
+        assertThat(HttpNotifier.outcomeOf(503)).isEqualTo(DeliveryOutcome.FAILED);
+        assertThat(HttpNotifier.outcomeOf(204)).isEqualTo(DeliveryOutcome.DELIVERED);
+    }
+
+    @Test
+    public void shouldCompleteDeliveryToUnreachableHost() throws Exception {
+        val result = httpNotifier
+            .deliver(URI.create("http://unresolvableHost:8081/"), NotificationPayload.of(ANY_TIME))
+            .toCompletableFuture()
+            .get(30, SECONDS);
+
+        assertThat(result.outcome()).isEqualTo(DeliveryOutcome.UNREACHABLE);
+        assertThat(result.httpStatus()).isZero();
+    }
+
+    @Test
+    public void shouldCompleteDeliveryNotAnsweredInTime() throws Exception {
+        try (val server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(2, SECONDS));
+            val notifier = new HttpNotifier(
+                WebClient.builder(),
+                new SimpleMeterRegistry(),
+                10,
+                10,
+                10,
+                ExcessPolicy.QUEUE,
+                Duration.ofMillis(100),
+                HttpNotifier.DEFAULT_BREAKER_FAILURES,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(10)
+            );
+            val uri = URI.create(String.format("http://localhost:%d/", server.getPort()));
+
+            val result = notifier
+                .deliver(uri, NotificationPayload.of(ANY_TIME))
+                .toCompletableFuture()
+                .get(5, SECONDS);
+
+            assertThat(result.outcome()).isEqualTo(DeliveryOutcome.TIMED_OUT);
+            assertThat(notifier.deliveryStats().count(DeliveryOutcome.TIMED_OUT)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldCompleteDeliveriesShedOrSkippedRightAway() throws Exception {
+        try (val server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setResponseCode(503));
+            val meterRegistry = new SimpleMeterRegistry();
+            val notifier = withBreakerOpeningAfter(1, meterRegistry);
+            val uri = URI.create(String.format("http://localhost:%d/", server.getPort()));
+
+            val failed = notifier
+                .deliver(uri, NotificationPayload.of(ANY_TIME))
+                .toCompletableFuture()
+                .get(5, SECONDS);
+            val skipped = notifier
+                .deliver(uri, NotificationPayload.of(ANY_TIME))
+                .toCompletableFuture()
+                .getNow(null);
+
+            assertThat(failed.outcome()).isEqualTo(DeliveryOutcome.FAILED);
+            assertThat(failed.httpStatus()).isEqualTo(503);
+            assertThat(skipped.outcome()).isEqualTo(DeliveryOutcome.SKIPPED);
+            val stats = notifier.deliveryStatsOf(HttpNotifier.hostOf(uri));
+            assertThat(stats.count(DeliveryOutcome.FAILED)).isEqualTo(1);
+            assertThat(stats.count(DeliveryOutcome.SKIPPED)).isEqualTo(1);
+            assertThat(stats.latency().count()).isEqualTo(1);
+            assertThat(
+                meterRegistry
+                    .get("notifier.http.deliveries")
+                    .tag("outcome", "SKIPPED")
+                    .functionCounter()
+                    .count()
+            )
+                .isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldShedNotificationsPastTheirDeadlineWithoutRequest() throws Exception {
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = limitedToOne(ExcessPolicy.QUEUE, meterRegistry);
+        val uri = URI.create(String.format("http://localhost:%d/", mockServer.getPort()));
+
+        val result = notifier
+            .deliver(uri, NotificationPayload.of(ANY_TIME), System.currentTimeMillis())
+            .toCompletableFuture()
+            .getNow(null);
+
+        assertThat(result.outcome()).isEqualTo(DeliveryOutcome.EXPIRED);
+        assertThat(mockServer.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+        val host = HttpNotifier.hostOf(uri);
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", host)
+                .tag("outcome", "EXPIRED")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(notifier.deliveryStatsOf(host).count(DeliveryOutcome.EXPIRED)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldGiveBackPlaceOfNotificationsWhoseRequestCannotBeMade() throws Exception {
+        val failing = (WebClient) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { WebClient.class },
+            (proxy, method, args) -> {
+                throw new IllegalStateException("no request");
+            }
+        );
+        val builder = (WebClient.Builder) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { WebClient.Builder.class },
+            (proxy, method, args) -> failing
+        );
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = new HttpNotifier(
+            builder,
+            meterRegistry,
+            1,
+            1,
+            10,
+            ExcessPolicy.QUEUE,
+            Duration.ofSeconds(5),
+            HttpNotifier.DEFAULT_BREAKER_FAILURES,
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(10)
+        );
+        val uri = URI.create("http://localhost/");
+
+        val first = notifier.deliver(uri, NotificationPayload.of(ANY_TIME));
+        val second = notifier.deliver(uri, NotificationPayload.of(ANY_TIME));
+
+        assertThat(first.toCompletableFuture().getNow(null).outcome()).isEqualTo(DeliveryOutcome.INVALID);
+        assertThat(second.toCompletableFuture().getNow(null).outcome()).isEqualTo(DeliveryOutcome.INVALID);
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.in-flight")
+                .tag("host", HttpNotifier.hostOf(uri))
+                .gauge()
+                .value()
+        )
+            .isZero();
+    }
+
+    @Test
+    public void shouldShedQueuedNotificationsThatMissedTheirDeadlineWhileWaiting() throws Exception {
+        mockServer.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        mockServer.enqueue(new MockResponse());
+        val notifier = limitedToOne(ExcessPolicy.QUEUE, new SimpleMeterRegistry());
+        final String url = String.format("http://localhost:%d/", mockServer.getPort());
+        val payload = NotificationPayload.of(ANY_TIME);
+
+        val first = notifier.deliver(URI.create(url + "a"), payload);
+        val missed = notifier.deliver(URI.create(url + "b"), payload, System.currentTimeMillis() + 100);
+        val next = notifier.deliver(URI.create(url + "c"), payload);
+
+        assertThat(missed.toCompletableFuture().get(5, SECONDS).outcome()).isEqualTo(DeliveryOutcome.EXPIRED);
+        assertThat(first.toCompletableFuture().get(5, SECONDS).outcome())
+            .isEqualTo(DeliveryOutcome.DELIVERED);
+        assertThat(next.toCompletableFuture().get(5, SECONDS).outcome()).isEqualTo(DeliveryOutcome.DELIVERED);
+        assertThat(mockServer.takeRequest().getRequestUrl().toString()).isEqualTo(url + "a");
+        assertThat(mockServer.takeRequest().getRequestUrl().toString()).isEqualTo(url + "c");
+    }
+
+    @Test
+    public void shouldCancelRequestsStillInFlightAtTheirDeadline() throws Exception {
+        mockServer.enqueue(new MockResponse().setHeadersDelay(2, SECONDS));
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = withBreakerOpeningAfter(1, meterRegistry);
+        val uri = URI.create(String.format("http://localhost:%d/", mockServer.getPort()));
+
+        val result = notifier
+            .deliver(uri, NotificationPayload.of(ANY_TIME), System.currentTimeMillis() + 100)
+            .toCompletableFuture()
+            .get(1, SECONDS);
+
+        assertThat(result.outcome()).isEqualTo(DeliveryOutcome.CANCELLED);
+        assertThat(result.latencyNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(notifier.breakerOf(HttpNotifier.hostOf(uri)).state())
+            .isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(
+            meterRegistry
+                .get("notifier.http.host.shed")
+                .tag("host", HttpNotifier.hostOf(uri))
+                .tag("outcome", "CANCELLED")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldTellCancellationsAtDeadlineFromTimeouts() {
+        val timeout = new TimeoutException();
+
+        assertThat(HttpNotifier.outcomeOf(timeout, true)).isEqualTo(DeliveryOutcome.CANCELLED);
+        assertThat(HttpNotifier.outcomeOf(timeout, false)).isEqualTo(DeliveryOutcome.TIMED_OUT);
+        assertThat(HttpNotifier.outcomeOf(new IOException(), true)).isEqualTo(DeliveryOutcome.UNREACHABLE);
+    }
+
+    @Test
+    public void shouldForgetHostsOnceIdleAlongWithTheirMeters() throws Exception {
+        mockServer.enqueue(new MockResponse());
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = new HttpNotifier(
+            WebClient.builder(),
+            meterRegistry,
+            10,
+            10,
+            10,
+            ExcessPolicy.QUEUE,
+            Duration.ofSeconds(5),
+            HttpNotifier.DEFAULT_BREAKER_FAILURES,
+            Duration.ofSeconds(30),
+            Duration.ofMillis(100)
+        );
+        val uri = URI.create(String.format("http://localhost:%d/", mockServer.getPort()));
+        val host = HttpNotifier.hostOf(uri);
+
+        notifier.deliver(uri, NotificationPayload.of(ANY_TIME)).toCompletableFuture().get(5, SECONDS);
+        assertThat(meterRegistry.find("notifier.http.host.limit").tag("host", host).gauge()).isNotNull();
+        Thread.sleep(200);
+        notifier.deliver(URI.create("http://other/"), NotificationPayload.of(ANY_TIME), 0);
+
+        assertThat(notifier.breakerOf(host)).isNull();
+        assertThat(meterRegistry.find("notifier.http.host.limit").tag("host", host).gauge()).isNull();
+        assertThat(meterRegistry.find("notifier.http.host.shed").tag("host", host).counter()).isNull();
+        assertThat(meterRegistry.get("notifier.http.hosts").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotifyHostAgainOnceForgotten() throws Exception {
+        mockServer.enqueue(new MockResponse());
+        mockServer.enqueue(new MockResponse());
+        val meterRegistry = new SimpleMeterRegistry();
+        val notifier = new HttpNotifier(
+            WebClient.builder(),
+            meterRegistry,
+            10,
+            10,
+            10,
+            ExcessPolicy.QUEUE,
+            Duration.ofSeconds(5),
+            HttpNotifier.DEFAULT_BREAKER_FAILURES,
+            Duration.ofSeconds(30),
+            Duration.ofMillis(100)
+        );
+        val uri = URI.create(String.format("http://localhost:%d/", mockServer.getPort()));
+
+        notifier.deliver(uri, NotificationPayload.of(ANY_TIME)).toCompletableFuture().get(5, SECONDS);
+        Thread.sleep(200);
+        val result = notifier
+            .deliver(uri, NotificationPayload.of(ANY_TIME))
+            .toCompletableFuture()
+            .get(5, SECONDS);
+
+        assertThat(result.outcome()).isEqualTo(DeliveryOutcome.DELIVERED);
+        assertThat(
+            meterRegistry.get("notifier.http.host.limit").tag("host", HttpNotifier.hostOf(uri)).gauge()
+        )
+            .isNotNull();
+    }
+
+    static HttpNotifier withBreakerOpeningAfter(final int failures, final MeterRegistry meterRegistry) {
+        return new HttpNotifier(
+            WebClient.builder(),
+            meterRegistry,
+            10,
+            10,
+            10,
+            ExcessPolicy.QUEUE,
+            Duration.ofSeconds(5),
+            failures,
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(10)
+        );
+    }
+
+    static void awaitBreaker(
+        final HttpNotifier notifier,
+        final String host,
+        final CircuitBreaker.State state
+    ) throws InterruptedException {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (notifier.breakerOf(host).state() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(notifier.breakerOf(host).state()).isEqualTo(state);
+    }
+
+    private static HttpNotifier limitedToOne(
+        final ExcessPolicy excessPolicy,
+        final MeterRegistry meterRegistry
+    ) {
+        return new HttpNotifier(
+            WebClient.builder(),
+            meterRegistry,
+            1,
+            1,
+            10,
+            excessPolicy,
+            Duration.ofSeconds(5),
+            HttpNotifier.DEFAULT_BREAKER_FAILURES,
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(10)
+        );
+    }
 }
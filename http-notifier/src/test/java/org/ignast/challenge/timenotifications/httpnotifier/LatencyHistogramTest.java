@@ -0,0 +1,75 @@
+package org.ignast.challenge.timenotifications.httpnotifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+final class LatencyHistogramTest {
+
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldReportNothingUntilRecorded() {
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.microsAtPercentile(99)).isZero();
+    }
+
+    @Test
+    public void shouldKeepSmallLatenciesExact() {
+        for (long micros = 0; micros < LatencyHistogram.SUB_BUCKETS; micros++) {
+            assertThat(LatencyHistogram.highestMicrosOf(LatencyHistogram.bucketOf(micros))).isEqualTo(micros);
+        }
+    }
+
+    @Test
+    public void shouldBucketEveryLatencyWithinAQuarter() {
+        for (long micros = 1; micros <= LatencyHistogram.HIGHEST_MICROS; micros = micros * 3 / 2 + 1) {
+            val highest = LatencyHistogram.highestMicrosOf(LatencyHistogram.bucketOf(micros));
+            assertThat(highest).isGreaterThanOrEqualTo(micros).isLessThanOrEqualTo(micros + micros / 4);
+        }
+    }
+
+    @Test
+    public void shouldPlaceAdjacentBucketsEdgeToEdge() {
+        for (
+            int bucket = 0;
+            LatencyHistogram.highestMicrosOf(bucket) < LatencyHistogram.HIGHEST_MICROS;
+            bucket++
+        ) {
+            assertThat(LatencyHistogram.bucketOf(LatencyHistogram.highestMicrosOf(bucket) + 1))
+                .isEqualTo(bucket + 1);
+        }
+    }
+
+    @Test
+    public void shouldReportPercentiles() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000 * NANOS_PER_MICRO);
+        }
+        histogram.record(100_000 * NANOS_PER_MICRO);
+
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.microsAtPercentile(50)).isBetween(1_000L, 1_250L);
+        assertThat(histogram.microsAtPercentile(99)).isBetween(1_000L, 1_250L);
+        assertThat(histogram.microsAtPercentile(100)).isEqualTo(100_000);
+        assertThat(histogram.highestMicros()).isEqualTo(100_000);
+    }
+
+    @Test
+    public void shouldNotReportMoreThanHighestRecorded() {
+        histogram.record(1_025 * NANOS_PER_MICRO);
+
+        assertThat(histogram.microsAtPercentile(50)).isEqualTo(1_025);
+    }
+
+    @Test
+    public void shouldCountLatenciesBeyondRangeAsHighest() {
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.highestMicros()).isEqualTo(LatencyHistogram.HIGHEST_MICROS);
+        assertThat(histogram.microsAtPercentile(100)).isEqualTo(LatencyHistogram.HIGHEST_MICROS);
+    }
+}
@@ -0,0 +1,266 @@
+package org.ignast.challenge.timenotifications.loadtest;
+
+import static java.lang.String.format;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.val;
+import org.ignast.challenge.timenotifications.testutil.api.traversor.HateoasTraversor;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Creates subscriptions through the API of a running node pointing to a local sink, then measures
+ * notification lateness and loss. In saturation mode subscriptions are added in steps until p99 lateness
+ * crosses the threshold or notifications get lost.
+ */
+public final class LoadTest {
+
+    private static final MediaType HAL_JSON = MediaType.valueOf("application/hal+json");
+
+    private final Options options;
+
+    private final HateoasTraversor.Factory traversors;
+
+    private final RestTemplate restTemplate;
+
+    private final ExecutorService clients;
+
+    private final Queue<URI> created = new ConcurrentLinkedQueue<>();
+
+    private LoadTest(final Options options) {
+        this.options = options;
+        this.traversors = new HateoasTraversor.Factory(new RestTemplateBuilder(), HAL_JSON);
+        this.restTemplate = new RestTemplateBuilder().build();
+        this.clients = Executors.newFixedThreadPool(options.clients);
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        val options = Options.parse(args);
+        val loadTest = new LoadTest(options);
+        try (val sink = NotificationSink.start(options.capacity(), options.sinkThreads)) {
+            loadTest.run(sink);
+        } finally {
+            loadTest.clients.shutdownNow();
+        }
+    }
+
+    private void run(final NotificationSink sink) throws InterruptedException {
+        System.out.printf(
+            "%12s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+            "subscriptions",
+            "received",
+            "lost",
+            "late p50",
+            "late p99",
+            "late p999",
+            "late max",
+            "api p50",
+            "api p99"
+        );
+        var subscribed = 0;
+        var lastSustained = -1;
+        var target = options.subscriptions;
+        try {
+            while (true) {
+                val api = subscribe(sink, subscribed, target);
+                subscribed = target;
+                val step = measure(sink, subscribed);
+                System.out.printf(
+                    "%12d %10d %10d %10d %10d %10d %10d %10d %10d%s%n",
+                    subscribed,
+                    step.lateness.count(),
+                    step.lost,
+                    step.lateness.percentile(0.5),
+                    step.lateness.percentile(0.99),
+                    step.lateness.percentile(0.999),
+                    step.lateness.max(),
+                    api.latency.percentile(0.5),
+                    api.latency.percentile(0.99),
+                    api.failures.get() > 0 ? format(" (%d failed to subscribe)", api.failures.get()) : ""
+                );
+                val sustained =
+                    step.lateness.percentile(0.99) <= options.thresholdMillis &&
+                    step.lost == 0 &&
+                    api.failures.get() == 0;
+                if (!options.saturate) {
+                    return;
+                }
+                if (!sustained) {
+                    System.out.printf(
+                        "saturated: p99 lateness within %d ms sustained up to %s subscriptions%n",
+                        options.thresholdMillis,
+                        lastSustained < 0 ? "no" : String.valueOf(lastSustained)
+                    );
+                    return;
+                }
+                lastSustained = subscribed;
+                target =
+                    (int) Math.min(options.maxSubscriptions, (long) Math.ceil(subscribed * options.step));
+                if (target <= subscribed) {
+                    System.out.printf("not saturated by %d subscriptions%n", subscribed);
+                    return;
+                }
+            }
+        } finally {
+            unsubscribeAll();
+            System.out.printf("unexpected notifications: %d%n", sink.unexpected());
+        }
+    }
+
+    private ApiStep subscribe(final NotificationSink sink, final int from, final int to)
+        throws InterruptedException {
+        val step = new ApiStep();
+        val tasks = new ArrayList<Runnable>(to - from);
+        for (int i = from; i < to; i++) {
+            val body = subscriptionOf(sink.uriOf(i));
+            tasks.add(() -> {
+                val startedAt = System.nanoTime();
+                try {
+                    val response = traversors
+                        .startAt(options.target)
+                        .hop(f -> f.post("subscriptions:create", body))
+                        .perform();
+                    step.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                    if (response.getStatusCode() == HttpStatus.CREATED) {
+                        created.add(response.getHeaders().getLocation());
+                    } else {
+                        step.failures.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    step.failures.incrementAndGet();
+                }
+            });
+        }
+        awaitAll(tasks);
+        return step;
+    }
+
+    private NotificationStep measure(final NotificationSink sink, final int subscriptions)
+        throws InterruptedException {
+        Thread.sleep(options.periodMillis + 1000);
+        val from = System.currentTimeMillis();
+        val to = from + TimeUnit.SECONDS.toMillis(options.durationSeconds);
+        sink.measure(from, to);
+        Thread.sleep(to - from + options.graceMillis);
+        return new NotificationStep(sink.lateness(), sink.lost(subscriptions, options.periodMillis));
+    }
+
+    private void unsubscribeAll() throws InterruptedException {
+        val tasks = new ArrayList<Runnable>();
+        for (URI location = created.poll(); location != null; location = created.poll()) {
+            val toRemove = location;
+            tasks.add(() -> {
+                try {
+                    restTemplate.delete(toRemove);
+                } catch (RestClientException e) {
+                    System.err.printf("failed to remove %s: %s%n", toRemove, e.getMessage());
+                }
+            });
+        }
+        awaitAll(tasks);
+    }
+
+    private void awaitAll(final List<Runnable> tasks) throws InterruptedException {
+        val futures = new ArrayList<Future<?>>(tasks.size());
+        for (val task : tasks) {
+            futures.add(clients.submit(task));
+        }
+        for (val future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private String subscriptionOf(final URI sinkUri) {
+        return format(
+            "{\"subscriptionUri\":\"%s\",\"frequency\":{\"amount\":%d,\"timeUnit\":\"millisecond\"}}",
+            sinkUri,
+            options.periodMillis
+        );
+    }
+
+    private static final class ApiStep {
+
+        private final MillisHistogram latency = new MillisHistogram();
+        private final AtomicLong failures = new AtomicLong();
+    }
+
+    private static final class NotificationStep {
+
+        private final MillisHistogram lateness;
+        private final long lost;
+
+        private NotificationStep(final MillisHistogram lateness, final long lost) {
+            this.lateness = lateness;
+            this.lost = lost;
+        }
+    }
+
+    static final class Options {
+
+        private String target = "http://localhost:8080";
+        private int subscriptions = 1000;
+        private int periodMillis = 4000;
+        private int durationSeconds = 30;
+        private int graceMillis = 2000;
+        private int clients = 16;
+        private int sinkThreads = 16;
+        private boolean saturate;
+        private int thresholdMillis = 100;
+        private int maxSubscriptions = 1_000_000;
+        private double step = 2;
+
+        static Options parse(final String[] args) {
+            val given = new HashMap<String, String>();
+            for (val arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("expected --name=value, got " + arg);
+                }
+                val separator = arg.indexOf('=');
+                given.put(
+                    separator < 0 ? arg.substring(2) : arg.substring(2, separator),
+                    separator < 0 ? "true" : arg.substring(separator + 1)
+                );
+            }
+            val options = new Options();
+            options.target = given.getOrDefault("target", options.target);
+            options.subscriptions = intOf(given, "subscriptions", options.subscriptions);
+            options.periodMillis = intOf(given, "period-millis", options.periodMillis);
+            options.durationSeconds = intOf(given, "duration-seconds", options.durationSeconds);
+            options.graceMillis = intOf(given, "grace-millis", options.graceMillis);
+            options.clients = intOf(given, "clients", options.clients);
+            options.sinkThreads = intOf(given, "sink-threads", options.sinkThreads);
+            options.saturate = Boolean.parseBoolean(given.getOrDefault("saturate", "false"));
+            options.thresholdMillis = intOf(given, "threshold-millis", options.thresholdMillis);
+            options.maxSubscriptions = intOf(given, "max-subscriptions", options.maxSubscriptions);
+            options.step = Double.parseDouble(given.getOrDefault("step", String.valueOf(options.step)));
+            return options;
+        }
+
+        int capacity() {
+            return saturate ? Math.max(subscriptions, maxSubscriptions) : subscriptions;
+        }
+
+        private static int intOf(final Map<String, String> given, final String name, final int orElse) {
+            return given.containsKey(name) ? Integer.parseInt(given.get(name)) : orElse;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.ignast.challenge.timenotifications.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.val;
+
+/**
+ * Durations from a minute on share the last bucket.
+ */
+final class MillisHistogram {
+
+    static final int MAX_MILLIS = 60_000;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(MAX_MILLIS + 1);
+
+    void record(final long millis) {
+        buckets.incrementAndGet((int) Math.max(0, Math.min(MAX_MILLIS, millis)));
+    }
+
+    long count() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the smallest duration that at least the given share of recorded ones do not exceed, or zero if
+     * nothing was recorded
+     */
+    long percentile(final double share) {
+        val rank = (long) Math.ceil(share * count());
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    long max() {
+        for (int i = buckets.length() - 1; i >= 0; i--) {
+            if (buckets.get(i) > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,161 @@
+package org.ignast.challenge.timenotifications.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.val;
+
+/**
+ * Records how late each notification arrived against the moment it was scheduled for, one path per
+ * subscription.
+ */
+final class NotificationSink implements AutoCloseable {
+
+    private static final String TIME_FIELD = "\"time\":\"";
+
+    private static final long UNSEEN = Long.MIN_VALUE;
+
+    private final HttpServer server;
+
+    private final ExecutorService handlers;
+
+    private final AtomicLongArray anyScheduledAt;
+
+    private final AtomicLong unexpected = new AtomicLong();
+
+    private volatile Window window = new Window(0, 0, 0);
+
+    private NotificationSink(final HttpServer server, final ExecutorService handlers, final int capacity) {
+        this.server = server;
+        this.handlers = handlers;
+        this.anyScheduledAt = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            anyScheduledAt.set(i, UNSEEN);
+        }
+    }
+
+    /**
+     * @param capacity the most subscriptions the sink will be pointed to
+     */
+    static NotificationSink start(final int capacity, final int threads) {
+        try {
+            val server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+            val handlers = Executors.newFixedThreadPool(threads);
+            val sink = new NotificationSink(server, handlers, capacity);
+            server.createContext("/", sink::handle);
+            server.setExecutor(handlers);
+            server.start();
+            return sink;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    URI uriOf(final int subscription) {
+        return URI.create(
+            "http://" +
+            server.getAddress().getHostString() +
+            ":" +
+            server.getAddress().getPort() +
+            "/" +
+            subscription
+        );
+    }
+
+    void measure(final long fromMillis, final long toMillis) {
+        window = new Window(fromMillis, toMillis, anyScheduledAt.length());
+    }
+
+    MillisHistogram lateness() {
+        return window.lateness;
+    }
+
+    /**
+     * @return notifications scheduled within the measurement window that have not been received
+     */
+    long lost(final int subscriptions, final long periodInMillis) {
+        val current = window;
+        long lost = 0;
+        for (int i = 0; i < subscriptions; i++) {
+            val anchor = anyScheduledAt.get(i);
+            val expected = anchor == UNSEEN
+                ? (current.toMillis - current.fromMillis) / periodInMillis
+                : Math.floorDiv(current.toMillis - 1 - anchor, periodInMillis) -
+                Math.floorDiv(current.fromMillis - 1 - anchor, periodInMillis);
+            lost += Math.max(0, expected - current.received.get(i));
+        }
+        return lost;
+    }
+
+    long unexpected() {
+        return unexpected.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        val receivedAt = System.currentTimeMillis();
+        try (exchange) {
+            val body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            record(exchange.getRequestURI().getPath(), body, receivedAt);
+            exchange.sendResponseHeaders(200, -1);
+        }
+    }
+
+    private void record(final String path, final String body, final long receivedAt) {
+        val subscription = subscriptionOf(path);
+        val timeStart = body.indexOf(TIME_FIELD);
+        if (subscription < 0 || subscription >= anyScheduledAt.length() || timeStart < 0) {
+            unexpected.incrementAndGet();
+            return;
+        }
+        val timeEnd = body.indexOf('"', timeStart + TIME_FIELD.length());
+        val scheduledAt = ZonedDateTime
+            .parse(body.substring(timeStart + TIME_FIELD.length(), timeEnd))
+            .toInstant()
+            .toEpochMilli();
+        anyScheduledAt.compareAndSet(subscription, UNSEEN, scheduledAt);
+        val current = window;
+        if (scheduledAt >= current.fromMillis && scheduledAt < current.toMillis) {
+            current.received.incrementAndGet(subscription);
+            current.lateness.record(receivedAt - scheduledAt);
+        }
+    }
+
+    private static int subscriptionOf(final String path) {
+        try {
+            return Integer.parseInt(path.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Window {
+
+        private final long fromMillis;
+        private final long toMillis;
+        private final AtomicIntegerArray received;
+        private final MillisHistogram lateness = new MillisHistogram();
+
+        private Window(final long fromMillis, final long toMillis, final int capacity) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.received = new AtomicIntegerArray(capacity);
+        }
+    }
+}
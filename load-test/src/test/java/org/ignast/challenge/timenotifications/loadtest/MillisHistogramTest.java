@@ -0,0 +1,38 @@
+package org.ignast.challenge.timenotifications.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class MillisHistogramTest {
+
+    private final MillisHistogram histogram = new MillisHistogram();
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.percentile(0.99)).isZero();
+        assertThat(histogram.max()).isZero();
+    }
+
+    @Test
+    public void shouldFindPercentiles() {
+        IntStream.rangeClosed(1, 1000).forEach(histogram::record);
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.percentile(0.5)).isEqualTo(500);
+        assertThat(histogram.percentile(0.99)).isEqualTo(990);
+        assertThat(histogram.percentile(1)).isEqualTo(1000);
+        assertThat(histogram.max()).isEqualTo(1000);
+    }
+
+    @Test
+    public void shouldClampDurationsOutOfRange() {
+        histogram.record(-5);
+        histogram.record(MillisHistogram.MAX_MILLIS * 2L);
+
+        assertThat(histogram.percentile(0.5)).isZero();
+        assertThat(histogram.max()).isEqualTo(MillisHistogram.MAX_MILLIS);
+    }
+}
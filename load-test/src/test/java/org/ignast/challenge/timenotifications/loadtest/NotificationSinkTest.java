@@ -0,0 +1,87 @@
+package org.ignast.challenge.timenotifications.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NotificationSinkTest {
+
+    private static final long PERIOD = 1000;
+
+    private static final long FROM = 1_600_000_000_000L;
+
+    private final NotificationSink sink = NotificationSink.start(2, 2);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    public void stop() {
+        sink.close();
+    }
+
+    @Test
+    public void shouldPointEverySubscriptionToItsOwnPath() {
+        assertThat(sink.uriOf(0)).isNotEqualTo(sink.uriOf(1));
+        assertThat(sink.uriOf(1).getHost()).isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    public void shouldRecordLatenessOfNotificationsWithinWindow() throws Exception {
+        val now = System.currentTimeMillis();
+        sink.measure(now - 60_000, now + 60_000);
+
+        assertThat(post(sink.uriOf(0), now - 50)).isEqualTo(200);
+
+        assertThat(sink.lateness().count()).isEqualTo(1);
+        assertThat(sink.lateness().max()).isBetween(50L, 30_000L);
+    }
+
+    @Test
+    public void shouldNotCountNotificationsScheduledOutsideWindow() throws Exception {
+        sink.measure(FROM, FROM + 5 * PERIOD);
+
+        post(sink.uriOf(0), FROM - PERIOD);
+        post(sink.uriOf(0), FROM + 5 * PERIOD);
+
+        assertThat(sink.lateness().count()).isZero();
+    }
+
+    @Test
+    public void shouldCountNotificationsMissingFromWindowAsLost() throws Exception {
+        sink.measure(FROM, FROM + 5 * PERIOD);
+
+        post(sink.uriOf(0), FROM + 500);
+        post(sink.uriOf(0), FROM + 1500);
+        post(sink.uriOf(0), FROM + 3500);
+
+        assertThat(sink.lost(1, PERIOD)).isEqualTo(2);
+        assertThat(sink.lost(2, PERIOD)).isEqualTo(2 + 5);
+    }
+
+    @Test
+    public void shouldCountNotificationsToUnknownPathsAsUnexpected() throws Exception {
+        post(sink.uriOf(0).resolve("/elsewhere"), FROM);
+        post(sink.uriOf(7), FROM);
+
+        assertThat(sink.unexpected()).isEqualTo(2);
+    }
+
+    private int post(final URI uri, final long scheduledAt) throws IOException, InterruptedException {
+        val time = Instant.ofEpochMilli(scheduledAt).atZone(ZoneOffset.UTC.normalized());
+        val request = HttpRequest
+            .newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"time\":\"" + time + "\"}"))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,54 @@
+package org.ignast.challenge.timenotifications.acceptance;
+
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+public final class DeliveriesEndpointTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    public void shouldExposeOverallDeliveries() {
+        client
+            .get()
+            .uri("/actuator/deliveries")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.outcomes")
+            .exists()
+            .jsonPath("$.p99Millis")
+            .isNumber();
+    }
+
+    @Test
+    public void shouldNotFindDeliveriesToHostNeverNotified() {
+        client
+            .get()
+            .uri("/actuator/deliveries/never.notified.example:8081")
+            .exchange()
+            .expectStatus()
+            .isNotFound();
+    }
+
+    @TestConfiguration
+    static class AcceptanceConfiguration {
+
+        @Bean
+        MediaType appMediaType() {
+            return HAL_JSON;
+        }
+    }
+}